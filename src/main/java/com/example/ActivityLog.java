@@ -0,0 +1,256 @@
+package com.example;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only task activity log. Writers only enqueue; a background flush turns the queue
+// into one multi-row INSERT per batch, triggered by batch size or by the flush interval.
+// Without a database (in-memory storage) batches are counted as written and discarded.
+public class ActivityLog {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO task_activity (task_id, project_id, actor_id, action, details, created_at) " +
+        "SELECT task_id, project_id, actor_id, action, details::jsonb, created_at " +
+        "FROM UNNEST($1::int[], $2::int[], $3::int[], $4::text[], $5::text[], $6::timestamptz[]) " +
+        "AS batch(task_id, project_id, actor_id, action, details, created_at)";
+    private static final String TASK_HISTORY_SQL =
+        "SELECT id, task_id, project_id, actor_id, action, details, created_at FROM task_activity " +
+        "WHERE task_id = $1 AND id < $2 ORDER BY id DESC LIMIT $3";
+    private static final String PROJECT_ACTIVITY_SQL =
+        "SELECT id, task_id, project_id, actor_id, action, details, created_at FROM task_activity " +
+        "WHERE project_id = $1 AND id < $2 ORDER BY id DESC LIMIT $3";
+
+    static final List<String> STATEMENTS = List.of(INSERT_SQL, TASK_HISTORY_SQL, PROJECT_ACTIVITY_SQL);
+
+    private static final class Entry {
+        final int taskId;
+        final Integer projectId;
+        final Integer actorId;
+        final String action;
+        final String details;
+        final OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+
+        Entry(int taskId, Integer projectId, Integer actorId, String action, String details) {
+            this.taskId = taskId;
+            this.projectId = projectId;
+            this.actorId = actorId;
+            this.action = action;
+            this.details = details;
+        }
+    }
+
+    private final PgPool client;
+    private final DatabaseConnector db;
+    private final Context context;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final int maxRetries;
+    private final boolean rejectWhenFull;
+
+    // Only touched on the owning context
+    private boolean flushing;
+    private List<Entry> retryBatch;
+    private int retries;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMs;
+
+    public ActivityLog(Vertx vertx, DatabaseConnector db, JsonObject config) {
+        this.client = db != null ? db.primary() : null;
+        this.db = db;
+        this.context = vertx.getOrCreateContext();
+        this.queue = new ArrayBlockingQueue<>(config.getInteger("queueCapacity", 10_000));
+        this.batchSize = config.getInteger("batchSize", 500);
+        // A batch that still fails after this many retries is dropped, so a database outage
+        // does not keep the queue full (and every task write answering 503) until it ends
+        this.maxRetries = config.getInteger("maxRetries", 5);
+        // "reject": writes answer 503 while the queue is full, "drop": writes go through and the entry is counted as dropped
+        this.rejectWhenFull = "reject".equals(config.getString("whenFull", "reject"));
+
+        vertx.setPeriodic(config.getLong("flushIntervalMs", 500L), id -> flush());
+    }
+
+    // Backpressure for write endpoints: call before doing the write. Answers 503 and returns false when full.
+    public boolean admit(RoutingContext ctx) {
+        if (rejectWhenFull && queue.remainingCapacity() == 0) {
+            rejected.incrementAndGet();
+            ctx.response()
+                .putHeader("Retry-After", "1")
+                .setStatusCode(503)
+                .end("Activity log is saturated, try again shortly.");
+            return false;
+        }
+        return true;
+    }
+
+    // Safe to call from any thread
+    public void record(RoutingContext ctx, String action, int taskId, Integer projectId, JsonObject details) {
+        Entry entry = new Entry(taskId, projectId, actorId(ctx), action, details != null ? details.encode() : "{}");
+        if (!queue.offer(entry)) {
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 1000 == 0) {
+                System.out.println("⚠️ Activity log queue full, " + count + " entries dropped so far.");
+            }
+            return;
+        }
+        enqueued.incrementAndGet();
+        if (queue.size() >= batchSize) {
+            context.runOnContext(v -> flush());
+        }
+    }
+
+    private void flush() {
+        if (flushing || (queue.isEmpty() && retryBatch == null)) {
+            return;
+        }
+        flushing = true;
+
+        List<Entry> batch;
+        if (retryBatch != null) {
+            batch = retryBatch;
+            retryBatch = null;
+        } else {
+            batch = new ArrayList<>(Math.min(queue.size(), batchSize));
+            queue.drainTo(batch, batchSize);
+        }
+
+        int size = batch.size();
+        if (client == null) {
+            flushing = false;
+            written.addAndGet(size);
+            return;
+        }
+
+        Integer[] taskIds = new Integer[size];
+        Integer[] projectIds = new Integer[size];
+        Integer[] actorIds = new Integer[size];
+        String[] actions = new String[size];
+        String[] details = new String[size];
+        OffsetDateTime[] createdAt = new OffsetDateTime[size];
+        for (int i = 0; i < size; i++) {
+            Entry entry = batch.get(i);
+            taskIds[i] = entry.taskId;
+            projectIds[i] = entry.projectId;
+            actorIds[i] = entry.actorId;
+            actions[i] = entry.action;
+            details[i] = entry.details;
+            createdAt[i] = entry.createdAt;
+        }
+
+        long started = System.currentTimeMillis();
+        Tracing.query(client, INSERT_SQL, Tuple.of(taskIds, projectIds, actorIds, actions, details, createdAt))
+            .onComplete(ar -> {
+                flushing = false;
+                lastFlushMs = System.currentTimeMillis() - started;
+                if (ar.succeeded()) {
+                    retries = 0;
+                    written.addAndGet(size);
+                    if (queue.size() >= batchSize) {
+                        flush();
+                    }
+                } else if (retries < maxRetries) {
+                    // Keep the batch and retry it on the next tick
+                    failedFlushes.incrementAndGet();
+                    retries++;
+                    retryBatch = batch;
+                    System.out.println("❌ Failed to write " + size + " activity entries (attempt " + retries + "): " + ar.cause().getMessage());
+                } else {
+                    failedFlushes.incrementAndGet();
+                    retries = 0;
+                    dropped.addAndGet(size);
+                    System.out.println("❌ Dropping " + size + " activity entries after " + (maxRetries + 1) + " failed attempts: " + ar.cause().getMessage());
+                }
+            });
+    }
+
+    public JsonObject metrics() {
+        return new JsonObject()
+            .put("queue_depth", queue.size())
+            .put("queue_capacity", queue.size() + queue.remainingCapacity())
+            .put("enqueued", enqueued.get())
+            .put("written", written.get())
+            .put("dropped", dropped.get())
+            .put("rejected_writes", rejected.get())
+            .put("failed_flushes", failedFlushes.get())
+            .put("last_flush_ms", lastFlushMs);
+    }
+
+    // GET /tasks/:id/history?before=&limit=
+    public void getTaskHistory(RoutingContext ctx) {
+        page(ctx, TASK_HISTORY_SQL, "Failed to fetch task history: ");
+    }
+
+    // GET /projects/:id/activity?before=&limit=
+    public void getProjectActivity(RoutingContext ctx) {
+        page(ctx, PROJECT_ACTIVITY_SQL, "Failed to fetch project activity: ");
+    }
+
+    // Newest first, keyset paginated on the activity id: pass next_before back as ?before=
+    private void page(RoutingContext ctx, String sql, String failurePrefix) {
+        int id;
+        long before;
+        int limit;
+        try {
+            id = Integer.parseInt(ctx.pathParam("id"));
+            // task_activity.id is a BIGSERIAL
+            before = Long.parseLong(ctx.request().getParam("before", String.valueOf(Long.MAX_VALUE)));
+            limit = Math.max(1, Math.min(Integer.parseInt(ctx.request().getParam("limit", "50")), 200));
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid id or pagination parameters.");
+            return;
+        }
+
+        int pageSize = limit;
+        db.read(ctx, reader -> Tracing.query(reader, sql, Tuple.of(id, before, pageSize)))
+            .onSuccess(rows -> {
+                JsonArray entries = new JsonArray();
+                Long lastId = null;
+                for (Row row : rows) {
+                    lastId = row.getLong("id");
+                    Object details = row.getValue("details");
+                    entries.add(new JsonObject()
+                        .put("id", lastId)
+                        .put("task_id", row.getInteger("task_id"))
+                        .put("project_id", row.getInteger("project_id"))
+                        .put("actor_id", row.getInteger("actor_id"))
+                        .put("action", row.getString("action"))
+                        .put("details", details instanceof JsonObject ? details : new JsonObject(String.valueOf(details)))
+                        .put("created_at", row.getOffsetDateTime("created_at").toString()));
+                }
+                ctx.response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(new JsonObject()
+                        .put("activity", entries)
+                        .put("next_before", rows.size() == pageSize ? lastId : null)
+                        .encode());
+            })
+            .onFailure(err -> ctx.response().setStatusCode(500).end(failurePrefix + err.getMessage()));
+    }
+
+    // Task routes do not require a token; MainVerticle sets ctx.user() when a valid one is sent
+    private static Integer actorId(RoutingContext ctx) {
+        if (ctx == null || ctx.user() == null) {
+            return null;
+        }
+        Object id = ctx.user().principal().getValue("id");
+        return id instanceof Number ? ((Number) id).intValue() : id != null ? Integer.valueOf(id.toString()) : null;
+    }
+}
@@ -1,32 +1,34 @@
 package com.example;
 
 import io.vertx.core.Vertx;
-import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.auth.jwt.JWTAuth;
 import io.vertx.ext.auth.jwt.JWTAuthOptions;
 import io.vertx.ext.auth.AuthProvider;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import org.mindrot.jbcrypt.BCrypt;
 import io.vertx.ext.auth.authentication.UsernamePasswordCredentials;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.pgclient.PgPool;
-import io.vertx.sqlclient.Row;
-import io.vertx.sqlclient.Tuple;
 
 public class AuthenticationHandler {
 
     private final Vertx vertx;
     private final JWTAuth jwtAuth;
-    private final PgPool client;
+    private final UserRepository users;
+    private final TokenRevocationList revocations;
+    private final int tokenTtlMinutes;
 
-    public AuthenticationHandler(Vertx vertx, JWTAuth jwtAuth, PgPool client) {
+    public AuthenticationHandler(Vertx vertx, JWTAuth jwtAuth, UserRepository users, TokenRevocationList revocations, int tokenTtlMinutes) {
         this.vertx = vertx;
         this.jwtAuth = jwtAuth;
-        this.client = client;
+        this.users = users;
+        this.revocations = revocations;
+        this.tokenTtlMinutes = tokenTtlMinutes;
     }
 
     // Register a new user
@@ -76,12 +78,10 @@ public class AuthenticationHandler {
         System.out.println("🔑 Hashed Password: " + hashedPassword);
 
 
-        // Insert new user into database (PostgreSQL)
-        String sql = "INSERT INTO users (created_at, username,  email, password, role) VALUES (NOW(), $1, $2, $3, $4)";
-        client.preparedQuery(sql)
-            .execute(Tuple.of(username,  email, hashedPassword, role), ar -> {
+        // Insert new user
+        users.create(routingContext, new User(null, username, email, role, hashedPassword))
+            .onComplete(ar -> {
                 if (ar.succeeded()) {
-                
                     routingContext.response().setStatusCode(201)
                     .putHeader("Content-Type", "application/json")
                     .end(new JsonObject ().put("message", "registered successfully").encode());
@@ -104,18 +104,16 @@ public void login(RoutingContext routingContext) {
         return;
     }
 
-    String sql = "SELECT id, username, email, role, password FROM users WHERE username = $1";
-    client.preparedQuery(sql)
-    .execute(Tuple.of(username), ar -> {
-        if (ar.succeeded() && ar.result().rowCount() > 0) {
-            JsonObject user = new JsonObject();
-            ar.result().forEach(row -> {
-                user.put("id", row.getInteger("id"));
-                user.put("username", row.getString("username"));
-                user.put("email", row.getString("email"));
-                user.put("hashedPassword", row.getString("password"));
-                user.put("role", row.getString("role"));
-            });
+    users.findByUsername(routingContext, username)
+    .onComplete(ar -> {
+        if (ar.succeeded() && ar.result() != null) {
+            User stored = ar.result();
+            JsonObject user = new JsonObject()
+                .put("id", stored.id())
+                .put("username", stored.username())
+                .put("email", stored.email())
+                .put("hashedPassword", stored.password())
+                .put("role", stored.role());
 
             
             System.out.println("🔍 Loaded User: " + user.encode());
@@ -131,11 +129,15 @@ public void login(RoutingContext routingContext) {
             JsonObject tokenData = new JsonObject()
                 .put("id", user.getInteger("id"))
                 .put("username", user.getString("username"))
-                .put("role", user.getString("role"));
+                .put("role", user.getString("role"))
+                .put("jti", UUID.randomUUID().toString()) // lets a single token be revoked on logout
+                .put(TokenRevocationList.ISSUED_AT_MS, System.currentTimeMillis());
 
             System.out.println("✅ Token Payload: " + tokenData.encode());
 
-            String token = jwtAuth.generateToken(tokenData, new io.vertx.ext.auth.JWTOptions().setAlgorithm("HS256"));
+            String token = jwtAuth.generateToken(tokenData, new io.vertx.ext.auth.JWTOptions()
+                .setAlgorithm("HS256")
+                .setExpiresInMinutes(tokenTtlMinutes));
 
             routingContext.response()
                 .putHeader("Content-Type", "application/json")
@@ -145,32 +147,28 @@ public void login(RoutingContext routingContext) {
         }
     });
 }
-public void getAllUsers(RoutingContext routingContext) {
-    // SQL to fetch all users
-    String sql = "SELECT id, username, email, role FROM users";
-    
-    client.preparedQuery(sql)
-        .execute()
-        .onSuccess(rows -> {
-            //response as a list of users
-            JsonObject response = new JsonObject();
-            List<JsonObject> usersList = new ArrayList<>();
-
-            rows.forEach(row -> {
-                JsonObject user = new JsonObject()
-                    .put("id", row.getInteger("id"))
-                    .put("username", row.getString("username"))
-                    .put("email", row.getString("email"))
-                    .put("role", row.getString("role"));
-                usersList.add(user);
-            });
-
-            response.put("users", usersList);
+// Revokes the caller's current token
+public void logout(RoutingContext routingContext) {
+    JsonObject principal = routingContext.user().principal();
+    String tokenId = principal.getString("jti");
+    if (tokenId == null) {
+        routingContext.response().setStatusCode(400).end("Token cannot be revoked individually.");
+        return;
+    }
 
+    long expiresAt = principal.getLong("exp", Instant.now().getEpochSecond() + tokenTtlMinutes * 60L);
+    revocations.revokeToken(tokenId, expiresAt)
+        .onSuccess(v -> routingContext.response().setStatusCode(200).end("Logged out"))
+        .onFailure(err -> routingContext.response().setStatusCode(500).end("Failed to log out: " + err.getMessage()));
+}
 
+public void getAllUsers(RoutingContext routingContext) {
+    users.findAll(routingContext)
+        .onSuccess(rows -> {
+            // response as a list of users, streamed straight into the response buffer
             routingContext.response()
                 .putHeader("Content-Type", "application/json")
-                .end(response.encodePrettily());
+                .end(JsonRowWriter.users(rows));
         })
         .onFailure(cause -> {
             routingContext.response()
@@ -188,20 +186,14 @@ public void getUserById(RoutingContext routingContext) {
         return;
     }
 
-    // SQL to fetch a user by ID
-    String sql = "SELECT id, username, email, role FROM users WHERE id = $1";
-    
-    client.preparedQuery(sql)
-        .execute(Tuple.of(Integer.parseInt(userId)))
-        .onSuccess(rows -> {
-            if (rows.rowCount() > 0) {
-                JsonObject user = new JsonObject();
-                rows.forEach(row -> {
-                    user.put("id", row.getInteger("id"));
-                    user.put("username", row.getString("username"));
-                    user.put("email", row.getString("email"));
-                    user.put("role", row.getString("role"));
-                });
+    users.findById(routingContext, Integer.parseInt(userId))
+        .onSuccess(stored -> {
+            if (stored != null) {
+                JsonObject user = new JsonObject()
+                    .put("id", stored.id())
+                    .put("username", stored.username())
+                    .put("email", stored.email())
+                    .put("role", stored.role());
 
                 routingContext.response()
                     .putHeader("Content-Type", "application/json")
@@ -221,11 +213,8 @@ public void getUserById(RoutingContext routingContext) {
 
 public void getTeamMembers(RoutingContext routingContext) {
    
-    String sql = "SELECT id, username FROM users where role='team_member'";
-    
     System.out.println("row....");
-    client.preparedQuery(sql)
-        .execute()
+    users.findByRole(routingContext, "team_member")
         .onSuccess(rows -> {
             // response as a list of users
             JsonObject response = new JsonObject();
@@ -234,8 +223,8 @@ public void getTeamMembers(RoutingContext routingContext) {
             rows.forEach(row -> {
                 System.out.println("row"+row);
                 JsonObject user = new JsonObject()
-                    .put("id", row.getInteger("id"))
-                    .put("username", row.getString("username"));
+                    .put("id", row.id())
+                    .put("username", row.username());
                 usersList.add(user);
             });
 
@@ -251,18 +240,52 @@ System.out.println("users"+response);
                 .end("Failed to fetch users: " + cause.getMessage());
         });
 }
+// Team members with their open-task load, in one aggregated query.
+// Keyset pagination: pass the last returned id as ?after= to get the next page.
+public void getTeamMemberWorkload(RoutingContext routingContext) {
+    int after;
+    int limit;
+    try {
+        after = Integer.parseInt(routingContext.request().getParam("after", "0"));
+        limit = Integer.parseInt(routingContext.request().getParam("limit", "50"));
+    } catch (NumberFormatException e) {
+        routingContext.response().setStatusCode(400).end("Invalid pagination parameters.");
+        return;
+    }
+    limit = Math.max(1, Math.min(limit, 200));
+
+    int pageSize = limit;
+    users.workload(routingContext, after, pageSize)
+        .onSuccess(page -> {
+            Integer lastId = page.isEmpty() ? null : page.getJsonObject(page.size() - 1).getInteger("id");
+
+            JsonObject response = new JsonObject()
+                .put("users", page)
+                .put("next_after", page.size() == pageSize ? lastId : null);
+
+            routingContext.response()
+                .putHeader("Content-Type", "application/json")
+                .end(response.encode());
+        })
+        .onFailure(cause -> {
+            routingContext.response()
+                .setStatusCode(500)
+                .end("Failed to fetch team workload: " + cause.getMessage());
+        });
+}
+
 public void updateUser(RoutingContext ctx ) {
     String id = ctx.pathParam("id");
     JsonObject body = ctx.body().asJsonObject();
 
     String newRole = body.getString("role");
 
-    String sql = "UPDATE users SET role = $1 WHERE id= $2";
-
-    client.preparedQuery(sql).execute(Tuple.of(newRole, Integer.parseInt(id)))
+    users.updateRole(ctx, Integer.parseInt(id), newRole)
     .onSuccess(result -> {
-        ctx.response().setStatusCode(200)
-        .end("user updated");
+        // Existing tokens still carry the old role
+        revocations.revokeUser(Integer.parseInt(id))
+            .onSuccess(v -> ctx.response().setStatusCode(200).end("user updated"))
+            .onFailure(err -> ctx.response().setStatusCode(500).end("User updated, but revoking their tokens failed: " + err.getMessage()));
     })
     .onFailure(err -> {
         err.printStackTrace();
@@ -275,10 +298,12 @@ public void updateUser(RoutingContext ctx ) {
 }
 public void deleteUser(RoutingContext ctx) {
     int userId = Integer.parseInt(ctx.pathParam("id"));
-    client.preparedQuery("DELETE FROM users WHERE id = $1")
-        .execute(Tuple.of(userId), ar -> {
+    users.delete(ctx, userId)
+        .onComplete(ar -> {
             if (ar.succeeded()) {
-                ctx.response().setStatusCode(200).end("Task deleted");
+                revocations.revokeUser(userId)
+                    .onSuccess(v -> ctx.response().setStatusCode(200).end("Task deleted"))
+                    .onFailure(err -> ctx.response().setStatusCode(500).end("User deleted, but revoking their tokens failed: " + err.getMessage()));
             } else {
                 ctx.response().setStatusCode(500).end("Failed to delete task: " + ar.cause().getMessage());
             }
@@ -298,18 +323,16 @@ public void getProfile(RoutingContext ctx) {
     System.out.println("User ID: " + userId);
 
 
-    client.preparedQuery("SELECT id, username, email, role FROM users WHERE id = $1")
-        .execute(Tuple.of(Integer.parseInt(userId)))
-        .onSuccess(rows -> {
-            if (rows.rowCount() == 0) {
+    users.findById(ctx, Integer.parseInt(userId))
+        .onSuccess(stored -> {
+            if (stored == null) {
                 ctx.response().setStatusCode(404).end("User not found");
             } else {
-                Row row = rows.iterator().next();
                 JsonObject profile = new JsonObject()
-                    .put("id", row.getInteger("id"))
-                    .put("username", row.getString("username"))
-                    .put("email", row.getString("email"))
-                    .put("role", row.getString("role"));
+                    .put("id", stored.id())
+                    .put("username", stored.username())
+                    .put("email", stored.email())
+                    .put("role", stored.role());
 
                 ctx.response().putHeader("Content-Type", "application/json").end(profile.encode());
             }
@@ -335,10 +358,9 @@ public void updateProfile(RoutingContext ctx) {
         return;
     }
 
-    client.preparedQuery("UPDATE users SET username = $1, email = $2 WHERE id = $3")
-        .execute(Tuple.of(newUsername, newEmail, Integer.parseInt(userId)))
-        .onSuccess(res -> {
-            if (res.rowCount() == 0) {
+    users.updateProfile(ctx, Integer.parseInt(userId), newUsername, newEmail)
+        .onSuccess(updated -> {
+            if (!updated) {
                 ctx.response().setStatusCode(404).end("User not found");
             } else {
                 ctx.response().end("Profile updated successfully");
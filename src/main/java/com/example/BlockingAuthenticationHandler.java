@@ -0,0 +1,265 @@
+package com.example;
+
+import com.example.BlockingExecutor.Reply;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.JWTOptions;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.ext.web.RoutingContext;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+// Blocking execution mode for users: AuthenticationHandler's endpoints as straight-line JDBC code.
+// BCrypt hashing/checking runs on the blocking executor too, off the event loop.
+public class BlockingAuthenticationHandler extends AuthenticationHandler {
+
+    private final JWTAuth jwtAuth;
+    private final DatabaseConnector db;
+    private final TokenRevocationList revocations;
+    private final int tokenTtlMinutes;
+    private final JdbcPool jdbc;
+    private final BlockingExecutor executor;
+
+    public BlockingAuthenticationHandler(Vertx vertx, JWTAuth jwtAuth, DatabaseConnector db, TokenRevocationList revocations,
+                                         int tokenTtlMinutes, JdbcPool jdbc, BlockingExecutor executor) {
+        super(vertx, jwtAuth, new PgUserRepository(db), revocations, tokenTtlMinutes);
+        this.jwtAuth = jwtAuth;
+        this.db = db;
+        this.revocations = revocations;
+        this.tokenTtlMinutes = tokenTtlMinutes;
+        this.jdbc = jdbc;
+        this.executor = executor;
+    }
+
+    @Override
+    public void register(RoutingContext routingContext) {
+        JsonObject requestBody = routingContext.body().asJsonObject();
+        if (requestBody == null) {
+            routingContext.response().setStatusCode(400).end("Invalid JSON body.");
+            return;
+        }
+
+        JsonObject authUser = routingContext.user() != null ? routingContext.user().principal() : null;
+        if (authUser == null || !"ADMIN".equalsIgnoreCase(authUser.getString("role"))) {
+            routingContext.response().setStatusCode(403).end("Only admins can register new users.");
+            return;
+        }
+
+        String username = requestBody.getString("username");
+        String email = requestBody.getString("email");
+        String password = requestBody.getString("password");
+        String requestedRole = requestBody.getString("role");
+        String role = requestedRole == null || requestedRole.trim().isEmpty() || requestedRole.trim().equalsIgnoreCase("null")
+            ? "team_member"
+            : requestedRole;
+
+        if (username == null || email == null || password == null) {
+            routingContext.response().setStatusCode(400).end("All fields are required.");
+            return;
+        }
+
+        executor.respond(routingContext, "Failed to register user: ", () -> {
+            String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+            return jdbc.withConnection(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO users (created_at, username, email, password, role) VALUES (NOW(), ?, ?, ?, ?)")) {
+                    ps.setString(1, username);
+                    ps.setString(2, email);
+                    ps.setString(3, hashedPassword);
+                    ps.setString(4, role);
+                    ps.executeUpdate();
+                }
+                return Reply.json(201, new JsonObject().put("message", "registered successfully").encode())
+                    .afterCommit(() -> db.markWrite(routingContext));
+            });
+        });
+    }
+
+    @Override
+    public void login(RoutingContext routingContext) {
+        JsonObject requestBody = routingContext.body().asJsonObject();
+        String username = requestBody.getString("username");
+        String password = requestBody.getString("password");
+        if (username == null || password == null) {
+            routingContext.response().setStatusCode(400).end("Username and Password are required.");
+            return;
+        }
+
+        executor.respond(routingContext, "Login failed: ", () -> {
+            JsonObject tokenData = jdbc.withConnection(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT id, username, role, password FROM users WHERE username = ?")) {
+                    ps.setString(1, username);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next() || !BCrypt.checkpw(password, rs.getString("password"))) {
+                            return null;
+                        }
+                        return new JsonObject()
+                            .put("id", rs.getInt("id"))
+                            .put("username", rs.getString("username"))
+                            .put("role", rs.getString("role"))
+                            .put("jti", UUID.randomUUID().toString())
+                            .put(TokenRevocationList.ISSUED_AT_MS, System.currentTimeMillis());
+                    }
+                }
+            });
+            if (tokenData == null) {
+                return Reply.text(401, "Invalid credentials.");
+            }
+
+            String token = jwtAuth.generateToken(tokenData, new JWTOptions()
+                .setAlgorithm("HS256")
+                .setExpiresInMinutes(tokenTtlMinutes));
+            return Reply.json(200, new JsonObject().put("token", token).encodePrettily());
+        });
+    }
+
+    @Override
+    public void getAllUsers(RoutingContext routingContext) {
+        executor.respond(routingContext, "Failed to fetch users: ", () -> jdbc.withConnection(conn ->
+            Reply.json(200, new JsonObject().put("users", queryUsers(conn, "SELECT id, username, email, role FROM users", null)).encodePrettily())));
+    }
+
+    @Override
+    public void getUserById(RoutingContext routingContext) {
+        String userId = routingContext.request().getParam("id");
+        if (userId == null) {
+            routingContext.response().setStatusCode(400).end("User ID is required.");
+            return;
+        }
+
+        executor.respond(routingContext, "Failed to fetch user: ", () -> jdbc.withConnection(conn -> {
+            JsonArray users = queryUsers(conn, "SELECT id, username, email, role FROM users WHERE id = ?", Integer.parseInt(userId));
+            return users.isEmpty()
+                ? Reply.text(404, "User not found.")
+                : Reply.json(200, users.getJsonObject(0).encodePrettily());
+        }));
+    }
+
+    @Override
+    public void getTeamMembers(RoutingContext routingContext) {
+        executor.respond(routingContext, "Failed to fetch users: ", () -> jdbc.withConnection(conn -> {
+            JsonArray users = new JsonArray();
+            try (PreparedStatement ps = conn.prepareStatement("SELECT id, username FROM users WHERE role = 'team_member'");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    users.add(new JsonObject().put("id", rs.getInt("id")).put("username", rs.getString("username")));
+                }
+            }
+            return Reply.json(200, new JsonObject().put("users", users).encodePrettily());
+        }));
+    }
+
+    @Override
+    public void updateUser(RoutingContext ctx) {
+        int userId = Integer.parseInt(ctx.pathParam("id"));
+        String newRole = ctx.body().asJsonObject().getString("role");
+
+        executor.submit(() -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE users SET role = ? WHERE id = ?")) {
+                ps.setString(1, newRole);
+                ps.setInt(2, userId);
+                return ps.executeUpdate();
+            }
+        }))
+            .onSuccess(updated -> {
+                db.markWrite(ctx);
+                // Existing tokens still carry the old role
+                revocations.revokeUser(userId)
+                    .onSuccess(v -> ctx.response().setStatusCode(200).end("user updated"))
+                    .onFailure(err -> ctx.response().setStatusCode(500).end("User updated, but revoking their tokens failed: " + err.getMessage()));
+            })
+            .onFailure(err -> {
+                err.printStackTrace();
+                ctx.response().setStatusCode(500).end("Error updating user");
+            });
+    }
+
+    @Override
+    public void deleteUser(RoutingContext ctx) {
+        int userId = Integer.parseInt(ctx.pathParam("id"));
+
+        executor.submit(() -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+                ps.setInt(1, userId);
+                return ps.executeUpdate();
+            }
+        }))
+            .onSuccess(deleted -> {
+                db.markWrite(ctx);
+                revocations.revokeUser(userId)
+                    .onSuccess(v -> ctx.response().setStatusCode(200).end("Task deleted"))
+                    .onFailure(err -> ctx.response().setStatusCode(500).end("User deleted, but revoking their tokens failed: " + err.getMessage()));
+            })
+            .onFailure(err -> ctx.response().setStatusCode(500).end("Failed to delete task: " + err.getMessage()));
+    }
+
+    @Override
+    public void getProfile(RoutingContext ctx) {
+        if (ctx.user() == null) {
+            ctx.response().setStatusCode(401).end("Unauthorized: No user logged in");
+            return;
+        }
+        int userId = Integer.parseInt(ctx.user().principal().getValue("id").toString());
+
+        executor.respond(ctx, "Failed to fetch profile: ", () -> jdbc.withConnection(conn -> {
+            JsonArray users = queryUsers(conn, "SELECT id, username, email, role FROM users WHERE id = ?", userId);
+            return users.isEmpty()
+                ? Reply.text(404, "User not found")
+                : Reply.json(200, users.getJsonObject(0).encode());
+        }));
+    }
+
+    @Override
+    public void updateProfile(RoutingContext ctx) {
+        if (ctx.user() == null) {
+            ctx.response().setStatusCode(401).end("Unauthorized: No user logged in");
+            return;
+        }
+        JsonObject body = ctx.body().asJsonObject();
+        String newUsername = body.getString("username");
+        String newEmail = body.getString("email");
+        if (newUsername == null || newEmail == null) {
+            ctx.response().setStatusCode(400).end("Username and Email are required");
+            return;
+        }
+        int userId = Integer.parseInt(ctx.user().principal().getValue("id").toString());
+
+        executor.respond(ctx, "Failed to update profile: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE users SET username = ?, email = ? WHERE id = ?")) {
+                ps.setString(1, newUsername);
+                ps.setString(2, newEmail);
+                ps.setInt(3, userId);
+                if (ps.executeUpdate() == 0) {
+                    return Reply.text(404, "User not found");
+                }
+            }
+            return Reply.text(200, "Profile updated successfully").afterCommit(() -> db.markWrite(ctx));
+        }));
+    }
+
+    private static JsonArray queryUsers(Connection conn, String sql, Integer id) throws SQLException {
+        JsonArray users = new JsonArray();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (id != null) {
+                ps.setInt(1, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    users.add(new JsonObject()
+                        .put("id", rs.getInt("id"))
+                        .put("username", rs.getString("username"))
+                        .put("email", rs.getString("email"))
+                        .put("role", rs.getString("role")));
+                }
+            }
+        }
+        return users;
+    }
+}
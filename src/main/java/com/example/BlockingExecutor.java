@@ -0,0 +1,115 @@
+package com.example;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.RoutingContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs straight-line blocking handler code off the event loop and hands the result back to the request's context.
+// Uses a virtual thread per task when the JVM has them (JDK 21+), otherwise a bounded platform thread pool.
+public class BlockingExecutor {
+
+    // What a blocking handler wants written back once it is done
+    public static final class Reply {
+        final int status;
+        final String contentType;
+        final String body;
+        private Runnable afterCommit;
+
+        private Reply(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public static Reply json(int status, String body) {
+            return new Reply(status, "application/json", body);
+        }
+
+        public static Reply text(int status, String body) {
+            return new Reply(status, null, body);
+        }
+
+        // Runs back on the request's context just before the reply is written, so only once the
+        // handler's work (and its transaction) has returned; the place for markWrite and activity records
+        public Reply afterCommit(Runnable action) {
+            Runnable previous = afterCommit;
+            afterCommit = previous == null ? action : () -> {
+                previous.run();
+                action.run();
+            };
+            return this;
+        }
+
+        void send(RoutingContext ctx) {
+            if (afterCommit != null) {
+                afterCommit.run();
+            }
+            if (contentType != null) {
+                ctx.response().putHeader("Content-Type", contentType);
+            }
+            ctx.response().setStatusCode(status).end(body);
+        }
+    }
+
+    private final Vertx vertx;
+    private final ExecutorService executor;
+
+    public BlockingExecutor(Vertx vertx, int platformThreads) {
+        this.vertx = vertx;
+        this.executor = createExecutor(platformThreads);
+    }
+
+    public <T> Future<T> submit(Callable<T> work) {
+        Context context = vertx.getOrCreateContext();
+        Promise<T> promise = Promise.promise();
+        executor.execute(() -> {
+            T result;
+            try {
+                result = work.call();
+            } catch (Throwable e) {
+                context.runOnContext(v -> promise.fail(e));
+                return;
+            }
+            context.runOnContext(v -> promise.complete(result));
+        });
+        return promise.future();
+    }
+
+    // Runs the work and writes its reply, or a 500 with the given prefix if it throws
+    public void respond(RoutingContext ctx, String failurePrefix, Callable<Reply> work) {
+        submit(work)
+            .onSuccess(reply -> reply.send(ctx))
+            .onFailure(err -> {
+                err.printStackTrace();
+                ctx.response().setStatusCode(500).end(failurePrefix + err.getMessage());
+            });
+    }
+
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService createExecutor(int platformThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            System.out.println("✅ Blocking handlers run on virtual threads.");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("⚠️ Virtual threads need JDK 21+, blocking handlers run on " + platformThreads + " platform threads.");
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(platformThreads, runnable -> {
+                Thread thread = new Thread(runnable, "blocking-handler-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example;
+
+import com.example.BlockingExecutor.Reply;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// Blocking execution mode for projects: the CRUD endpoints of ProjectHandler as straight-line JDBC code.
+// The summary endpoints stay on the reactive pool.
+public class BlockingProjectHandler extends ProjectHandler {
+
+    private final DatabaseConnector db;
+    private final JdbcPool jdbc;
+    private final BlockingExecutor executor;
+
+    public BlockingProjectHandler(DatabaseConnector db, JdbcPool jdbc, BlockingExecutor executor, JobScheduler jobs) {
+        super(new PgProjectRepository(db), jobs);
+        this.db = db;
+        this.jdbc = jdbc;
+        this.executor = executor;
+    }
+
+    @Override
+    public void createProject(RoutingContext routingContext) {
+        JsonObject requestBody = routingContext.body().asJsonObject();
+        if (requestBody == null) {
+            routingContext.response().setStatusCode(400).end("Request body is missing.");
+            return;
+        }
+        if (!requestBody.containsKey("name") || !requestBody.containsKey("description")) {
+            routingContext.response().setStatusCode(400).end("Missing project name or description.");
+            return;
+        }
+
+        String status = requestBody.getString("status", "New"); // Default to 'New'
+        if (!isValidStatus(status)) {
+            routingContext.response().setStatusCode(400).end("Invalid project status.");
+            return;
+        }
+
+        executor.respond(routingContext, "Failed to create project: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO projects (name, description, status, created_at) VALUES (?, ?, ?, NOW()) RETURNING id")) {
+                ps.setString(1, requestBody.getString("name"));
+                ps.setString(2, requestBody.getString("description"));
+                ps.setString(3, status);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return Reply.text(500, "Unexpected error: No rows were returned.");
+                    }
+                }
+            }
+            return Reply.json(201, new JsonObject().put("message", "user registered successfully").encode())
+                .afterCommit(() -> db.markWrite(routingContext));
+        }));
+    }
+
+    @Override
+    public void getAllProjects(RoutingContext routingContext) {
+        executor.respond(routingContext, "Failed to fetch projects: ", () -> jdbc.withConnection(conn -> {
+            JsonArray projects = new JsonArray();
+            try (PreparedStatement ps = conn.prepareStatement("SELECT id, name, description, status, created_at FROM projects");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    projects.add(toJson(rs));
+                }
+            }
+            return Reply.json(200, new JsonObject().put("projects", projects).encode());
+        }));
+    }
+
+    @Override
+    public void getProjectById(RoutingContext routingContext) {
+        String projectId = routingContext.request().getParam("id");
+        if (projectId == null) {
+            routingContext.response().setStatusCode(400).end("Project ID is required.");
+            return;
+        }
+
+        executor.respond(routingContext, "Error fetching project: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT id, name, description, status, created_at FROM projects WHERE id = ?")) {
+                ps.setInt(1, Integer.parseInt(projectId));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return Reply.text(404, "Project not found.");
+                    }
+                    return Reply.json(200, toJson(rs).encodePrettily());
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void updateProject(RoutingContext routingContext) {
+        String projectId = routingContext.request().getParam("id");
+        if (projectId == null) {
+            routingContext.response().setStatusCode(400).end("Project ID is required.");
+            return;
+        }
+
+        JsonObject requestBody = routingContext.body().asJsonObject();
+        String status = requestBody.getString("status", null);
+        if (status != null && !isValidStatus(status)) {
+            routingContext.response().setStatusCode(400).end("Invalid project status.");
+            return;
+        }
+
+        executor.respond(routingContext, "Failed to update project: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE projects SET name = COALESCE(?, name), description = COALESCE(?, description), status = COALESCE(?, status) WHERE id = ?")) {
+                ps.setString(1, requestBody.getString("name", null));
+                ps.setString(2, requestBody.getString("description", null));
+                ps.setString(3, status);
+                ps.setInt(4, Integer.parseInt(projectId));
+                ps.executeUpdate();
+            }
+            return Reply.text(200, "Project updated successfully.").afterCommit(() -> db.markWrite(routingContext));
+        }));
+    }
+
+    @Override
+    public void deleteProject(RoutingContext routingContext) {
+        String projectId = routingContext.request().getParam("id");
+        if (projectId == null) {
+            routingContext.response().setStatusCode(400).end("Project ID is required.");
+            return;
+        }
+        if (hasJobs()) {
+            scheduleDelete(routingContext, Integer.parseInt(projectId));
+            return;
+        }
+
+        executor.respond(routingContext, "Failed to delete project: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM projects WHERE id = ?")) {
+                ps.setInt(1, Integer.parseInt(projectId));
+                if (ps.executeUpdate() == 0) {
+                    return Reply.text(404, "Project not found.");
+                }
+            }
+            return Reply.text(200, "Project deleted successfully.").afterCommit(() -> db.markWrite(routingContext));
+        }));
+    }
+
+    private static JsonObject toJson(ResultSet rs) throws SQLException {
+        return new JsonObject()
+            .put("id", rs.getInt("id"))
+            .put("name", rs.getString("name"))
+            .put("description", rs.getString("description"))
+            .put("status", rs.getString("status"))
+            .put("created_at", rs.getObject("created_at", LocalDateTime.class).toString());
+    }
+}
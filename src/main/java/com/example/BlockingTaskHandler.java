@@ -0,0 +1,340 @@
+package com.example;
+
+import com.example.BlockingExecutor.Reply;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Blocking execution mode for tasks: the same endpoints as TaskHandler written as straight-line JDBC code.
+// Each write and its project status recompute share one transaction.
+public class BlockingTaskHandler extends TaskHandler {
+
+    private final DatabaseConnector db;
+    private final ActivityLog activity;
+    private final JdbcPool jdbc;
+    private final BlockingExecutor executor;
+    private final TaskGraphs graphs;
+
+    public BlockingTaskHandler(DatabaseConnector db, ActivityLog activity, JdbcPool jdbc, BlockingExecutor executor, TaskGraphs graphs) {
+        super(new PgTaskRepository(db), activity);
+        this.db = db;
+        this.activity = activity;
+        this.jdbc = jdbc;
+        this.executor = executor;
+        this.graphs = graphs;
+    }
+
+    @Override
+    public void createTask(RoutingContext ctx) {
+        JsonObject body = ctx.body().asJsonObject();
+        LocalDate dueDate;
+        try {
+            dueDate = parseDueDate(body.getString("due_date"));
+        } catch (DateTimeParseException e) {
+            ctx.response().setStatusCode(400).end("Invalid due_date, expected YYYY-MM-DD.");
+            return;
+        }
+        if (!activity.admit(ctx)) {
+            return;
+        }
+
+        Integer projectId = body.getInteger("project_id");
+        executor.respond(ctx, "Failed to create task: ", () -> graphs.afterProjectWrite(projectId, jdbc.inTransaction(conn -> {
+            int taskId;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO tasks (project_id, name, description, status, assigned_to, progress, due_date, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) RETURNING id")) {
+                ps.setObject(1, projectId, Types.INTEGER);
+                ps.setString(2, body.getString("name"));
+                ps.setString(3, body.getString("description"));
+                ps.setString(4, body.getString("status"));
+                ps.setObject(5, body.getInteger("assigned_to"), Types.INTEGER);
+                ps.setObject(6, body.getInteger("progress"), Types.INTEGER);
+                ps.setObject(7, dueDate, Types.DATE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    taskId = rs.getInt("id");
+                }
+            }
+            if (projectId != null) {
+                recomputeProjectStatus(conn, projectId);
+            }
+            return Reply.json(201, new JsonObject().put("message", "Task created").put("id", taskId).encode())
+                .afterCommit(() -> {
+                    db.markWrite(ctx);
+                    activity.record(ctx, "create", taskId, projectId, new JsonObject()
+                        .put("name", body.getString("name"))
+                        .put("status", body.getString("status"))
+                        .put("assigned_to", body.getInteger("assigned_to"))
+                        .put("progress", body.getInteger("progress")));
+                });
+        })));
+    }
+
+    // Delta reads (?since=) use the reactive path
+    @Override
+    public void getTasksByProject(RoutingContext ctx) {
+        if (ctx.request().getParam("since") != null) {
+            super.getTasksByProject(ctx);
+            return;
+        }
+        int projectId = Integer.parseInt(ctx.pathParam("projectId"));
+        executor.respond(ctx, "Failed to fetch tasks: ", () -> jdbc.withConnection(conn ->
+            Reply.json(200, queryTasks(conn, "SELECT * FROM tasks WHERE project_id = ?", projectId).encode())));
+    }
+
+    @Override
+    public void getTasksByUser(RoutingContext ctx) {
+        if (ctx.request().getParam("since") != null) {
+            super.getTasksByUser(ctx);
+            return;
+        }
+        int userId = Integer.parseInt(ctx.pathParam("userId"));
+        Integer[] projectIds;
+        try {
+            projectIds = projectIds(ctx);
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid projectId.");
+            return;
+        }
+        if (projectIds.length > 0) {
+            executor.respond(ctx, "Failed to fetch tasks: ", () -> jdbc.withConnection(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM tasks WHERE assigned_to = ? AND project_id = ANY(?)")) {
+                    ps.setInt(1, userId);
+                    ps.setArray(2, conn.createArrayOf("integer", projectIds));
+                    return Reply.json(200, readTasks(ps).encode());
+                }
+            }));
+            return;
+        }
+        executor.respond(ctx, "Failed to fetch tasks: ", () -> jdbc.withConnection(conn ->
+            Reply.json(200, queryTasks(conn, "SELECT * FROM tasks WHERE assigned_to = ?", userId).encode())));
+    }
+
+    @Override
+    public void updateTask(RoutingContext ctx) {
+        int taskId = Integer.parseInt(ctx.pathParam("id"));
+        JsonObject body = ctx.body().asJsonObject();
+        if (!activity.admit(ctx)) {
+            return;
+        }
+        Integer projectHint = projectHint(ctx);
+
+        executor.respond(ctx, "Failed to update task: ", () -> graphs.afterTaskWrite(taskId, jdbc.inTransaction(conn -> {
+            try (PreparedStatement select = conn.prepareStatement(
+                    "SELECT name, description, status, assigned_to, progress, project_id, due_date FROM tasks WHERE id = ?"
+                        + (projectHint != null ? " AND project_id = ?" : "") + " FOR UPDATE")) {
+                select.setInt(1, taskId);
+                if (projectHint != null) {
+                    select.setInt(2, projectHint);
+                }
+                try (ResultSet row = select.executeQuery()) {
+                    if (!row.next()) {
+                        return Reply.text(404, "Task not found");
+                    }
+
+                    // Keep existing values if not provided in the request
+                    String name = body.getString("name", row.getString("name"));
+                    String description = body.getString("description", row.getString("description"));
+                    String status = body.getString("status", row.getString("status"));
+                    Integer oldAssignedTo = (Integer) row.getObject("assigned_to");
+                    Integer oldProgress = (Integer) row.getObject("progress");
+                    LocalDate oldDueDate = row.getObject("due_date", LocalDate.class);
+                    Integer assignedTo = body.getInteger("assigned_to", oldAssignedTo);
+                    Integer progress = body.containsKey("progress") ? body.getInteger("progress") : oldProgress;
+                    LocalDate dueDate;
+                    try {
+                        dueDate = body.containsKey("due_date") ? parseDueDate(body.getString("due_date")) : oldDueDate;
+                    } catch (DateTimeParseException e) {
+                        return Reply.text(400, "Invalid due_date, expected YYYY-MM-DD.");
+                    }
+                    Integer projectId = (Integer) row.getObject("project_id");
+
+                    try (PreparedStatement update = conn.prepareStatement(
+                            "UPDATE tasks SET name = ?, description = ?, status = ?, assigned_to = ?, progress = ?, due_date = ? WHERE id = ? AND project_id IS NOT DISTINCT FROM ?")) {
+                        update.setString(1, name);
+                        update.setString(2, description);
+                        update.setString(3, status);
+                        update.setObject(4, assignedTo, Types.INTEGER);
+                        update.setObject(5, progress, Types.INTEGER);
+                        update.setObject(6, dueDate, Types.DATE);
+                        update.setInt(7, taskId);
+                        update.setObject(8, projectId, Types.INTEGER);
+                        if (update.executeUpdate() == 0) {
+                            return Reply.text(404, "Task not found");
+                        }
+                    }
+                    if (projectId != null) {
+                        recomputeProjectStatus(conn, projectId);
+                    }
+                    JsonObject changed = changes(
+                        taskState(row.getString("name"), row.getString("description"), row.getString("status"), oldAssignedTo, oldProgress, oldDueDate),
+                        taskState(name, description, status, assignedTo, progress, dueDate));
+                    return Reply.text(200, "Task updated").afterCommit(() -> {
+                        db.markWrite(ctx);
+                        activity.record(ctx, "update", taskId, projectId, changed);
+                    });
+                }
+            }
+        })));
+    }
+
+    @Override
+    public void deleteTask(RoutingContext ctx) {
+        int taskId = Integer.parseInt(ctx.pathParam("id"));
+        if (!activity.admit(ctx)) {
+            return;
+        }
+        Integer projectHint = projectHint(ctx);
+
+        executor.respond(ctx, "Failed to delete task: ", () -> graphs.afterTaskWrite(taskId, jdbc.inTransaction(conn -> {
+            Integer projectId;
+            try (PreparedStatement delete = conn.prepareStatement(
+                    "DELETE FROM tasks WHERE id = ?" + (projectHint != null ? " AND project_id = ?" : "") + " RETURNING project_id")) {
+                delete.setInt(1, taskId);
+                if (projectHint != null) {
+                    delete.setInt(2, projectHint);
+                }
+                try (ResultSet rs = delete.executeQuery()) {
+                    if (!rs.next()) {
+                        return Reply.text(404, "Task not found");
+                    }
+                    projectId = (Integer) rs.getObject("project_id");
+                }
+            }
+            if (projectId != null) {
+                recomputeProjectStatus(conn, projectId);
+            }
+            return Reply.text(200, "Task deleted").afterCommit(() -> {
+                db.markWrite(ctx);
+                activity.record(ctx, "delete", taskId, projectId, null);
+            });
+        })));
+    }
+
+    @Override
+    public void assignUserToTask(RoutingContext ctx) {
+        int taskId = Integer.parseInt(ctx.pathParam("taskId"));
+        Integer userId = ctx.body().asJsonObject().getInteger("userId");
+        if (userId == null) {
+            ctx.response().setStatusCode(400).end("User ID is required for assignment.");
+            return;
+        }
+        if (!activity.admit(ctx)) {
+            return;
+        }
+
+        executor.respond(ctx, "Failed to assign task: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE tasks SET assigned_to = ? WHERE id = ? RETURNING project_id")) {
+                ps.setInt(1, userId);
+                ps.setInt(2, taskId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    boolean found = rs.next();
+                    Integer projectId = found ? (Integer) rs.getObject("project_id") : null;
+                    return Reply.text(200, "Task assigned successfully").afterCommit(() -> {
+                        db.markWrite(ctx);
+                        if (found) {
+                            activity.record(ctx, "assign", taskId, projectId, new JsonObject().put("assigned_to", userId));
+                        }
+                    });
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void unassignTask(RoutingContext ctx) {
+        int taskId = Integer.parseInt(ctx.pathParam("taskId"));
+        if (!activity.admit(ctx)) {
+            return;
+        }
+
+        executor.respond(ctx, "Failed to unassign task: ", () -> jdbc.withConnection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE tasks SET assigned_to = NULL WHERE id = ? RETURNING project_id")) {
+                ps.setInt(1, taskId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    boolean found = rs.next();
+                    Integer projectId = found ? (Integer) rs.getObject("project_id") : null;
+                    return Reply.text(200, "Task unassigned").afterCommit(() -> {
+                        db.markWrite(ctx);
+                        if (found) {
+                            activity.record(ctx, "unassign", taskId, projectId, null);
+                        }
+                    });
+                }
+            }
+        }));
+    }
+
+    private static JsonArray queryTasks(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            return readTasks(ps);
+        }
+    }
+
+    private static JsonArray readTasks(PreparedStatement ps) throws SQLException {
+        JsonArray tasks = new JsonArray();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                tasks.add(new JsonObject()
+                    .put("id", rs.getInt("id"))
+                    .put("project_id", (Integer) rs.getObject("project_id"))
+                    .put("name", rs.getString("name"))
+                    .put("description", rs.getString("description"))
+                    .put("status", rs.getString("status"))
+                    .put("assigned_to", (Integer) rs.getObject("assigned_to"))
+                    .put("created_at", rs.getObject("created_at", LocalDateTime.class).toString())
+                    .put("progress", rs.getObject("progress"))
+                    .put("due_date", formatDueDate(rs.getObject("due_date", LocalDate.class))));
+            }
+        }
+        return tasks;
+    }
+
+    // Same rule as the reactive mode, but inside the caller's transaction, together with today's burndown bucket
+    private static void recomputeProjectStatus(Connection conn, int projectId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(ProgressHistory.LOCK_PROJECT_JDBC_SQL)) {
+            ps.setInt(1, projectId);
+            ps.executeQuery().close();
+        }
+
+        List<JsonObject> tasks = new ArrayList<>();
+        ProgressHistory.Snapshot snapshot = new ProgressHistory.Snapshot();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT progress, status FROM tasks WHERE project_id = ?")) {
+            ps.setInt(1, projectId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer progress = (Integer) rs.getObject("progress");
+                    tasks.add(new JsonObject().put("progress", progress));
+                    snapshot.add(progress, rs.getString("status"));
+                }
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE projects SET status = ? WHERE id = ?")) {
+            ps.setString(1, computeProjectStatus(tasks));
+            ps.setInt(2, projectId);
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(ProgressHistory.UPSERT_JDBC_SQL)) {
+            ps.setInt(1, projectId);
+            ps.setInt(2, snapshot.totalTasks);
+            ps.setInt(3, snapshot.completedTasks);
+            ps.setLong(4, snapshot.progressSum);
+            ps.setInt(5, snapshot.progressCount);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+
+// Request body handling per route, installed first on the router in place of a global BodyHandler:
+// - GET, HEAD, DELETE and OPTIONS get no body handler, so nothing they are sent is buffered
+// - the import upload is paused and left unread for TaskImporter to stream into COPY
+// - other writes are buffered up to maxJsonBytes (maxAuthBytes under /auth/); a larger body is
+//   answered with 413, before any of it is read when Content-Length already says so
+public class BodyPolicy implements Handler<RoutingContext> {
+
+    private final BodyHandler json;
+    private final BodyHandler auth;
+
+    public BodyPolicy(JsonObject config) {
+        // No multipart file uploads anywhere, so nothing is written to disk either
+        this.json = BodyHandler.create(false).setBodyLimit(config.getLong("maxJsonBytes", 64L * 1024));
+        this.auth = BodyHandler.create(false).setBodyLimit(config.getLong("maxAuthBytes", 4L * 1024));
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        HttpMethod method = ctx.request().method();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.DELETE || method == HttpMethod.OPTIONS) {
+            ctx.next();
+        } else if (TaskImporter.isUpload(ctx)) {
+            // Imports stream the upload themselves; hold it until the import handler is reached
+            ctx.request().pause();
+            ctx.next();
+        } else if (ctx.normalizedPath().startsWith("/auth/")) {
+            auth.handle(ctx);
+        } else {
+            json.handle(ctx);
+        }
+    }
+}
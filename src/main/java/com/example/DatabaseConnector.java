@@ -1,26 +1,77 @@
 package com.example;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
 import io.vertx.pgclient.PgPool;
 import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.SqlClient;
 import io.vertx.pgclient.PgConnectOptions;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Owns the primary pool plus any number of read replicas.
+// Writes always go to the primary, reads are spread over healthy replicas.
 public class DatabaseConnector {
-    public static PgPool connect(Vertx vertx) {
-        PgConnectOptions connectOptions = new PgConnectOptions()
-            .setPort(5432)
-            .setHost("localhost")
-            .setDatabase("project_management")
-            .setUser("postgres")  
-            .setPassword("password")
-            .setSsl(false);
 
-        PoolOptions poolOptions = new PoolOptions().setMaxSize(5);
+    private final Vertx vertx;
+    private final JsonObject config;
+    private final PgPool primary;
+    private final int primaryPoolSize;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final boolean leastLoaded;
+    private final long readYourWritesWindowMs;
+
+    // Clients without a token (the /tasks and /projects routes) are told apart by this cookie,
+    // set on their first write
+    static final String SESSION_COOKIE = "rw_session";
+
+    // client key -> time of that client's last write, used for read-your-writes stickiness
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private static class Replica {
+        final String name;
+        final PgPool pool;
+        final int poolSize;
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile boolean healthy = true;
+
+        Replica(String name, PgPool pool, int poolSize) {
+            this.name = name;
+            this.pool = pool;
+            this.poolSize = poolSize;
+        }
+    }
+
+    public static DatabaseConnector connect(Vertx vertx) {
+        return connect(vertx, new JsonObject());
+    }
+
+    public static DatabaseConnector connect(Vertx vertx, JsonObject config) {
+        return new DatabaseConnector(vertx, config);
+    }
+
+    private DatabaseConnector(Vertx vertx, JsonObject config) {
+        this.vertx = vertx;
+        this.config = config;
+        this.primary = createPool(vertx, config, config);
+        this.primaryPoolSize = config.getInteger("maxSize", 5);
+        this.leastLoaded = "least-loaded".equals(config.getString("replicaSelection", "round-robin"));
+        this.readYourWritesWindowMs = config.getLong("readYourWritesWindowMs", 2000L);
 
-        PgPool client = PgPool.pool(vertx, connectOptions, poolOptions);
-        
         // Test Connection
-        client.getConnection(ar -> {
+        primary.getConnection(ar -> {
             if (ar.succeeded()) {
                 System.out.println("✅ Database connected successfully!");
                 ar.result().close();
@@ -29,6 +80,166 @@ public class DatabaseConnector {
             }
         });
 
-        return client;
+        JsonArray replicaConfigs = config.getJsonArray("replicas", new JsonArray());
+        for (int i = 0; i < replicaConfigs.size(); i++) {
+            JsonObject replicaConfig = replicaConfigs.getJsonObject(i);
+            String name = replicaConfig.getString("host", "localhost") + ":" + replicaConfig.getInteger("port", 5432);
+            int poolSize = replicaConfig.getInteger("maxSize", config.getInteger("maxSize", 5));
+            replicas.add(new Replica(name, createPool(vertx, replicaConfig, config), poolSize));
+            System.out.println("✅ Read replica registered: " + name);
+        }
+
+        if (!replicas.isEmpty()) {
+            long interval = config.getLong("healthCheckIntervalMs", 5000L);
+            vertx.setPeriodic(interval, id -> checkReplicas());
+            // Sessions that stop writing would otherwise stay in lastWrites for good
+            vertx.setPeriodic(Math.max(readYourWritesWindowMs, 1000L), id -> {
+                long now = System.currentTimeMillis();
+                lastWrites.values().removeIf(lastWrite -> now - lastWrite > readYourWritesWindowMs);
+            });
+        }
+    }
+
+    // Connection settings fall back to the primary's, so a replica entry only needs host/port
+    private static PgPool createPool(Vertx vertx, JsonObject node, JsonObject defaults) {
+        PgConnectOptions connectOptions = new PgConnectOptions()
+            .setPort(node.getInteger("port", defaults.getInteger("port", 5432)))
+            .setHost(node.getString("host", defaults.getString("host", "localhost")))
+            .setDatabase(node.getString("database", defaults.getString("database", "project_management")))
+            .setUser(node.getString("user", defaults.getString("user", "postgres")))
+            .setPassword(node.getString("password", defaults.getString("password", "password")))
+            .setSsl(false)
+            // Keeps parsed/planned statements on each connection; the startup warm-up fills this cache
+            .setCachePreparedStatements(node.getBoolean("cachePreparedStatements", defaults.getBoolean("cachePreparedStatements", true)));
+
+        PoolOptions poolOptions = new PoolOptions().setMaxSize(node.getInteger("maxSize", defaults.getInteger("maxSize", 5)));
+
+        return PgPool.pool(vertx, connectOptions, poolOptions);
+    }
+
+    public PgPool primary() {
+        return primary;
+    }
+
+    // A separate pool on the primary for background work, so it never takes connections from requests
+    public PgPool newPrimaryPool(int maxSize) {
+        return createPool(vertx, config.copy().put("maxSize", maxSize), config);
+    }
+
+    // Every pool (primary first) with its max size, e.g. for warming up each connection
+    public Map<PgPool, Integer> pools() {
+        Map<PgPool, Integer> pools = new LinkedHashMap<>();
+        pools.put(primary, primaryPoolSize);
+        for (Replica replica : replicas) {
+            pools.put(replica.pool, replica.poolSize);
+        }
+        return pools;
+    }
+
+    // Runs a read-only query on a replica. Falls back to the primary when no replica is healthy,
+    // when the caller wrote recently (read-your-writes), or when the replica query fails.
+    public <T> Future<T> read(RoutingContext ctx, Function<SqlClient, Future<T>> query) {
+        Replica replica = wroteRecently(ctx) ? null : pickReplica();
+        if (replica == null) {
+            return query.apply(primary);
+        }
+
+        replica.inFlight.incrementAndGet();
+        return query.apply(replica.pool)
+            .onComplete(ar -> replica.inFlight.decrementAndGet())
+            .recover(err -> {
+                System.out.println("❌ Replica " + replica.name + " query failed, retrying on primary: " + err.getMessage());
+                replica.healthy = false;
+                return query.apply(primary);
+            });
+    }
+
+    // Called by write paths so the same client's next reads are served by the primary. Must run
+    // before the response is sent: an anonymous client gets its session cookie with it.
+    public void markWrite(RoutingContext ctx) {
+        if (ctx == null || replicas.isEmpty()) {
+            return;
+        }
+        String key = clientKey(ctx);
+        if (key == null && !ctx.response().headWritten()) {
+            String session = UUID.randomUUID().toString();
+            ctx.response().addCookie(Cookie.cookie(SESSION_COOKIE, session).setPath("/").setHttpOnly(true));
+            key = "session:" + session;
+        }
+        if (key != null) {
+            lastWrites.put(key, System.currentTimeMillis());
+        }
+    }
+
+    private boolean wroteRecently(RoutingContext ctx) {
+        String key = clientKey(ctx);
+        if (key == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(key);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite > readYourWritesWindowMs) {
+            lastWrites.remove(key, lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    // The token's user id, else the session cookie; null for an anonymous client that never wrote
+    private static String clientKey(RoutingContext ctx) {
+        if (ctx == null) {
+            return null;
+        }
+        if (ctx.user() != null) {
+            Object id = ctx.user().principal().getValue("id");
+            if (id != null) {
+                return "user:" + id;
+            }
+        }
+        Cookie session = ctx.request().getCookie(SESSION_COOKIE);
+        return session != null ? "session:" + session.getValue() : null;
+    }
+
+    private Replica pickReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        Replica best = null;
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (!candidate.healthy) {
+                continue;
+            }
+            if (!leastLoaded) {
+                return candidate;
+            }
+            if (best == null || candidate.inFlight.get() < best.inFlight.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.pool.query("SELECT 1").execute()
+                .onSuccess(res -> {
+                    if (!replica.healthy) {
+                        System.out.println("✅ Replica " + replica.name + " is healthy again.");
+                    }
+                    replica.healthy = true;
+                })
+                .onFailure(err -> {
+                    if (replica.healthy) {
+                        System.out.println("❌ Replica " + replica.name + " failed health check: " + err.getMessage());
+                    }
+                    replica.healthy = false;
+                });
+        }
     }
 }
@@ -0,0 +1,164 @@
+package com.example;
+
+import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.graphql.GraphQLHandler;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// POST/GET /graphql: a read-only GraphQL view of projects -> tasks -> assignees (schema.graphqls)
+// over the same repositories as the REST handlers. Every request gets its own data loaders, so
+// the tasks of all projects in a response are read with one project_id = ANY($1) query and all
+// assignees with one id = ANY($1) query, instead of one query per parent. A query deeper than
+// maxDepth, or whose estimated cost is above maxComplexity, is rejected before anything runs.
+public class GraphQLApi {
+
+    private static final String TASKS_BY_PROJECT = "tasksByProject";
+    private static final String PROJECTS = "projects";
+    private static final String USERS = "users";
+    private static final int MAX_PROJECT_IDS = 500;
+
+    private final TaskRepository tasks;
+    private final ProjectRepository projects;
+    private final UserRepository users;
+    private final int maxBatchSize;
+    private final GraphQLHandler handler;
+
+    public GraphQLApi(Vertx vertx, TaskRepository tasks, ProjectRepository projects, UserRepository users, JsonObject config) {
+        this.tasks = tasks;
+        this.projects = projects;
+        this.users = users;
+        this.maxBatchSize = config.getInteger("maxBatchSize", 1000);
+
+        int maxDepth = config.getInteger("maxDepth", 6);
+        int maxComplexity = config.getInteger("maxComplexity", 2000);
+        int listWeight = config.getInteger("listWeight", 10);
+
+        String sdl = vertx.fileSystem().readFileBlocking("schema.graphqls").toString();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(sdl), wiring());
+        GraphQL graphQL = GraphQL.newGraphQL(schema)
+            .instrumentation(new ChainedInstrumentation(List.of(
+                new MaxQueryDepthInstrumentation(maxDepth),
+                // A list field costs its items' fields listWeight times over, so nesting lists adds up quickly
+                new MaxQueryComplexityInstrumentation(maxComplexity, (env, childComplexity) ->
+                    GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))
+                        ? 1 + listWeight * childComplexity
+                        : 1 + childComplexity))))
+            .build();
+        this.handler = GraphQLHandler.create(graphQL)
+            .beforeExecute(input -> input.builder().dataLoaderRegistry(loaders(input.context())));
+        System.out.println("✅ GraphQL endpoint enabled (max depth " + maxDepth + ", max complexity " + maxComplexity + ").");
+    }
+
+    public GraphQLHandler handler() {
+        return handler;
+    }
+
+    private RuntimeWiring wiring() {
+        return RuntimeWiring.newRuntimeWiring()
+            .type("Query", type -> type
+                .dataFetcher("projects", this::projects)
+                .dataFetcher("project", env -> loader(env, PROJECTS).load(env.getArgument("id")))
+                .dataFetcher("task", env -> tasks.findById(ctx(env), env.<Integer>getArgument("id"), env.getArgument("projectId")).toCompletionStage())
+                .dataFetcher("user", env -> loader(env, USERS).load(env.getArgument("id")))
+                .dataFetcher("teamMembers", env -> users.findByRole(ctx(env), "team_member").toCompletionStage())
+                .dataFetcher("assignedTasks", env -> {
+                    List<Integer> projectIds = env.getArgument("projectIds");
+                    return tasks.findByAssignee(ctx(env), env.<Integer>getArgument("userId"),
+                        projectIds != null ? projectIds.toArray(new Integer[0]) : new Integer[0]).toCompletionStage();
+                }))
+            .type("Project", type -> type
+                .dataFetcher("tasks", env -> loader(env, TASKS_BY_PROJECT).load(env.<Project>getSource().id())))
+            .type("Task", type -> type
+                .dataFetcher("project", env -> {
+                    Integer projectId = env.<Task>getSource().projectId();
+                    return projectId != null ? loader(env, PROJECTS).load(projectId) : null;
+                })
+                .dataFetcher("assignee", env -> {
+                    Integer assignedTo = env.<Task>getSource().assignedTo();
+                    return assignedTo != null ? loader(env, USERS).load(assignedTo) : null;
+                }))
+            .build();
+    }
+
+    private Object projects(DataFetchingEnvironment env) {
+        List<Integer> ids = env.getArgument("ids");
+        if (ids == null) {
+            return projects.findAll(ctx(env)).toCompletionStage();
+        }
+        if (ids.size() > MAX_PROJECT_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_PROJECT_IDS + " project ids per query.");
+        }
+        // In the order asked for
+        return projects.findByIds(ctx(env), ids.toArray(new Integer[0]))
+            .map(found -> {
+                found.sort(Comparator.comparingInt(project -> ids.indexOf(project.id())));
+                return found;
+            })
+            .toCompletionStage();
+    }
+
+    // New loaders for every request: they cache per request and batch per level of the query
+    private DataLoaderRegistry loaders(RoutingContext ctx) {
+        DataLoaderOptions options = DataLoaderOptions.newOptions().setMaxBatchSize(maxBatchSize);
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        registry.register(TASKS_BY_PROJECT, DataLoaderFactory.<Integer, List<Task>>newMappedDataLoader(projectIds ->
+            load(tasks.findByProjects(ctx, projectIds.toArray(new Integer[0])), found -> {
+                Map<Integer, List<Task>> byProject = new HashMap<>();
+                for (Integer projectId : projectIds) {
+                    byProject.put(projectId, new ArrayList<>());
+                }
+                for (Task task : found) {
+                    byProject.get(task.projectId()).add(task);
+                }
+                return byProject;
+            }), options));
+        registry.register(PROJECTS, DataLoaderFactory.<Integer, Project>newMappedDataLoader(projectIds ->
+            load(projects.findByIds(ctx, projectIds.toArray(new Integer[0])), found -> byId(found, Project::id)), options));
+        registry.register(USERS, DataLoaderFactory.<Integer, User>newMappedDataLoader(userIds ->
+            load(users.findByIds(ctx, userIds.toArray(new Integer[0])), found -> byId(found, User::id)), options));
+        return registry;
+    }
+
+    private static <T, R> CompletableFuture<R> load(Future<T> read, Function<T, R> mapper) {
+        return read.map(mapper).toCompletionStage().toCompletableFuture();
+    }
+
+    private static <T> Map<Integer, T> byId(List<T> rows, Function<T, Integer> id) {
+        Map<Integer, T> map = new HashMap<>();
+        for (T row : rows) {
+            map.put(id.apply(row), row);
+        }
+        return map;
+    }
+
+    private static <V> DataLoader<Integer, V> loader(DataFetchingEnvironment env, String name) {
+        return env.getDataLoader(name);
+    }
+
+    private static RoutingContext ctx(DataFetchingEnvironment env) {
+        return GraphQLHandler.getRoutingContext(env.getGraphQlContext());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.PemKeyCertOptions;
+import io.vertx.core.net.PfxOptions;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.List;
+
+// HttpServerOptions from the "server" config block. HTTP/2 is offered over TLS through ALPN and
+// on plain connections as h2c (prior knowledge or Upgrade), so a browser loads a dashboard over
+// one multiplexed connection instead of several HTTP/1.1 ones. reusePort, fastOpen and quickAck
+// only take effect with the native epoll transport (vertx.options.preferNativeTransport).
+public final class HttpTuning {
+
+    private HttpTuning() {
+    }
+
+    public static int port(JsonObject server) {
+        return server.getInteger("port", 8888);
+    }
+
+    public static HttpServerOptions serverOptions(Vertx vertx, JsonObject server) {
+        JsonObject http2 = server.getJsonObject("http2", new JsonObject());
+        JsonObject tcp = server.getJsonObject("tcp", new JsonObject());
+        JsonObject compression = server.getJsonObject("compression", new JsonObject());
+
+        HttpServerOptions options = new HttpServerOptions()
+            .setPort(port(server))
+            .setHost(server.getString("host", "0.0.0.0"))
+            // Idle keep-alive connections (and HTTP/2 connections without streams) are closed after this
+            .setIdleTimeout(server.getInteger("idleTimeoutSeconds", 60))
+            .setInitialSettings(new Http2Settings()
+                .setMaxConcurrentStreams(http2.getLong("maxConcurrentStreams", 100L))
+                .setInitialWindowSize(http2.getInteger("initialWindowSize", 1024 * 1024)))
+            .setHttp2ConnectionWindowSize(http2.getInteger("connectionWindowSize", 4 * 1024 * 1024))
+            .setTcpNoDelay(tcp.getBoolean("noDelay", true))
+            .setTcpKeepAlive(tcp.getBoolean("keepAlive", true))
+            .setReuseAddress(true)
+            .setReusePort(tcp.getBoolean("reusePort", false))
+            .setTcpFastOpen(tcp.getBoolean("fastOpen", false))
+            .setTcpQuickAck(tcp.getBoolean("quickAck", false))
+            .setCompressionSupported(compression.getBoolean("enabled", true))
+            .setCompressionLevel(compression.getInteger("level", 6));
+
+        JsonObject tls = server.getJsonObject("tls", new JsonObject());
+        if (tls.getBoolean("enabled", false)) {
+            options.setSsl(true)
+                .setUseAlpn(true)
+                .setAlpnVersions(http2.getBoolean("enabled", true)
+                    ? List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1)
+                    : List.of(HttpVersion.HTTP_1_1));
+            String keyStore = tls.getString("keyStore");
+            if (keyStore != null && keyStore.endsWith(".jks")) {
+                options.setKeyCertOptions(new JksOptions().setPath(keyStore).setPassword(tls.getString("keyStorePassword")));
+            } else if (keyStore != null) {
+                options.setKeyCertOptions(new PfxOptions().setPath(keyStore).setPassword(tls.getString("keyStorePassword")));
+            } else {
+                options.setKeyCertOptions(new PemKeyCertOptions().setCertPath(tls.getString("certPath")).setKeyPath(tls.getString("keyPath")));
+            }
+        }
+
+        boolean needsNative = options.isReusePort() || options.isTcpFastOpen() || options.isTcpQuickAck();
+        if (vertx.isNativeTransportEnabled()) {
+            System.out.println("✅ Native transport enabled.");
+        } else if (needsNative) {
+            System.out.println("⚠️ Native transport is not available, ignoring reusePort, fastOpen and quickAck.");
+        }
+        System.out.println("✅ HTTP server: " + (options.isSsl() ? "TLS" : "plain text")
+            + ", HTTP/2 " + (options.isSsl() ? (http2.getBoolean("enabled", true) ? "via ALPN" : "off") : "via h2c")
+            + ", compression " + (options.isCompressionSupported() ? "from " + minCompressBytes(server) + " bytes" : "off") + ".");
+        return options;
+    }
+
+    public static int minCompressBytes(JsonObject server) {
+        return server.getJsonObject("compression", new JsonObject()).getInteger("minBytes", 1024);
+    }
+
+    // Vert.x compresses every response the client accepts gzip/deflate for. Below minBytes that costs
+    // CPU and saves nothing, so small responses with a known length are marked identity, which
+    // skips the compressor. Streamed responses have no length yet and are still compressed.
+    public static void compressionThreshold(RoutingContext ctx, int minBytes) {
+        ctx.addHeadersEndHandler(v -> {
+            String length = ctx.response().headers().get(HttpHeaders.CONTENT_LENGTH);
+            if (length != null && !ctx.response().headers().contains(HttpHeaders.CONTENT_ENCODING)) {
+                try {
+                    if (Long.parseLong(length) < minBytes) {
+                        ctx.response().putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+                    }
+                } catch (NumberFormatException e) {
+                    // Left to the compressor
+                }
+            }
+        });
+        ctx.next();
+    }
+}
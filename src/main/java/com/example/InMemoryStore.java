@@ -0,0 +1,785 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+// In-memory storage engine behind the three repositories (storage.engine = "memory"), for
+// benchmarking the HTTP and serialisation stack and for integration tests without Postgres.
+// Rows are immutable records in int-keyed maps; tasks are also indexed by project and by
+// assignee, so list reads touch only matching rows. One read/write lock guards everything:
+// reads run in parallel, writes are short and exclusive. Nothing survives a restart.
+public class InMemoryStore {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IntObjectMap<Task> tasks = new IntObjectMap<>(1024);
+    private final IntObjectMap<IntList> tasksByProject = new IntObjectMap<>();
+    private final IntObjectMap<IntList> tasksByAssignee = new IntObjectMap<>();
+    private final IntObjectMap<Project> projects = new IntObjectMap<>();
+    private final IntObjectMap<User> users = new IntObjectMap<>();
+    private final Map<String, Integer> userIdsByName = new HashMap<>();
+    // Blocked-by relations per project
+    private final IntObjectMap<List<TaskDependency>> dependenciesByProject = new IntObjectMap<>();
+
+    // Delta sync: each task's change sequence (its last write) and the removals, oldest first.
+    // Only the newest MAX_TOMBSTONES removals are kept; older cursors must re-sync.
+    private static final int MAX_TOMBSTONES = 100_000;
+    private final IntObjectMap<Long> taskChangeSeqs = new IntObjectMap<>(1024);
+    private final ArrayDeque<Tombstone> tombstones = new ArrayDeque<>();
+    private long changeSeq;
+    private long prunedThrough;
+
+    private record Tombstone(TaskChanges.Removal removal, Integer assignedTo, long seq) {
+    }
+
+    private int nextTaskId = 1;
+    private int nextProjectId = 1;
+    private int nextUserId = 1;
+
+    private final TaskRepository taskRepository = new Tasks();
+    private final ProjectRepository projectRepository = new Projects();
+    private final UserRepository userRepository = new Users();
+    private final TaskDependencyRepository dependencyRepository = new Dependencies();
+
+    public TaskRepository tasks() {
+        return taskRepository;
+    }
+
+    public ProjectRepository projects() {
+        return projectRepository;
+    }
+
+    public UserRepository users() {
+        return userRepository;
+    }
+
+    public TaskDependencyRepository dependencies() {
+        return dependencyRepository;
+    }
+
+    // Synthetic data for benchmarks: team members, and projects with tasks spread over them
+    public void seed(int projectCount, int tasksPerProject, int memberCount) {
+        lock.writeLock().lock();
+        try {
+            int firstMember = nextUserId;
+            for (int i = 0; i < memberCount; i++) {
+                int id = nextUserId++;
+                String username = "member" + id;
+                users.put(id, new User(id, username, username + "@example.com", "team_member", null));
+                userIdsByName.put(username, id);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (int p = 0; p < projectCount; p++) {
+                int projectId = nextProjectId++;
+                projects.put(projectId, new Project(projectId, "Project " + projectId, "Seeded project", "In Progress", now));
+                for (int t = 0; t < tasksPerProject; t++) {
+                    int taskId = nextTaskId++;
+                    Integer assignee = memberCount > 0 ? firstMember + taskId % memberCount : null;
+                    Task task = new Task(taskId, projectId, "Task " + taskId, "Seeded task", "In Progress", assignee,
+                        now, taskId * 7 % 101, LocalDate.now().plusDays(taskId % 60 - 30));
+                    tasks.put(taskId, task);
+                    indexTask(task);
+                    recordChange(null, task);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexTask(Task task) {
+        if (task.projectId() != null) {
+            index(tasksByProject, task.projectId(), task.id());
+        }
+        if (task.assignedTo() != null) {
+            index(tasksByAssignee, task.assignedTo(), task.id());
+        }
+    }
+
+    private void unindexTask(Task task) {
+        if (task.projectId() != null) {
+            unindex(tasksByProject, task.projectId(), task.id());
+        }
+        if (task.assignedTo() != null) {
+            unindex(tasksByAssignee, task.assignedTo(), task.id());
+        }
+    }
+
+    private static void index(IntObjectMap<IntList> index, int key, int taskId) {
+        IntList ids = index.get(key);
+        if (ids == null) {
+            ids = new IntList();
+            index.put(key, ids);
+        }
+        ids.add(taskId);
+    }
+
+    private static void unindex(IntObjectMap<IntList> index, int key, int taskId) {
+        IntList ids = index.get(key);
+        if (ids != null && ids.removeValue(taskId) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // Caller holds the lock
+    private List<Task> tasksIn(IntObjectMap<IntList> index, int key) {
+        IntList ids = index.get(key);
+        if (ids == null) {
+            return new ArrayList<>(0);
+        }
+        List<Task> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(tasks.get(ids.get(i)));
+        }
+        return result;
+    }
+
+    // Caller holds the lock
+    private Task lookup(int taskId, Integer projectHint) {
+        Task task = tasks.get(taskId);
+        return task != null && (projectHint == null || projectHint.equals(task.projectId())) ? task : null;
+    }
+
+    // Caller holds the write lock
+    private void replace(Task before, Task after) {
+        unindexTask(before);
+        tasks.put(after.id(), after);
+        indexTask(after);
+        recordChange(before, after);
+    }
+
+    // Caller holds the write lock. before is null for a new task, after for a deleted one.
+    private void recordChange(Task before, Task after) {
+        long seq = ++changeSeq;
+        if (after != null) {
+            taskChangeSeqs.put(after.id(), seq);
+        } else {
+            taskChangeSeqs.remove(before.id());
+        }
+        if (after == null || (before != null && before.assignedTo() != null && !before.assignedTo().equals(after.assignedTo()))) {
+            String reason = after == null ? "deleted" : "unassigned";
+            tombstones.addLast(new Tombstone(new TaskChanges.Removal(before.id(), before.projectId(), reason), before.assignedTo(), seq));
+            if (tombstones.size() > MAX_TOMBSTONES) {
+                prunedThrough = tombstones.removeFirst().seq();
+            }
+        }
+    }
+
+    // Caller holds the lock. Applies the same [since, cursor) window as the Postgres engine,
+    // with cursor one past the last change.
+    private TaskChanges changesSince(List<Task> candidates, long since, Predicate<Tombstone> removalFilter) {
+        if (since > 0 && since <= prunedThrough) {
+            return null;
+        }
+        List<Task> changed = new ArrayList<>();
+        for (Task task : candidates) {
+            if (taskChangeSeqs.get(task.id()) >= since) {
+                changed.add(task);
+            }
+        }
+        List<TaskChanges.Removal> removed = new ArrayList<>();
+        if (since > 0) {
+            for (Iterator<Tombstone> newestFirst = tombstones.descendingIterator(); newestFirst.hasNext(); ) {
+                Tombstone tombstone = newestFirst.next();
+                if (tombstone.seq() < since) {
+                    break;
+                }
+                if (removalFilter.test(tombstone)) {
+                    removed.add(tombstone.removal());
+                }
+            }
+            Collections.reverse(removed);
+        }
+        return new TaskChanges(changed, PgTaskRepository.withoutReturned(removed, changed), changeSeq + 1);
+    }
+
+    private static Double average(long sum, int count) {
+        return count == 0 ? null : (double) sum / count;
+    }
+
+    private class Tasks implements TaskRepository {
+
+        @Override
+        public Future<Integer> create(RoutingContext ctx, Task task) {
+            lock.writeLock().lock();
+            try {
+                Task stored = task.withId(nextTaskId++, LocalDateTime.now());
+                tasks.put(stored.id(), stored);
+                indexTask(stored);
+                recordChange(null, stored);
+                return Future.succeededFuture(stored.id());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<Task>> findByProject(RoutingContext ctx, int projectId) {
+            lock.readLock().lock();
+            try {
+                return Future.succeededFuture(tasksIn(tasksByProject, projectId));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<Task>> findByProjects(RoutingContext ctx, Integer[] projectIds) {
+            lock.readLock().lock();
+            try {
+                List<Task> found = new ArrayList<>();
+                for (Integer projectId : projectIds) {
+                    found.addAll(tasksIn(tasksByProject, projectId));
+                }
+                return Future.succeededFuture(found);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<Task>> findByAssignee(RoutingContext ctx, int userId, Integer[] projectIds) {
+            lock.readLock().lock();
+            try {
+                List<Task> assigned = tasksIn(tasksByAssignee, userId);
+                if (projectIds.length > 0) {
+                    List<Integer> wanted = Arrays.asList(projectIds);
+                    assigned.removeIf(task -> !wanted.contains(task.projectId()));
+                }
+                return Future.succeededFuture(assigned);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<TaskChanges> changesInProject(RoutingContext ctx, int projectId, long since) {
+            lock.readLock().lock();
+            try {
+                return Future.succeededFuture(changesSince(tasksIn(tasksByProject, projectId), since, tombstone ->
+                    "deleted".equals(tombstone.removal().reason()) && Integer.valueOf(projectId).equals(tombstone.removal().projectId())));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<TaskChanges> changesForAssignee(RoutingContext ctx, int userId, Integer[] projectIds, long since) {
+            lock.readLock().lock();
+            try {
+                List<Integer> wanted = Arrays.asList(projectIds);
+                List<Task> assigned = tasksIn(tasksByAssignee, userId);
+                if (!wanted.isEmpty()) {
+                    assigned.removeIf(task -> !wanted.contains(task.projectId()));
+                }
+                return Future.succeededFuture(changesSince(assigned, since, tombstone ->
+                    Integer.valueOf(userId).equals(tombstone.assignedTo())
+                        && (wanted.isEmpty() || wanted.contains(tombstone.removal().projectId()))));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Task> findById(RoutingContext ctx, int taskId, Integer projectHint) {
+            lock.readLock().lock();
+            try {
+                return Future.succeededFuture(lookup(taskId, projectHint));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Task> update(RoutingContext ctx, Task task) {
+            lock.writeLock().lock();
+            try {
+                Task current = tasks.get(task.id());
+                if (current == null || !Objects.equals(current.projectId(), task.projectId())) {
+                    return Future.succeededFuture();
+                }
+                // created_at is not updatable
+                Task updated = task.withId(current.id(), current.createdAt());
+                replace(current, updated);
+                return Future.succeededFuture(updated);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Boolean> delete(RoutingContext ctx, int taskId, Integer projectId) {
+            lock.writeLock().lock();
+            try {
+                Task current = tasks.get(taskId);
+                if (current == null || !Objects.equals(current.projectId(), projectId)) {
+                    return Future.succeededFuture(false);
+                }
+                tasks.remove(taskId);
+                unindexTask(current);
+                recordChange(current, null);
+                // As the tasks delete trigger does on Postgres
+                List<TaskDependency> dependencies = projectId != null ? dependenciesByProject.get(projectId) : null;
+                if (dependencies != null) {
+                    dependencies.removeIf(dependency -> dependency.taskId() == taskId || dependency.dependsOn() == taskId);
+                }
+                return Future.succeededFuture(true);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Task> assign(RoutingContext ctx, int taskId, Integer userId, Integer projectHint) {
+            lock.writeLock().lock();
+            try {
+                Task current = lookup(taskId, projectHint);
+                if (current == null) {
+                    return Future.succeededFuture();
+                }
+                Task updated = current.withAssignedTo(userId);
+                replace(current, updated);
+                return Future.succeededFuture(updated);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // No burndown buckets in memory, only the project status
+        @Override
+        public Future<Void> refreshProjectStatus(int projectId) {
+            lock.writeLock().lock();
+            try {
+                Project project = projects.get(projectId);
+                if (project != null) {
+                    List<JsonObject> progress = new ArrayList<>();
+                    for (Task task : tasksIn(tasksByProject, projectId)) {
+                        progress.add(new JsonObject().put("progress", task.progress()));
+                    }
+                    String status = TaskHandler.computeProjectStatus(progress);
+                    projects.put(projectId, new Project(project.id(), project.name(), project.description(), status, project.createdAt()));
+                }
+                return Future.succeededFuture();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private class Projects implements ProjectRepository {
+
+        @Override
+        public Future<Integer> create(RoutingContext ctx, Project project) {
+            lock.writeLock().lock();
+            try {
+                int id = nextProjectId++;
+                projects.put(id, new Project(id, project.name(), project.description(), project.status(), LocalDateTime.now()));
+                return Future.succeededFuture(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<Project>> findAll(RoutingContext ctx) {
+            lock.readLock().lock();
+            try {
+                List<Project> all = projects.values();
+                all.sort(Comparator.comparing(Project::id));
+                return Future.succeededFuture(all);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Project> findById(RoutingContext ctx, int projectId) {
+            lock.readLock().lock();
+            try {
+                return Future.succeededFuture(projects.get(projectId));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<Project>> findByIds(RoutingContext ctx, Integer[] projectIds) {
+            lock.readLock().lock();
+            try {
+                List<Project> found = new ArrayList<>(projectIds.length);
+                for (Integer projectId : projectIds) {
+                    Project project = projects.get(projectId);
+                    if (project != null) {
+                        found.add(project);
+                    }
+                }
+                return Future.succeededFuture(found);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Void> update(RoutingContext ctx, int projectId, String name, String description, String status) {
+            lock.writeLock().lock();
+            try {
+                Project current = projects.get(projectId);
+                if (current != null) {
+                    projects.put(projectId, new Project(projectId,
+                        name != null ? name : current.name(),
+                        description != null ? description : current.description(),
+                        status != null ? status : current.status(),
+                        current.createdAt()));
+                }
+                return Future.succeededFuture();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Tasks of the project are left in place, as rows in the tasks table would be
+        @Override
+        public Future<Boolean> delete(RoutingContext ctx, int projectId) {
+            lock.writeLock().lock();
+            try {
+                return Future.succeededFuture(projects.remove(projectId) != null);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Void> updateStatus(int projectId, String status) {
+            return update(null, projectId, null, null, status);
+        }
+
+        // Same shape as the GROUPING SETS query of the Postgres engine
+        @Override
+        public Future<JsonArray> summaries(RoutingContext ctx, Integer[] projectIds) {
+            lock.readLock().lock();
+            try {
+                JsonArray result = new JsonArray();
+                for (int projectId : new TreeSet<>(Arrays.asList(projectIds))) {
+                    Project project = projects.get(projectId);
+                    if (project == null) {
+                        continue;
+                    }
+                    JsonObject byStatus = new JsonObject();
+                    // assignee -> {task count, progress sum, progress count}
+                    Map<Integer, long[]> byAssignee = new TreeMap<>();
+                    long unassigned = 0;
+                    long progressSum = 0;
+                    int progressCount = 0;
+                    List<Task> projectTasks = tasksIn(tasksByProject, projectId);
+                    for (Task task : projectTasks) {
+                        String status = task.status() != null ? task.status() : "none";
+                        byStatus.put(status, byStatus.getLong(status, 0L) + 1);
+                        if (task.progress() != null) {
+                            progressSum += task.progress();
+                            progressCount++;
+                        }
+                        if (task.assignedTo() == null) {
+                            unassigned++;
+                        } else {
+                            long[] totals = byAssignee.computeIfAbsent(task.assignedTo(), key -> new long[3]);
+                            totals[0]++;
+                            if (task.progress() != null) {
+                                totals[1] += task.progress();
+                                totals[2]++;
+                            }
+                        }
+                    }
+
+                    JsonArray assignees = new JsonArray();
+                    byAssignee.forEach((userId, totals) -> assignees.add(new JsonObject()
+                        .put("user_id", userId)
+                        .put("task_count", totals[0])
+                        .put("average_progress", average(totals[1], (int) totals[2]))));
+                    result.add(new JsonObject()
+                        .put("project_id", projectId)
+                        .put("by_status", byStatus)
+                        .put("by_assignee", assignees)
+                        .put("unassigned", unassigned)
+                        .put("name", project.name())
+                        .put("status", project.status())
+                        .put("task_count", (long) projectTasks.size())
+                        .put("average_progress", average(progressSum, progressCount)));
+                }
+                return Future.succeededFuture(result);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private class Users implements UserRepository {
+
+        @Override
+        public Future<Void> create(RoutingContext ctx, User user) {
+            lock.writeLock().lock();
+            try {
+                if (userIdsByName.containsKey(user.username())) {
+                    return Future.failedFuture("duplicate username: " + user.username());
+                }
+                int id = nextUserId++;
+                users.put(id, new User(id, user.username(), user.email(), user.role(), user.password()));
+                userIdsByName.put(user.username(), id);
+                return Future.succeededFuture();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<User> findByUsername(RoutingContext ctx, String username) {
+            lock.readLock().lock();
+            try {
+                Integer id = userIdsByName.get(username);
+                return Future.succeededFuture(id != null ? users.get(id) : null);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<User>> findAll(RoutingContext ctx) {
+            lock.readLock().lock();
+            try {
+                List<User> all = new ArrayList<>(users.size());
+                for (User user : users.values()) {
+                    all.add(withoutPassword(user));
+                }
+                all.sort(Comparator.comparing(User::id));
+                return Future.succeededFuture(all);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<User> findById(RoutingContext ctx, int userId) {
+            lock.readLock().lock();
+            try {
+                User user = users.get(userId);
+                return Future.succeededFuture(user != null ? withoutPassword(user) : null);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<User>> findByIds(RoutingContext ctx, Integer[] userIds) {
+            lock.readLock().lock();
+            try {
+                List<User> found = new ArrayList<>(userIds.length);
+                for (Integer userId : userIds) {
+                    User user = users.get(userId);
+                    if (user != null) {
+                        found.add(withoutPassword(user));
+                    }
+                }
+                return Future.succeededFuture(found);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<List<User>> findByRole(RoutingContext ctx, String role) {
+            return findAll(ctx).map(all -> {
+                all.removeIf(user -> !role.equals(user.role()));
+                return all;
+            });
+        }
+
+        @Override
+        public Future<JsonArray> workload(RoutingContext ctx, int afterId, int limit) {
+            lock.readLock().lock();
+            try {
+                List<User> members = new ArrayList<>();
+                for (User user : users.values()) {
+                    if (user.id() > afterId && "team_member".equals(user.role())) {
+                        members.add(user);
+                    }
+                }
+                members.sort(Comparator.comparing(User::id));
+
+                LocalDate today = LocalDate.now();
+                JsonArray result = new JsonArray();
+                for (User user : members.subList(0, Math.min(limit, members.size()))) {
+                    long open = 0;
+                    long overdue = 0;
+                    long progressSum = 0;
+                    int progressCount = 0;
+                    for (Task task : tasksIn(tasksByAssignee, user.id())) {
+                        if (task.progress() != null && task.progress() >= 100) {
+                            continue;
+                        }
+                        open++;
+                        if (task.progress() != null) {
+                            progressSum += task.progress();
+                            progressCount++;
+                        }
+                        if (task.dueDate() != null && task.dueDate().isBefore(today)) {
+                            overdue++;
+                        }
+                    }
+                    result.add(new JsonObject()
+                        .put("id", user.id())
+                        .put("username", user.username())
+                        .put("open_tasks", open)
+                        .put("average_progress", average(progressSum, progressCount))
+                        .put("overdue_tasks", overdue));
+                }
+                return Future.succeededFuture(result);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Void> updateRole(RoutingContext ctx, int userId, String role) {
+            lock.writeLock().lock();
+            try {
+                User user = users.get(userId);
+                if (user != null) {
+                    users.put(userId, new User(userId, user.username(), user.email(), role, user.password()));
+                }
+                return Future.succeededFuture();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Void> delete(RoutingContext ctx, int userId) {
+            lock.writeLock().lock();
+            try {
+                User user = users.remove(userId);
+                if (user != null) {
+                    userIdsByName.remove(user.username());
+                }
+                return Future.succeededFuture();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Boolean> updateProfile(RoutingContext ctx, int userId, String username, String email) {
+            lock.writeLock().lock();
+            try {
+                User user = users.get(userId);
+                if (user == null) {
+                    return Future.succeededFuture(false);
+                }
+                Integer owner = userIdsByName.get(username);
+                if (owner != null && owner != userId) {
+                    return Future.failedFuture("duplicate username: " + username);
+                }
+                userIdsByName.remove(user.username());
+                userIdsByName.put(username, userId);
+                users.put(userId, new User(userId, username, email, user.role(), user.password()));
+                return Future.succeededFuture(true);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private User withoutPassword(User user) {
+            return new User(user.id(), user.username(), user.email(), user.role(), null);
+        }
+    }
+
+    private class Dependencies implements TaskDependencyRepository {
+
+        @Override
+        public Future<List<TaskDependency>> findByProject(int projectId) {
+            lock.readLock().lock();
+            try {
+                List<TaskDependency> dependencies = dependenciesByProject.get(projectId);
+                return Future.succeededFuture(dependencies != null ? new ArrayList<>(dependencies) : new ArrayList<>(0));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Same checks as the Postgres insert: both tasks in the project, no duplicate, no cycle
+        @Override
+        public Future<Boolean> add(RoutingContext ctx, int projectId, TaskDependency dependency) {
+            lock.writeLock().lock();
+            try {
+                if (dependency.taskId() == dependency.dependsOn()
+                    || lookup(dependency.taskId(), projectId) == null || lookup(dependency.dependsOn(), projectId) == null) {
+                    return Future.succeededFuture(false);
+                }
+                List<TaskDependency> dependencies = dependenciesByProject.get(projectId);
+                if (dependencies == null) {
+                    dependencies = new ArrayList<>();
+                    dependenciesByProject.put(projectId, dependencies);
+                }
+                if (dependencies.contains(dependency) || waitsOn(dependencies, dependency.dependsOn(), dependency.taskId())) {
+                    return Future.succeededFuture(false);
+                }
+                dependencies.add(dependency);
+                return Future.succeededFuture(true);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Future<Boolean> remove(RoutingContext ctx, int projectId, TaskDependency dependency) {
+            lock.writeLock().lock();
+            try {
+                List<TaskDependency> dependencies = dependenciesByProject.get(projectId);
+                return Future.succeededFuture(dependencies != null && dependencies.remove(dependency));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Whether taskId waits on target, directly or through other tasks
+        private boolean waitsOn(List<TaskDependency> dependencies, int taskId, int target) {
+            IntList stack = new IntList();
+            Set<Integer> seen = new HashSet<>();
+            stack.add(taskId);
+            while (!stack.isEmpty()) {
+                int current = stack.removeLast();
+                for (TaskDependency dependency : dependencies) {
+                    if (dependency.taskId() == current) {
+                        if (dependency.dependsOn() == target) {
+                            return true;
+                        }
+                        if (seen.add(dependency.dependsOn())) {
+                            stack.add(dependency.dependsOn());
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Serves the project and assignee task lists from a TaskIndex and keeps it current: every write
+// goes to the database first and is applied to the index before the write completes, so the
+// handler's response already reflects it. Writes are also announced on TaskIndex.ADDRESS so the
+// other instances re-read the task; {"reload": true} there (after an import) rebuilds every index
+// and {"removed_project": id} (after a background project deletion) drops that project's tasks.
+public class IndexedTaskRepository implements TaskRepository {
+
+    private final Vertx vertx;
+    private final TaskRepository delegate;
+    private final TaskIndex index;
+    private final String origin = UUID.randomUUID().toString();
+
+    public IndexedTaskRepository(Vertx vertx, TaskRepository delegate, TaskIndex index) {
+        this.vertx = vertx;
+        this.delegate = delegate;
+        this.index = index;
+
+        vertx.eventBus().<JsonObject>consumer(TaskIndex.ADDRESS, message -> {
+            JsonObject change = message.body();
+            if (change.getBoolean("reload", false)) {
+                index.load();
+            } else if (change.containsKey("removed_project")) {
+                index.removeProject(change.getInteger("removed_project"));
+            } else if (!origin.equals(change.getString("origin"))) {
+                refresh(change.getInteger("task_id"), change.getInteger("project_id"));
+            }
+        });
+    }
+
+    @Override
+    public Future<Integer> create(RoutingContext ctx, Task task) {
+        // The insert only returns the id, so read the row back for created_at
+        return delegate.create(ctx, task)
+            .compose(id -> delegate.findById(ctx, id, task.projectId())
+                .otherwise(err -> {
+                    System.out.println("⚠️ Could not read back task " + id + " for the task index: " + err.getMessage());
+                    return task.withId(id, LocalDateTime.now());
+                })
+                .map(created -> {
+                    index.put(created != null ? created : task.withId(id, LocalDateTime.now()));
+                    announce(id, task.projectId());
+                    return id;
+                }));
+    }
+
+    @Override
+    public Future<List<Task>> findByProject(RoutingContext ctx, int projectId) {
+        List<Task> tasks = index.findByProject(projectId);
+        return tasks != null ? Future.succeededFuture(tasks) : delegate.findByProject(ctx, projectId);
+    }
+
+    @Override
+    public Future<List<Task>> findByProjects(RoutingContext ctx, Integer[] projectIds) {
+        List<Task> found = new ArrayList<>();
+        for (Integer projectId : projectIds) {
+            List<Task> tasks = index.findByProject(projectId);
+            if (tasks == null) {
+                return delegate.findByProjects(ctx, projectIds);
+            }
+            found.addAll(tasks);
+        }
+        return Future.succeededFuture(found);
+    }
+
+    @Override
+    public Future<List<Task>> findByAssignee(RoutingContext ctx, int userId, Integer[] projectIds) {
+        List<Task> tasks = index.findByAssignee(userId, projectIds);
+        return tasks != null ? Future.succeededFuture(tasks) : delegate.findByAssignee(ctx, userId, projectIds);
+    }
+
+    // Cursors come from the database, so delta reads go there
+    @Override
+    public Future<TaskChanges> changesInProject(RoutingContext ctx, int projectId, long since) {
+        return delegate.changesInProject(ctx, projectId, since);
+    }
+
+    @Override
+    public Future<TaskChanges> changesForAssignee(RoutingContext ctx, int userId, Integer[] projectIds, long since) {
+        return delegate.changesForAssignee(ctx, userId, projectIds, since);
+    }
+
+    @Override
+    public Future<Task> findById(RoutingContext ctx, int taskId, Integer projectHint) {
+        return delegate.findById(ctx, taskId, projectHint);
+    }
+
+    @Override
+    public Future<Task> update(RoutingContext ctx, Task task) {
+        return delegate.update(ctx, task)
+            .onSuccess(updated -> {
+                if (updated != null) {
+                    index.put(updated);
+                    announce(updated.id(), updated.projectId());
+                }
+            });
+    }
+
+    @Override
+    public Future<Boolean> delete(RoutingContext ctx, int taskId, Integer projectId) {
+        return delegate.delete(ctx, taskId, projectId)
+            .onSuccess(deleted -> {
+                if (deleted) {
+                    index.remove(taskId);
+                    announce(taskId, projectId);
+                }
+            });
+    }
+
+    @Override
+    public Future<Task> assign(RoutingContext ctx, int taskId, Integer userId, Integer projectHint) {
+        return delegate.assign(ctx, taskId, userId, projectHint)
+            .onSuccess(task -> {
+                if (task != null) {
+                    index.put(task);
+                    announce(task.id(), task.projectId());
+                }
+            });
+    }
+
+    @Override
+    public Future<Void> refreshProjectStatus(int projectId) {
+        return delegate.refreshProjectStatus(projectId);
+    }
+
+    private void announce(int taskId, Integer projectId) {
+        vertx.eventBus().publish(TaskIndex.ADDRESS, new JsonObject()
+            .put("origin", origin)
+            .put("task_id", taskId)
+            .put("project_id", projectId));
+    }
+
+    // Another instance wrote the task: take its current row, or drop it if it is gone
+    private void refresh(int taskId, Integer projectId) {
+        delegate.findById(null, taskId, projectId)
+            .onSuccess(task -> {
+                if (task != null) {
+                    index.put(task);
+                } else {
+                    index.remove(taskId);
+                }
+            })
+            .onFailure(err -> System.out.println("❌ Failed to refresh task " + taskId + " in the task index: " + err.getMessage()));
+    }
+}
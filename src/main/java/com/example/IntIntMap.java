@@ -0,0 +1,134 @@
+package com.example;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from int to a non-negative int, the primitive counterpart of
+// IntObjectMap: two parallel int arrays, no boxing. Values are stored plus one so that 0 can
+// mark a free slot. Not thread-safe; callers guard it.
+public final class IntIntMap {
+
+    public static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Bytes held by the two arrays, for memory reporting
+    public long capacityBytes() {
+        return (long) keys.length * 8;
+    }
+
+    // Returns MISSING when absent
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    // Returns the previous value, or MISSING
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative values are not supported");
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = value + 1;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value + 1;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return MISSING;
+    }
+
+    // Returns the removed value, or MISSING
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = 0;
+                size--;
+                closeGap(slot, mask);
+                return previous;
+            }
+        }
+        return MISSING;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    // Backward-shift deletion, as in IntObjectMap
+    private void closeGap(int gap, int mask) {
+        for (int slot = (gap + 1) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            int home = mix(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                values[slot] = 0;
+                gap = slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
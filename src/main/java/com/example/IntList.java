@@ -0,0 +1,78 @@
+package com.example;
+
+import java.util.Arrays;
+
+// Growable list of primitive ints in insertion order. Used for secondary indexes holding ids,
+// where an ArrayList<Integer> would box every element. Not thread-safe; callers guard it.
+public final class IntList {
+
+    private int[] items;
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        items = new int[Math.max(1, capacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return items[index];
+    }
+
+    public void add(int value) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size << 1);
+        }
+        items[size++] = value;
+    }
+
+    // Removes the first occurrence, keeping the order of the rest. Returns false if absent.
+    public boolean removeValue(int value) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == value) {
+                System.arraycopy(items, i + 1, items, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Removes and returns the last element
+    public int removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException(0);
+        }
+        return items[--size];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(items, size);
+    }
+}
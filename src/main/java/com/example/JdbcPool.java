@@ -0,0 +1,124 @@
+package com.example;
+
+import io.vertx.core.json.JsonObject;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Minimal blocking connection pool over the bundled PostgreSQL JDBC driver, used by the blocking execution mode.
+// Callers must be on a worker or virtual thread, never on the event loop.
+public class JdbcPool {
+
+    @FunctionalInterface
+    public interface JdbcWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private final String url;
+    private final Properties properties = new Properties();
+    private final int maxSize;
+    private final long acquireTimeoutMs;
+    private final BlockingQueue<Connection> idle;
+    private final AtomicInteger opened = new AtomicInteger();
+
+    public static JdbcPool create(JsonObject dbConfig, int maxSize) {
+        return new JdbcPool(dbConfig, maxSize);
+    }
+
+    private JdbcPool(JsonObject dbConfig, int maxSize) {
+        this.url = "jdbc:postgresql://" + dbConfig.getString("host", "localhost") + ":" + dbConfig.getInteger("port", 5432)
+            + "/" + dbConfig.getString("database", "project_management");
+        this.properties.setProperty("user", dbConfig.getString("user", "postgres"));
+        this.properties.setProperty("password", dbConfig.getString("password", "password"));
+        // Server-side prepare on first use, like the reactive pool's statement cache
+        this.properties.setProperty("prepareThreshold", "1");
+        this.maxSize = maxSize;
+        this.acquireTimeoutMs = dbConfig.getLong("acquireTimeoutMs", 5000L);
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    public <T> T withConnection(JdbcWork<T> work) throws SQLException {
+        Connection conn = borrow();
+        boolean broken = false;
+        try {
+            return work.run(conn);
+        } catch (SQLException e) {
+            // SQLSTATE class 08 = connection exception
+            broken = conn.isClosed() || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+            throw e;
+        } finally {
+            release(conn, broken);
+        }
+    }
+
+    public <T> T inTransaction(JdbcWork<T> work) throws SQLException {
+        return withConnection(conn -> {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        });
+    }
+
+    public void close() {
+        Connection conn;
+        while ((conn = idle.poll()) != null) {
+            closeQuietly(conn);
+        }
+    }
+
+    private Connection borrow() throws SQLException {
+        Connection conn = idle.poll();
+        if (conn != null) {
+            return conn;
+        }
+        if (opened.incrementAndGet() <= maxSize) {
+            try {
+                return DriverManager.getConnection(url, properties);
+            } catch (SQLException e) {
+                opened.decrementAndGet();
+                throw e;
+            }
+        }
+        opened.decrementAndGet();
+
+        try {
+            conn = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a JDBC connection", e);
+        }
+        if (conn == null) {
+            throw new SQLException("Timed out after " + acquireTimeoutMs + " ms waiting for a JDBC connection");
+        }
+        return conn;
+    }
+
+    private void release(Connection conn, boolean broken) {
+        if (broken || !idle.offer(conn)) {
+            closeQuietly(conn);
+            opened.decrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to close JDBC connection: " + e.getMessage());
+        }
+    }
+}
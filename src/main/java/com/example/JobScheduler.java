@@ -0,0 +1,411 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Persistent background jobs for heavy operations: project deletion, bulk project status
+// recomputes and reindexing. Jobs are rows in the jobs table, shared by every instance. A worker
+// claims the oldest runnable job with FOR UPDATE SKIP LOCKED and holds a lease on it, renewed
+// while it works; a job whose lease runs out (its instance died) is claimed again and resumes
+// from the progress it last saved. Each step handles one bounded batch on a small pool of its own,
+// with a pause between steps, so jobs never take connections from interactive requests. A failed
+// step is retried with exponential backoff up to maxAttempts, then the job is marked failed.
+public class JobScheduler {
+
+    public static final String DELETE_PROJECT = "delete_project";
+    public static final String RECOMPUTE_STATUS = "recompute_status";
+    public static final String REINDEX = "reindex";
+
+    // Tables a reindex job may rebuild
+    private static final Set<String> REINDEX_TABLES = Set.of("tasks", "projects", "task_activity", "project_progress_daily", "task_tombstones", "task_dependencies");
+
+    // A job with the same dedupe key still queued or running is returned instead of adding another
+    private static final String INSERT_JOB_SQL =
+        "INSERT INTO jobs (type, payload, dedupe_key, max_attempts) VALUES ($1, $2, $3, $4) " +
+        "ON CONFLICT (dedupe_key) WHERE state IN ('queued', 'running') DO UPDATE SET updated_at = jobs.updated_at " +
+        "RETURNING id";
+    private static final String CLAIM_JOB_SQL =
+        "UPDATE jobs SET state = 'running', attempts = attempts + 1, locked_by = $1, " +
+        "locked_until = NOW() + make_interval(secs => $2::int), started_at = COALESCE(started_at, NOW()), updated_at = NOW() " +
+        "WHERE id = (SELECT id FROM jobs WHERE (state = 'queued' AND run_after <= NOW()) OR (state = 'running' AND locked_until < NOW()) " +
+        "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+        "RETURNING id, type, payload, progress, attempts, max_attempts";
+    // No row updated means the lease was lost to another worker
+    private static final String SAVE_PROGRESS_SQL =
+        "UPDATE jobs SET progress = $2, locked_until = NOW() + make_interval(secs => $3::int), updated_at = NOW() WHERE id = $1 AND locked_by = $4";
+    private static final String RENEW_LEASE_SQL =
+        "UPDATE jobs SET locked_until = NOW() + make_interval(secs => $2::int) WHERE id = $1 AND locked_by = $3";
+    private static final String COMPLETE_JOB_SQL =
+        "UPDATE jobs SET state = 'succeeded', progress = $2, error = NULL, locked_by = NULL, locked_until = NULL, " +
+        "finished_at = NOW(), updated_at = NOW() WHERE id = $1 AND locked_by = $3";
+    private static final String FAIL_JOB_SQL =
+        "UPDATE jobs SET state = CASE WHEN attempts >= max_attempts THEN 'failed' ELSE 'queued' END, error = $2, " +
+        "run_after = NOW() + make_interval(secs => $3::int), locked_by = NULL, locked_until = NULL, " +
+        "finished_at = CASE WHEN attempts >= max_attempts THEN NOW() END, updated_at = NOW() WHERE id = $1 AND locked_by = $4";
+    private static final String SELECT_JOB_SQL = "SELECT * FROM jobs WHERE id = $1";
+    private static final String RECENT_JOBS_SQL = "SELECT * FROM jobs ORDER BY id DESC LIMIT $1";
+
+    private static final String DELETE_TASK_BATCH_SQL =
+        "DELETE FROM tasks WHERE project_id = $1 AND id IN (SELECT id FROM tasks WHERE project_id = $1 LIMIT $2)";
+    private static final String DELETE_PROJECT_TASKS_SQL = "DELETE FROM tasks WHERE project_id = $1";
+    private static final String DELETE_PROJECT_BUCKETS_SQL = "DELETE FROM project_progress_daily WHERE project_id = $1";
+    private static final String DELETE_PROJECT_SQL = "DELETE FROM projects WHERE id = $1";
+    private static final String PROJECT_ID_PAGE_SQL = "SELECT id FROM projects WHERE id > $1 ORDER BY id LIMIT $2";
+
+    static final List<String> STATEMENTS = List.of(
+        INSERT_JOB_SQL, CLAIM_JOB_SQL, SAVE_PROGRESS_SQL, RENEW_LEASE_SQL, COMPLETE_JOB_SQL, FAIL_JOB_SQL,
+        SELECT_JOB_SQL, RECENT_JOBS_SQL, DELETE_TASK_BATCH_SQL, DELETE_PROJECT_TASKS_SQL, DELETE_PROJECT_BUCKETS_SQL, DELETE_PROJECT_SQL, PROJECT_ID_PAGE_SQL);
+
+    private static final class Job {
+        final long id;
+        final String type;
+        final JsonObject payload;
+        final JsonObject progress;
+        final int attempts;
+
+        Job(Row row) {
+            this.id = row.getLong("id");
+            this.type = row.getString("type");
+            this.payload = row.getJsonObject("payload");
+            this.progress = row.getJsonObject("progress");
+            this.attempts = row.getInteger("attempts");
+        }
+    }
+
+    private final Vertx vertx;
+    private final PgPool client;
+    private final TaskRepository tasks;
+    private final String workerId = UUID.randomUUID().toString();
+    private final int concurrency;
+    private final int batchSize;
+    private final long pauseMs;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final AtomicInteger active = new AtomicInteger();
+    private long pollTimer = -1;
+    private volatile boolean stopped;
+
+    public JobScheduler(Vertx vertx, DatabaseConnector db, JsonObject config) {
+        this.vertx = vertx;
+        this.concurrency = config.getInteger("concurrency", 1);
+        this.client = db.newPrimaryPool(config.getInteger("poolSize", 2));
+        this.tasks = new PgTaskRepository(db, client);
+        this.batchSize = config.getInteger("batchSize", 1000);
+        this.pauseMs = config.getLong("pauseMs", 50L);
+        this.leaseSeconds = config.getInteger("leaseSeconds", 60);
+        this.maxAttempts = config.getInteger("maxAttempts", 5);
+        this.pollIntervalMs = config.getLong("pollIntervalMs", 2000L);
+    }
+
+    // Starts polling once the jobs table exists; also picks up jobs left behind by a restart
+    public void start() {
+        pollTimer = vertx.setPeriodic(pollIntervalMs, id -> fill());
+        fill();
+        System.out.println("✅ Job scheduler started (" + concurrency + " worker" + (concurrency == 1 ? "" : "s") + ").");
+    }
+
+    public void close() {
+        stopped = true;
+        if (pollTimer != -1) {
+            vertx.cancelTimer(pollTimer);
+        }
+        // Running jobs keep their lease until it runs out, then another instance resumes them
+        client.close();
+    }
+
+    // Returns the id of the new job, or of the identical one already queued or running
+    public Future<Long> enqueue(String type, JsonObject payload, String dedupeKey) {
+        return Tracing.query(client, INSERT_JOB_SQL, Tuple.of(type, payload, dedupeKey, maxAttempts))
+            .map(rows -> rows.iterator().next().getLong("id"))
+            .onSuccess(id -> fill());
+    }
+
+    // GET /jobs/:id
+    public void getJob(RoutingContext ctx) {
+        long jobId;
+        try {
+            jobId = Long.parseLong(ctx.pathParam("id"));
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid job id.");
+            return;
+        }
+        Tracing.query(client, SELECT_JOB_SQL, Tuple.of(jobId))
+            .onSuccess(rows -> {
+                if (rows.rowCount() == 0) {
+                    ctx.response().setStatusCode(404).end("Job not found.");
+                    return;
+                }
+                ctx.response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(toJson(rows.iterator().next()).encode());
+            })
+            .onFailure(err -> ctx.response().setStatusCode(500).end("Failed to fetch job: " + err.getMessage()));
+    }
+
+    // GET /admin/jobs?limit=: newest first
+    public void listJobs(RoutingContext ctx) {
+        int limit;
+        try {
+            limit = Math.min(500, Math.max(1, Integer.parseInt(ctx.request().getParam("limit", "50"))));
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid limit.");
+            return;
+        }
+        Tracing.query(client, RECENT_JOBS_SQL, Tuple.of(limit))
+            .onSuccess(rows -> {
+                JsonArray jobs = new JsonArray();
+                for (Row row : rows) {
+                    jobs.add(toJson(row));
+                }
+                ctx.response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(new JsonObject().put("jobs", jobs).encode());
+            })
+            .onFailure(err -> ctx.response().setStatusCode(500).end("Failed to fetch jobs: " + err.getMessage()));
+    }
+
+    // POST /admin/jobs/recompute-status {"project_ids": [...]}; without project_ids every project
+    public void enqueueRecompute(RoutingContext ctx) {
+        JsonObject body = ctx.body().asJsonObject();
+        Object ids = body != null ? body.getValue("project_ids") : null;
+        if (ids != null && !(ids instanceof JsonArray && ((JsonArray) ids).stream().allMatch(id -> id instanceof Integer))) {
+            ctx.response().setStatusCode(400).end("project_ids must be an array of integers");
+            return;
+        }
+        JsonArray projectIds = (JsonArray) ids;
+        JsonObject payload = new JsonObject();
+        if (projectIds != null) {
+            payload.put("project_ids", projectIds);
+        }
+        accepted(ctx, enqueue(RECOMPUTE_STATUS, payload, projectIds == null ? RECOMPUTE_STATUS : null));
+    }
+
+    // POST /admin/jobs/reindex {"tables": [...]}; defaults to tasks
+    public void enqueueReindex(RoutingContext ctx) {
+        JsonObject body = ctx.body().asJsonObject();
+        JsonArray tables = body != null ? body.getJsonArray("tables", new JsonArray().add("tasks")) : new JsonArray().add("tasks");
+        for (Object table : tables) {
+            if (!REINDEX_TABLES.contains(table)) {
+                ctx.response().setStatusCode(400).end("tables must be some of " + REINDEX_TABLES);
+                return;
+            }
+        }
+        accepted(ctx, enqueue(REINDEX, new JsonObject().put("tables", tables), REINDEX + ":" + tables.encode()));
+    }
+
+    // 202 with the job's status URL
+    static void accepted(RoutingContext ctx, Future<Long> job) {
+        job.onSuccess(id -> ctx.response()
+                .setStatusCode(202)
+                .putHeader("Location", "/jobs/" + id)
+                .putHeader("Content-Type", "application/json")
+                .end(new JsonObject().put("job_id", id).put("status_url", "/jobs/" + id).encode()))
+            .onFailure(err -> ctx.response().setStatusCode(500).end("Failed to schedule job: " + err.getMessage()));
+    }
+
+    // Claims jobs until every worker slot is busy or nothing is runnable. Runs on the verticle's
+    // event loop, so the slot count needs no more than the atomic.
+    private void fill() {
+        if (stopped || active.get() >= concurrency) {
+            return;
+        }
+        active.incrementAndGet();
+        Tracing.query(client, CLAIM_JOB_SQL, Tuple.of(workerId, leaseSeconds))
+            .onComplete(ar -> {
+                if (ar.failed() || ar.result().rowCount() == 0) {
+                    if (ar.failed()) {
+                        System.out.println("❌ Failed to claim a job: " + ar.cause().getMessage());
+                    }
+                    active.decrementAndGet();
+                    return;
+                }
+                Job job = new Job(ar.result().iterator().next());
+                System.out.println("⏳ Job " + job.id + " (" + job.type + ") started, attempt " + job.attempts + ".");
+                run(job).onComplete(done -> {
+                    active.decrementAndGet();
+                    fill();
+                });
+                // A job was runnable, so there may be more for the remaining slots
+                fill();
+            });
+    }
+
+    // Runs steps until the job is done, saving progress after each; failures are recorded for retry
+    private Future<Void> run(Job job) {
+        return withLease(job, step(job))
+            .compose(done -> {
+                if (done) {
+                    return Tracing.query(client, COMPLETE_JOB_SQL, Tuple.of(job.id, job.progress, workerId))
+                        .onSuccess(rows -> {
+                            System.out.println("✅ Job " + job.id + " (" + job.type + ") finished: " + job.progress.encode());
+                            finished(job);
+                        })
+                        .<Void>mapEmpty();
+                }
+                return Tracing.query(client, SAVE_PROGRESS_SQL, Tuple.of(job.id, job.progress, leaseSeconds, workerId))
+                    .compose(rows -> {
+                        if (rows.rowCount() == 0 || stopped) {
+                            // Lease lost or shutting down: whoever claims it next resumes from the saved progress
+                            return Future.<Void>succeededFuture();
+                        }
+                        Promise<Void> paused = Promise.promise();
+                        vertx.setTimer(Math.max(1, pauseMs), id -> paused.complete());
+                        return paused.future().compose(v -> run(job));
+                    });
+            })
+            .recover(err -> {
+                System.out.println("❌ Job " + job.id + " (" + job.type + ") failed: " + err.getMessage());
+                // 2s, 4s, 8s, ... capped at an hour; ignored once the last attempt has failed
+                int backoffSeconds = Math.min(3600, 1 << Math.min(12, job.attempts));
+                return Tracing.query(client, FAIL_JOB_SQL, Tuple.of(job.id, String.valueOf(err.getMessage()), backoffSeconds, workerId))
+                    .<Void>mapEmpty()
+                    .otherwiseEmpty();
+            });
+    }
+
+    // Keeps the lease alive while a long step (such as a REINDEX) runs
+    private <T> Future<T> withLease(Job job, Future<T> step) {
+        long renewal = vertx.setPeriodic(Math.max(1000L, leaseSeconds * 1000L / 3), id ->
+            Tracing.query(client, RENEW_LEASE_SQL, Tuple.of(job.id, leaseSeconds, workerId)));
+        return step.onComplete(ar -> vertx.cancelTimer(renewal));
+    }
+
+    // One batch of work. Returns true once the job is complete.
+    private Future<Boolean> step(Job job) {
+        switch (job.type) {
+            case DELETE_PROJECT:
+                return deleteProjectStep(job);
+            case RECOMPUTE_STATUS:
+                return recomputeStep(job);
+            case REINDEX:
+                return reindexStep(job);
+            default:
+                return Future.failedFuture("Unknown job type " + job.type);
+        }
+    }
+
+    // Tasks go first in batches so no single statement holds many row locks, then the project itself.
+    // The final transaction deletes tasks once more: any created after the last batch go with the project.
+    private Future<Boolean> deleteProjectStep(Job job) {
+        int projectId = job.payload.getInteger("project_id");
+        if (!"project".equals(job.progress.getString("phase"))) {
+            return Tracing.query(client, DELETE_TASK_BATCH_SQL, Tuple.of(projectId, batchSize))
+                .map(rows -> {
+                    job.progress.put("tasks_deleted", job.progress.getLong("tasks_deleted", 0L) + rows.rowCount());
+                    if (rows.rowCount() < batchSize) {
+                        job.progress.put("phase", "project");
+                    }
+                    return false;
+                });
+        }
+        // Counted once committed: tasks deleted by this transaction, projects deleted
+        return client.withTransaction(conn -> Tracing.query(conn, DELETE_PROJECT_TASKS_SQL, Tuple.of(projectId))
+                .compose(tasks -> Tracing.query(conn, DELETE_PROJECT_BUCKETS_SQL, Tuple.of(projectId))
+                    .compose(v -> Tracing.query(conn, DELETE_PROJECT_SQL, Tuple.of(projectId)))
+                    .map(project -> new int[] { tasks.rowCount(), project.rowCount() })))
+            .map(counts -> {
+                job.progress.put("tasks_deleted", job.progress.getLong("tasks_deleted", 0L) + counts[0]);
+                job.progress.put("project_deleted", counts[1] > 0);
+                return true;
+            });
+    }
+
+    // Given project_ids walks that list, otherwise every project by id; one page of projects per step
+    private Future<Boolean> recomputeStep(Job job) {
+        JsonArray projectIds = job.payload.getJsonArray("project_ids");
+        Future<List<Integer>> page;
+        if (projectIds != null) {
+            int offset = job.progress.getInteger("offset", 0);
+            List<Integer> ids = new ArrayList<>();
+            for (int i = offset; i < projectIds.size() && ids.size() < batchSize; i++) {
+                ids.add(projectIds.getInteger(i));
+            }
+            job.progress.put("offset", offset + ids.size());
+            page = Future.succeededFuture(ids);
+        } else {
+            page = Tracing.query(client, PROJECT_ID_PAGE_SQL, Tuple.of(job.progress.getInteger("last_project_id", 0), batchSize))
+                .map(rows -> {
+                    List<Integer> ids = new ArrayList<>();
+                    for (Row row : rows) {
+                        ids.add(row.getInteger("id"));
+                    }
+                    return ids;
+                });
+        }
+        return page.compose(ids -> {
+            Future<Void> chain = Future.succeededFuture();
+            for (Integer projectId : ids) {
+                chain = chain.compose(v -> tasks.refreshProjectStatus(projectId));
+            }
+            return chain.map(v -> {
+                if (!ids.isEmpty()) {
+                    job.progress.put("last_project_id", ids.get(ids.size() - 1));
+                }
+                job.progress.put("projects_done", job.progress.getInteger("projects_done", 0) + ids.size());
+                return ids.size() < batchSize;
+            });
+        });
+    }
+
+    // One table per step. CONCURRENTLY keeps the table writable while its indexes are rebuilt.
+    private Future<Boolean> reindexStep(Job job) {
+        JsonArray tables = job.payload.getJsonArray("tables");
+        int next = job.progress.getInteger("tables_done", 0);
+        if (next >= tables.size()) {
+            return Future.succeededFuture(true);
+        }
+        String table = tables.getString(next);
+        if (!REINDEX_TABLES.contains(table)) {
+            return Future.failedFuture("Table " + table + " cannot be reindexed");
+        }
+        return client.query("REINDEX TABLE CONCURRENTLY " + table).execute()
+            .map(rows -> {
+                job.progress.put("tables_done", next + 1);
+                return next + 1 >= tables.size();
+            });
+    }
+
+    // Work done in SQL bypasses the repositories, so in-memory task indexes are told about it
+    private void finished(Job job) {
+        if (DELETE_PROJECT.equals(job.type)) {
+            vertx.eventBus().publish(TaskIndex.ADDRESS, new JsonObject().put("removed_project", job.payload.getInteger("project_id")));
+        } else if (REINDEX.equals(job.type) && job.payload.getJsonArray("tables").contains("tasks")) {
+            vertx.eventBus().publish(TaskIndex.ADDRESS, new JsonObject().put("reload", true));
+        }
+    }
+
+    private static JsonObject toJson(Row row) {
+        return new JsonObject()
+            .put("id", row.getLong("id"))
+            .put("type", row.getString("type"))
+            .put("state", row.getString("state"))
+            .put("attempts", row.getInteger("attempts"))
+            .put("max_attempts", row.getInteger("max_attempts"))
+            .put("payload", row.getJsonObject("payload"))
+            .put("progress", row.getJsonObject("progress"))
+            .put("error", row.getString("error"))
+            .put("created_at", timestamp(row.getOffsetDateTime("created_at")))
+            .put("started_at", timestamp(row.getOffsetDateTime("started_at")))
+            .put("finished_at", timestamp(row.getOffsetDateTime("finished_at")))
+            .put("run_after", timestamp(row.getOffsetDateTime("run_after")));
+    }
+
+    private static String timestamp(OffsetDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+}
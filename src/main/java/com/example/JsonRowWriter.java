@@ -0,0 +1,306 @@
+package com.example;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Streams repository results straight into a response Buffer as JSON, without building JsonObject/JsonArray trees.
+// The output is byte-for-byte what the JsonObject version produced (same field order, same date format).
+public final class JsonRowWriter {
+
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        void write(T row, Buffer out);
+    }
+
+    // Rough bytes per row, used to size the buffer once instead of growing it
+    private static final int TASK_ROW_BYTES = 192;
+    private static final int PROJECT_ROW_BYTES = 160;
+    private static final int USER_ROW_BYTES = 96;
+
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] PROJECTS_PREFIX = bytes("{\"projects\":");
+    private static final byte[] USERS_PREFIX = bytes("{\"users\":");
+    private static final byte[] CURSOR_PREFIX = bytes("{\"cursor\":\"");
+    private static final byte[] CHANGED_TASKS = bytes("\",\"tasks\":");
+    private static final byte[] REMOVED = bytes(",\"deleted\":");
+    private static final byte[] REASON = field("reason", false);
+
+    private static final byte[] ID = field("id", true);
+    private static final byte[] PROJECT_ID = field("project_id", false);
+    private static final byte[] NAME = field("name", false);
+    private static final byte[] DESCRIPTION = field("description", false);
+    private static final byte[] STATUS = field("status", false);
+    private static final byte[] ASSIGNED_TO = field("assigned_to", false);
+    private static final byte[] CREATED_AT = field("created_at", false);
+    private static final byte[] PROGRESS = field("progress", false);
+    private static final byte[] DUE_DATE = field("due_date", false);
+    private static final byte[] USERNAME = field("username", false);
+    private static final byte[] EMAIL = field("email", false);
+    private static final byte[] ROLE = field("role", false);
+
+    public static final RowWriter<Task> TASK = (task, out) -> {
+        out.appendBytes(ID);
+        writeInt(out, task.id());
+        out.appendBytes(PROJECT_ID);
+        writeInt(out, task.projectId());
+        out.appendBytes(NAME);
+        writeString(out, task.name());
+        out.appendBytes(DESCRIPTION);
+        writeString(out, task.description());
+        out.appendBytes(STATUS);
+        writeString(out, task.status());
+        out.appendBytes(ASSIGNED_TO);
+        writeInt(out, task.assignedTo());
+        out.appendBytes(CREATED_AT);
+        writeDateTime(out, task.createdAt());
+        out.appendBytes(PROGRESS);
+        writeInt(out, task.progress());
+        out.appendBytes(DUE_DATE);
+        writeDate(out, task.dueDate());
+        out.appendByte((byte) '}');
+    };
+
+    public static final RowWriter<Project> PROJECT = (project, out) -> {
+        out.appendBytes(ID);
+        writeInt(out, project.id());
+        out.appendBytes(NAME);
+        writeString(out, project.name());
+        out.appendBytes(DESCRIPTION);
+        writeString(out, project.description());
+        out.appendBytes(STATUS);
+        writeString(out, project.status());
+        out.appendBytes(CREATED_AT);
+        writeDateTime(out, project.createdAt());
+        out.appendByte((byte) '}');
+    };
+
+    public static final RowWriter<User> USER = (user, out) -> {
+        out.appendBytes(ID);
+        writeInt(out, user.id());
+        out.appendBytes(USERNAME);
+        writeString(out, user.username());
+        out.appendBytes(EMAIL);
+        writeString(out, user.email());
+        out.appendBytes(ROLE);
+        writeString(out, user.role());
+        out.appendByte((byte) '}');
+    };
+
+    public static final RowWriter<TaskChanges.Removal> REMOVAL = (removal, out) -> {
+        out.appendBytes(ID);
+        writeInt(out, removal.taskId());
+        out.appendBytes(PROJECT_ID);
+        writeInt(out, removal.projectId());
+        out.appendBytes(REASON);
+        writeString(out, removal.reason());
+        out.appendByte((byte) '}');
+    };
+
+    private JsonRowWriter() {
+    }
+
+    // [task, ...]
+    public static Buffer tasks(List<Task> tasks) {
+        Buffer out = Buffer.buffer(2 + tasks.size() * TASK_ROW_BYTES);
+        writeArray(out, tasks, TASK);
+        return out;
+    }
+
+    // {"cursor":"...","tasks":[task, ...],"deleted":[removal, ...]}
+    public static Buffer taskChanges(TaskChanges changes) {
+        Buffer out = Buffer.buffer(64 + changes.tasks().size() * TASK_ROW_BYTES + changes.removed().size() * 48);
+        out.appendBytes(CURSOR_PREFIX);
+        out.appendString(Long.toString(changes.cursor()));
+        out.appendBytes(CHANGED_TASKS);
+        writeArray(out, changes.tasks(), TASK);
+        out.appendBytes(REMOVED);
+        writeArray(out, changes.removed(), REMOVAL);
+        return out.appendByte((byte) '}');
+    }
+
+    // {"projects":[project, ...]}
+    public static Buffer projects(List<Project> projects) {
+        Buffer out = Buffer.buffer(PROJECTS_PREFIX.length + 3 + projects.size() * PROJECT_ROW_BYTES);
+        out.appendBytes(PROJECTS_PREFIX);
+        writeArray(out, projects, PROJECT);
+        return out.appendByte((byte) '}');
+    }
+
+    // {"users":[user, ...]}
+    public static Buffer users(List<User> users) {
+        Buffer out = Buffer.buffer(USERS_PREFIX.length + 3 + users.size() * USER_ROW_BYTES);
+        out.appendBytes(USERS_PREFIX);
+        writeArray(out, users, USER);
+        return out.appendByte((byte) '}');
+    }
+
+    public static <T> void writeArray(Buffer out, Iterable<T> rows, RowWriter<T> writer) {
+        out.appendByte((byte) '[');
+        boolean first = true;
+        for (T row : rows) {
+            if (!first) {
+                out.appendByte((byte) ',');
+            }
+            writer.write(row, out);
+            first = false;
+        }
+        out.appendByte((byte) ']');
+    }
+
+    static void writeInt(Buffer out, Integer value) {
+        if (value == null) {
+            out.appendBytes(NULL);
+            return;
+        }
+        int v = value;
+        if (v == Integer.MIN_VALUE) {
+            out.appendString("-2147483648");
+            return;
+        }
+        if (v < 0) {
+            out.appendByte((byte) '-');
+            v = -v;
+        }
+        int divisor = 1;
+        while (v / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.appendByte((byte) ('0' + v / divisor % 10));
+        }
+    }
+
+    static void writeString(Buffer out, String value) {
+        if (value == null) {
+            out.appendBytes(NULL);
+            return;
+        }
+        out.appendByte((byte) '"');
+        int length = value.length();
+        int clean = 0;
+        // Fast path: plain ASCII with nothing to escape goes in byte by byte
+        while (clean < length) {
+            char c = value.charAt(clean);
+            if (c >= 0x80 || c < 0x20 || c == '"' || c == '\\') {
+                break;
+            }
+            clean++;
+        }
+        if (clean == length) {
+            for (int i = 0; i < length; i++) {
+                out.appendByte((byte) value.charAt(i));
+            }
+        } else {
+            for (int i = 0; i < clean; i++) {
+                out.appendByte((byte) value.charAt(i));
+            }
+            writeEscaped(out, value, clean);
+        }
+        out.appendByte((byte) '"');
+    }
+
+    // Same escaping as Jackson's default: quotes, backslash and control characters
+    private static void writeEscaped(Buffer out, String value, int from) {
+        StringBuilder escaped = new StringBuilder(value.length() - from + 16);
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': escaped.append("\\\""); break;
+                case '\\': escaped.append("\\\\"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '\b': escaped.append("\\b"); break;
+                case '\f': escaped.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        out.appendString(escaped.toString());
+    }
+
+    // Matches LocalDateTime.toString(): yyyy-MM-ddTHH:mm[:ss[.SSS[SSS[SSS]]]]
+    static void writeDateTime(Buffer out, LocalDateTime value) {
+        if (value == null) {
+            out.appendBytes(NULL);
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            out.appendByte((byte) '"').appendString(value.toString()).appendByte((byte) '"');
+            return;
+        }
+        out.appendByte((byte) '"');
+        writeDateDigits(out, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        out.appendByte((byte) 'T');
+        writeDigits(out, value.getHour(), 2);
+        out.appendByte((byte) ':');
+        writeDigits(out, value.getMinute(), 2);
+        int second = value.getSecond();
+        int nano = value.getNano();
+        if (second > 0 || nano > 0) {
+            out.appendByte((byte) ':');
+            writeDigits(out, second, 2);
+            if (nano > 0) {
+                out.appendByte((byte) '.');
+                if (nano % 1_000_000 == 0) {
+                    writeDigits(out, nano / 1_000_000, 3);
+                } else if (nano % 1_000 == 0) {
+                    writeDigits(out, nano / 1_000, 6);
+                } else {
+                    writeDigits(out, nano, 9);
+                }
+            }
+        }
+        out.appendByte((byte) '"');
+    }
+
+    static void writeDate(Buffer out, LocalDate value) {
+        if (value == null) {
+            out.appendBytes(NULL);
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            out.appendByte((byte) '"').appendString(value.toString()).appendByte((byte) '"');
+            return;
+        }
+        out.appendByte((byte) '"');
+        writeDateDigits(out, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        out.appendByte((byte) '"');
+    }
+
+    private static void writeDateDigits(Buffer out, int year, int month, int day) {
+        writeDigits(out, year, 4);
+        out.appendByte((byte) '-');
+        writeDigits(out, month, 2);
+        out.appendByte((byte) '-');
+        writeDigits(out, day, 2);
+    }
+
+    // Zero-padded, fixed width
+    private static void writeDigits(Buffer out, int value, int width) {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.appendByte((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    // "name": prefixed by '{' for the first field of an object and ',' otherwise
+    private static byte[] field(String name, boolean first) {
+        return bytes((first ? "{" : ",") + "\"" + name + "\":");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
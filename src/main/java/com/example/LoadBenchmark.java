@@ -0,0 +1,251 @@
+package com.example;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Closed-loop HTTP load generator reporting throughput and latency percentiles.
+//
+//   mvn -q compile exec:java -Dexec.mainClass=com.example.LoadBenchmark -Dexec.args="--modes reactive,blocking"
+//
+// With --modes, MainVerticle is deployed in-process once per execution mode and the runs are printed side by side.
+// Without it, an already running server at --url is measured.
+// Options: --url, --paths (comma separated), --concurrency, --duration and --warmup (seconds), --config (JSON file),
+// --storage (postgres or memory, for --modes; memory measures the HTTP and serialisation stack without a database),
+// --protocols (comma separated: http1.1 with one connection per lane, h2 multiplexing the lanes over
+// --h2-connections connections, h2c without TLS, h2 with TLS and ALPN for an https --url) and
+// --compression (true sends Accept-Encoding: gzip, deflate, as browsers do).
+public class LoadBenchmark {
+
+    private static final class Result {
+        final String label;
+        final long[] latencies;
+        final int errors;
+        final double seconds;
+
+        Result(String label, long[] latencies, int errors, double seconds) {
+            this.label = label;
+            this.latencies = latencies;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+    }
+
+    // Latencies of one closed-loop lane; each lane only touches its own array
+    private static final class Lane {
+        long[] latencies = new long[1024];
+        int count;
+        int errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8888"));
+        List<String> paths = Arrays.asList(options.getOrDefault("paths", "/projects,/tasks/1,/tasks/user/1").split(","));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        List<String> protocols = Arrays.asList(options.getOrDefault("protocols", "http1.1").split(","));
+        int h2Connections = Integer.parseInt(options.getOrDefault("h2-connections", "1"));
+        boolean compression = Boolean.parseBoolean(options.getOrDefault("compression", "false"));
+        JsonObject baseConfig = options.containsKey("config")
+            ? new JsonObject(Files.readString(Path.of(options.get("config"))))
+            : new JsonObject();
+
+        Vertx vertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+        List<Result> results = new ArrayList<>();
+        try {
+            if (!options.containsKey("modes")) {
+                for (String protocol : protocols) {
+                    HttpClientOptions client = clientOptions(url, protocol, concurrency, h2Connections, compression);
+                    results.add(run(vertx, client, paths, concurrency, warmupSeconds, durationSeconds, protocol));
+                }
+            } else {
+                for (String mode : options.get("modes").split(",")) {
+                    JsonObject config = baseConfig.copy();
+                    JsonObject execution = config.getJsonObject("execution", new JsonObject()).put("mode", mode);
+                    config.put("execution", execution);
+                    if (options.containsKey("storage")) {
+                        config.put("storage", config.getJsonObject("storage", new JsonObject()).copy().put("engine", options.get("storage")));
+                    }
+
+                    String deploymentId = await(vertx.deployVerticle(new MainVerticle(), new DeploymentOptions().setConfig(config)));
+                    try {
+                        awaitReady(vertx, url);
+                        for (String protocol : protocols) {
+                            HttpClientOptions client = clientOptions(url, protocol, concurrency, h2Connections, compression);
+                            results.add(run(vertx, client, paths, concurrency, warmupSeconds, durationSeconds, mode + "/" + protocol));
+                        }
+                    } finally {
+                        await(vertx.undeploy(deploymentId));
+                    }
+                }
+            }
+        } finally {
+            await(vertx.close());
+        }
+
+        System.out.printf("%n%-20s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+            "run", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Result result : results) {
+            long[] sorted = result.latencies;
+            Arrays.sort(sorted);
+            System.out.printf("%-20s %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                result.label, sorted.length, result.errors, sorted.length / result.seconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static HttpClientOptions clientOptions(URI url, String protocol, int concurrency, int h2Connections, boolean compression) {
+        boolean tls = "https".equals(url.getScheme());
+        HttpClientOptions options = new HttpClientOptions()
+            .setDefaultHost(url.getHost())
+            .setDefaultPort(url.getPort())
+            .setSsl(tls)
+            .setTrustAll(tls)
+            .setVerifyHost(false)
+            .setTryUseCompression(compression)
+            .setKeepAlive(true);
+        switch (protocol) {
+            case "http1.1":
+                return options.setProtocolVersion(HttpVersion.HTTP_1_1).setMaxPoolSize(concurrency);
+            case "h2":
+            case "h2c":
+                // h2c with prior knowledge, like a client that already knows the server speaks HTTP/2
+                return options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(tls)
+                    .setHttp2ClearTextUpgrade(false)
+                    .setHttp2MaxPoolSize(h2Connections)
+                    .setHttp2MultiplexingLimit((concurrency + h2Connections - 1) / h2Connections);
+            default:
+                throw new IllegalArgumentException("Unknown protocol " + protocol + ", expected http1.1, h2 or h2c");
+        }
+    }
+
+    private static Result run(Vertx vertx, HttpClientOptions options, List<String> paths, int concurrency, int warmupSeconds,
+                              int durationSeconds, String label) throws Exception {
+        HttpClient http = vertx.createHttpClient(options);
+        try {
+            System.out.println("⏱️ " + label + ": warming up for " + warmupSeconds + " s");
+            drive(http, paths, concurrency, warmupSeconds);
+
+            System.out.println("⏱️ " + label + ": measuring for " + durationSeconds + " s with " + concurrency + " concurrent requests");
+            long started = System.nanoTime();
+            List<Lane> lanes = drive(http, paths, concurrency, durationSeconds);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            int total = lanes.stream().mapToInt(lane -> lane.count).sum();
+            long[] latencies = new long[total];
+            int offset = 0;
+            int errors = 0;
+            for (Lane lane : lanes) {
+                System.arraycopy(lane.latencies, 0, latencies, offset, lane.count);
+                offset += lane.count;
+                errors += lane.errors;
+            }
+            return new Result(label, latencies, errors, seconds);
+        } finally {
+            await(http.close());
+        }
+    }
+
+    private static List<Lane> drive(HttpClient http, List<String> paths, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Lane> lanes = new ArrayList<>();
+        List<Future<Void>> done = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Lane lane = new Lane();
+            lanes.add(lane);
+            Promise<Void> finished = Promise.promise();
+            next(http, paths, lane, i, deadline, finished);
+            done.add(finished.future());
+        }
+        for (Future<Void> future : done) {
+            await(future);
+        }
+        return lanes;
+    }
+
+    private static void next(HttpClient http, List<String> paths, Lane lane, int n, long deadline, Promise<Void> finished) {
+        long started = System.nanoTime();
+        if (started >= deadline) {
+            finished.complete();
+            return;
+        }
+        http.request(HttpMethod.GET, paths.get(n % paths.size()))
+            .compose(request -> request.send())
+            .compose(response -> response.body().map(body -> response.statusCode()))
+            .onComplete(ar -> {
+                lane.record(System.nanoTime() - started);
+                if (ar.failed() || ar.result() >= 500) {
+                    lane.errors++;
+                }
+                next(http, paths, lane, n + 1, deadline, finished);
+            });
+    }
+
+    private static void awaitReady(Vertx vertx, URI url) throws Exception {
+        boolean tls = "https".equals(url.getScheme());
+        HttpClient http = vertx.createHttpClient(new HttpClientOptions().setDefaultHost(url.getHost()).setDefaultPort(url.getPort())
+            .setSsl(tls).setTrustAll(tls).setVerifyHost(false));
+        try {
+            for (int attempt = 0; attempt < 600; attempt++) {
+                Integer status = await(http.request(HttpMethod.GET, "/health/ready")
+                    .compose(request -> request.send())
+                    .map(response -> response.statusCode())
+                    .otherwise(-1));
+                if (status == 200) {
+                    return;
+                }
+                Thread.sleep(100);
+            }
+            throw new IllegalStateException("Server did not become ready");
+        } finally {
+            await(http.close());
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
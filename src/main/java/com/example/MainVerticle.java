@@ -1,38 +1,128 @@
 package com.example;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.handler.CorsHandler;
 import io.vertx.ext.web.handler.JWTAuthHandler;
 import io.vertx.ext.auth.jwt.JWTAuth;
 import io.vertx.ext.auth.jwt.JWTAuthOptions;
 import io.vertx.ext.auth.PubSecKeyOptions;
+import io.vertx.ext.auth.authentication.TokenCredentials;
 import io.vertx.pgclient.PgPool;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+
+import org.mindrot.jbcrypt.BCrypt;
 
 public class MainVerticle extends AbstractVerticle {
+    private DatabaseConnector db;
     private PgPool client;
+    private JdbcPool jdbc;
+    private BlockingExecutor blockingExecutor;
+    private TaskImporter taskImporter;
+    private JobScheduler jobScheduler;
+    private Profiler profiler;
 
     @Override
     public void start(Promise<Void> startPromise) {
+        // "postgres" (default) or "memory": the in-memory engine needs no database and keeps nothing across restarts
+        JsonObject storageConfig = config().getJsonObject("storage", new JsonObject());
+        boolean memoryStorage = "memory".equals(storageConfig.getString("engine", "postgres"));
+
         // DatabaseConnector to establish DB connection
-        client = DatabaseConnector.connect(vertx);
+        if (!memoryStorage) {
+            db = DatabaseConnector.connect(vertx, config().getJsonObject("db", new JsonObject()));
+            client = db.primary();
+        }
 
-        client.query("SELECT 1")
-        .execute()
-        .onSuccess(res -> System.out.println("✅ Database test query succeeded."))
-        .onFailure(err -> System.out.println("❌ Database test query failed: " + err.getMessage()));
-    
-        
+        // "reactive" (PgPool callbacks, default) or "blocking" (JDBC on virtual/worker threads)
+        JsonObject executionConfig = config().getJsonObject("execution", new JsonObject());
+        boolean blockingMode = "blocking".equals(executionConfig.getString("mode", "reactive"));
+        if (blockingMode && memoryStorage) {
+            System.out.println("⚠️ Blocking execution mode needs Postgres, using reactive handlers with in-memory storage.");
+            blockingMode = false;
+        }
+        if (blockingMode) {
+            jdbc = JdbcPool.create(config().getJsonObject("db", new JsonObject()), executionConfig.getInteger("jdbcPoolSize", 20));
+            blockingExecutor = new BlockingExecutor(vertx, executionConfig.getInteger("threads", 64));
+        }
+        System.out.println("✅ Handler execution mode: " + (blockingMode ? "blocking" : "reactive"));
+
+        TaskRepository taskRepository;
+        ProjectRepository projectRepository;
+        UserRepository userRepository;
+        TaskDependencyRepository dependencyRepository;
+        if (memoryStorage) {
+            InMemoryStore store = new InMemoryStore();
+            taskRepository = store.tasks();
+            projectRepository = store.projects();
+            userRepository = store.users();
+            dependencyRepository = store.dependencies();
+            seedAdmin(userRepository, storageConfig.getJsonObject("admin"));
+            JsonObject seed = storageConfig.getJsonObject("seed");
+            if (seed != null) {
+                store.seed(seed.getInteger("projects", 0), seed.getInteger("tasksPerProject", 0), seed.getInteger("users", 0));
+            }
+        } else {
+            taskRepository = new PgTaskRepository(db);
+            // Hourly pruning of the delta-sync tombstones
+            new TaskTombstones(vertx, client, config().getJsonObject("sync", new JsonObject()));
+            projectRepository = new PgProjectRepository(db);
+            userRepository = new PgUserRepository(db);
+            dependencyRepository = new PgTaskDependencyRepository(db);
+        }
+        System.out.println("✅ Storage engine: " + (memoryStorage ? "memory" : "postgres"));
+
+        // Optional in-memory read model for the project and assignee task lists
+        JsonObject indexConfig = config().getJsonObject("taskIndex", new JsonObject());
+        TaskIndex taskIndex = null;
+        if (indexConfig.getBoolean("enabled", false)) {
+            if (memoryStorage || blockingMode) {
+                System.out.println("⚠️ The task index needs Postgres storage and reactive handlers, not enabling it.");
+            } else {
+                taskIndex = new TaskIndex(client, indexConfig);
+                taskRepository = new IndexedTaskRepository(vertx, taskRepository, taskIndex);
+            }
+        }
+
+        // Blocked-by relations between tasks and each project's critical path, kept current in memory
+        TaskGraphs taskGraphs = new TaskGraphs(vertx, taskRepository, dependencyRepository, config().getJsonObject("dependencies", new JsonObject()));
+        taskRepository = taskGraphs.track(taskRepository);
+
+        // Statement preparation and JIT warm-up, run once the server is listening
+        StartupWarmup warmup = new StartupWarmup(vertx, db, config().getJsonObject("warmup", new JsonObject()));
+
+        // Per-request traces with query-level spans, off unless tracing.enabled
+        Tracing.configure(vertx, config().getJsonObject("tracing"));
+        SlowQueryLog.configure(config().getJsonObject("slowQueries"));
 
         // Router Setup
         Router router = Router.router(vertx);
-        router.route().handler(BodyHandler.create());
+        router.route().handler(Tracing::handler);
+        // JFR recordings and event-loop stall sampling on demand (see /admin/profiling)
+        profiler = new Profiler(vertx, config().getJsonObject("profiling", new JsonObject()));
+        router.route().handler(profiler::track);
+        JsonObject serverConfig = config().getJsonObject("server", new JsonObject());
+        int minCompressBytes = HttpTuning.minCompressBytes(serverConfig);
+        router.route().handler(ctx -> HttpTuning.compressionThreshold(ctx, minCompressBytes));
+        router.route().handler(new BodyPolicy(config().getJsonObject("body", new JsonObject())));
         router.route().handler(CorsHandler.create("*").allowedMethod(io.vertx.core.http.HttpMethod.GET).allowedMethod(io.vertx.core.http.HttpMethod.POST).allowedMethod(io.vertx.core.http.HttpMethod.PUT).allowedMethod(io.vertx.core.http.HttpMethod.DELETE).allowedMethod(io.vertx.core.http.HttpMethod.PATCH).allowedMethod(io.vertx.core.http.HttpMethod.OPTIONS));
 
+        // Health checks: readiness only turns green after warm-up
+        router.get("/health/live").handler(ctx -> ctx.response().end("OK"));
+        router.get("/health/ready").handler(warmup::readiness);
+
+        // Task activity/audit log, written in batches in the background
+        ActivityLog activityLog = new ActivityLog(vertx, db, config().getJsonObject("activity", new JsonObject()));
+
+        ProgressHistory progressHistory = memoryStorage ? null : new ProgressHistory(db);
+
         // JWT Auth Setup
         JWTAuth jwtAuth = JWTAuth.create(vertx, new JWTAuthOptions()
             .addPubSecKey(new PubSecKeyOptions()
@@ -40,15 +130,24 @@ public class MainVerticle extends AbstractVerticle {
                 .setBuffer("supersecretkey")));
 
 
+        // Revoked users/tokens, checked in memory after every JWT validation
+        JsonObject authConfig = config().getJsonObject("auth", new JsonObject());
+        int tokenTtlMinutes = authConfig.getInteger("tokenTtlMinutes", 24 * 60);
+        TokenRevocationList revocations = new TokenRevocationList(vertx, client, tokenTtlMinutes * 60L);
+
         // Authentication Routes
-        AuthenticationHandler authHandler = new AuthenticationHandler(vertx, jwtAuth, client);
+        AuthenticationHandler authHandler = blockingMode
+            ? new BlockingAuthenticationHandler(vertx, jwtAuth, db, revocations, tokenTtlMinutes, jdbc, blockingExecutor)
+            : new AuthenticationHandler(vertx, jwtAuth, userRepository, revocations, tokenTtlMinutes);
         router.post("/auth/register").handler(authHandler::register);
         router.post("/auth/login").handler(authHandler::login);
+        router.post("/auth/logout").handler(JWTAuthHandler.create(jwtAuth)).handler(revocations::check).handler(authHandler::logout);
 
         router.route("/users*").handler(ctx -> {
             System.out.println("Request Headers: " + ctx.request().headers());
             JWTAuthHandler.create(jwtAuth).handle(ctx);
         });
+        router.route("/users*").handler(revocations::check);
         router.get("/users").handler(routingContext -> {
             System.out.println("Accessing /users route");
             authHandler.getAllUsers(routingContext);
@@ -57,6 +156,10 @@ public class MainVerticle extends AbstractVerticle {
             System.out.println("Accessing /users/team-members route");
             authHandler.getTeamMembers(routingContext);
         });
+        router.get("/users/team-members/workload").handler(routingContext -> {
+            System.out.println("Accessing /users/team-members/workload route");
+            authHandler.getTeamMemberWorkload(routingContext);
+        });
         router.get("/users/:id").handler(routingContext -> {
             System.out.println("Accessing /users/:id route");
             authHandler.getUserById(routingContext);
@@ -73,6 +176,7 @@ public class MainVerticle extends AbstractVerticle {
         });
 
         router.route("/profile*").handler(JWTAuthHandler.create(jwtAuth)); // Protect both GET and PUT under /profile
+        router.route("/profile*").handler(revocations::check);
 
 
         router.get("/profile").handler(routingContext -> {
@@ -88,10 +192,67 @@ public class MainVerticle extends AbstractVerticle {
         
 
         router.route("/api/*").handler(JWTAuthHandler.create(jwtAuth));
+        router.route("/api/*").handler(revocations::check);
+
+        // Admin-only endpoints
+        router.route("/admin/*").handler(JWTAuthHandler.create(jwtAuth));
+        router.route("/admin/*").handler(revocations::check);
+        router.route("/admin/*").handler(ctx -> checkRole(ctx, "ADMIN", "admin"));
+        router.get("/admin/metrics/activity").handler(ctx -> ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .end(activityLog.metrics().encode()));
+        router.get("/admin/slow-queries").handler(SlowQueryLog::list);
+        router.post("/admin/profiling/jfr/start").handler(profiler::startRecording);
+        router.post("/admin/profiling/jfr/stop").handler(profiler::stopRecording);
+        router.get("/admin/profiling/jfr").handler(profiler::recordingStatus);
+        router.post("/admin/profiling/stalls/start").handler(profiler::startStalls);
+        router.post("/admin/profiling/stalls/stop").handler(profiler::stopStalls);
+        router.get("/admin/profiling/stalls").handler(profiler::stallReport);
+        router.delete("/admin/profiling/stalls").handler(profiler::resetStalls);
+        if (taskIndex != null) {
+            TaskIndex index = taskIndex;
+            router.get("/admin/metrics/task-index").handler(ctx -> ctx.response()
+                .putHeader("Content-Type", "application/json")
+                .end(index.metrics().encode()));
+            router.post("/admin/task-index/rebuild").handler(ctx -> {
+                vertx.eventBus().publish(TaskIndex.ADDRESS, new JsonObject().put("reload", true));
+                ctx.response().setStatusCode(202).end("Task index rebuild started.");
+            });
+        }
+
+        // Background jobs for project deletion, status recomputes and reindexing, on their own small pool
+        JsonObject jobsConfig = config().getJsonObject("jobs", new JsonObject());
+        if (!memoryStorage && jobsConfig.getBoolean("enabled", true)) {
+            jobScheduler = new JobScheduler(vertx, db, jobsConfig);
+            // Polled by whoever got the 202, so it is open like the /projects routes that return it
+            router.get("/jobs/:id").handler(jobScheduler::getJob);
+            router.get("/admin/jobs").handler(jobScheduler::listJobs);
+            router.post("/admin/jobs/recompute-status").handler(jobScheduler::enqueueRecompute);
+            router.post("/admin/jobs/reindex").handler(jobScheduler::enqueueReindex);
+        }
+
+        // Read-only GraphQL over the same repositories, with per-request batched loading
+        JsonObject graphqlConfig = config().getJsonObject("graphql", new JsonObject());
+        if (graphqlConfig.getBoolean("enabled", true)) {
+            GraphQLApi graphqlApi = new GraphQLApi(vertx, taskRepository, projectRepository, userRepository, graphqlConfig);
+            router.route("/graphql").handler(JWTAuthHandler.create(jwtAuth));
+            router.route("/graphql").handler(revocations::check);
+            router.route("/graphql").handler(graphqlApi.handler());
+        }
+
+        // Bulk task import through COPY, and its progress
+        if (!memoryStorage) {
+            taskImporter = new TaskImporter(vertx, config().getJsonObject("db", new JsonObject()), config().getJsonObject("import", new JsonObject()));
+            router.post(TaskImporter.IMPORT_PATH).handler(taskImporter::importTasks);
+            router.get("/admin/imports").handler(taskImporter::listImports);
+        }
 
         // add the task handler
        // Initialize TaskHandler
-TaskHandler taskHandler = new TaskHandler(client);
+TaskHandler taskHandler = blockingMode ? new BlockingTaskHandler(db, activityLog, jdbc, blockingExecutor, taskGraphs) : new TaskHandler(taskRepository, activityLog);
+
+// Task routes stay open, but a valid bearer token still identifies the actor (activity log, read-your-writes)
+router.route("/tasks*").handler(ctx -> optionalUser(ctx, jwtAuth, revocations));
 
 // Define Task Routes Directly
 router.post("/tasks/:projectId").handler(ctx -> {
@@ -104,6 +265,14 @@ router.get("/tasks/:projectId").handler(ctx -> {
     taskHandler.getTasksByProject(ctx);
 });
 
+// The activity log is only stored in Postgres
+if (!memoryStorage) {
+    router.get("/tasks/:id/history").handler(ctx -> {
+        System.out.println("✅ Route /tasks/:id/history GET triggered");
+        activityLog.getTaskHistory(ctx);
+    });
+}
+
 router.get("/tasks/user/:userId").handler(ctx -> {
     System.out.println("✅ Route /tasks/:userId GET triggered");
     taskHandler.getTasksByUser(ctx);
@@ -137,9 +306,20 @@ router.put("/tasks/:taskId/unassign").handler(ctx -> {
     taskHandler.unassignTask(ctx);
 });
 
+// Blocked-by relations: 409 when the new one would create a cycle
+router.post("/tasks/:id/dependencies").handler(ctx -> {
+    System.out.println("✅ Route /tasks/:id/dependencies POST triggered");
+    taskGraphs.addDependency(ctx);
+});
+
+router.delete("/tasks/:id/dependencies/:dependsOn").handler(ctx -> {
+    System.out.println("✅ Route /tasks/:id/dependencies/:dependsOn DELETE triggered");
+    taskGraphs.removeDependency(ctx);
+});
+
 
 
-ProjectHandler projectHandler = new ProjectHandler(client);
+ProjectHandler projectHandler = blockingMode ? new BlockingProjectHandler(db, jdbc, blockingExecutor, jobScheduler) : new ProjectHandler(projectRepository, jobScheduler);
 // Create a new project (admin or project manager can do this)
 router.post("/projects").handler(ctx -> {
     System.out.println("✅ Route /projects POST triggered");
@@ -153,6 +333,38 @@ router.get("/projects").handler(ctx -> {
     projectHandler.getAllProjects(ctx);
 });
 
+// Portfolio summary for several projects (must be registered before /projects/:id)
+router.get("/projects/summary").handler(ctx -> {
+    System.out.println("✅ Route /projects/summary GET triggered");
+    projectHandler.getPortfolioSummary(ctx);
+});
+
+// Dashboard summary for one project
+router.get("/projects/:id/summary").handler(ctx -> {
+    System.out.println("✅ Route /projects/:id/summary GET triggered");
+    projectHandler.getProjectSummary(ctx);
+});
+
+// Longest chain of blocked-by tasks, by the work they have left
+router.get("/projects/:id/critical-path").handler(ctx -> {
+    System.out.println("✅ Route /projects/:id/critical-path GET triggered");
+    taskGraphs.getCriticalPath(ctx);
+});
+
+if (!memoryStorage) {
+    // Activity feed of all tasks in a project
+    router.get("/projects/:id/activity").handler(ctx -> {
+        System.out.println("✅ Route /projects/:id/activity GET triggered");
+        activityLog.getProjectActivity(ctx);
+    });
+
+    // Burndown series from the daily progress buckets
+    router.get("/projects/:id/burndown").handler(ctx -> {
+        System.out.println("✅ Route /projects/:id/burndown GET triggered");
+        progressHistory.getBurndown(ctx);
+    });
+}
+
 // Get a project by ID  
 router.get("/projects/:id").handler(ctx -> {
     System.out.println("✅ Route /projects/:id GET triggered");
@@ -175,16 +387,92 @@ router.delete("/projects/:id").handler(ctx -> {
 
 
 
-        // Start HTTP Server
-        vertx.createHttpServer().requestHandler(router).listen(8888, http -> {
+        // Start HTTP Server once the schema is up to date and the token revocations are loaded.
+        // Either failing fails the deployment: without the revocations, revoked tokens would work again.
+        Future<Void> migrations = memoryStorage ? Future.succeededFuture() : SchemaMigrations.run(client, config().getJsonObject("partitioning"));
+        TaskIndex startupIndex = taskIndex;
+        migrations.compose(v -> revocations.load())
+            .onFailure(err -> {
+                startPromise.fail(err);
+                System.out.println("❌ Not starting the HTTP server: " + err.getMessage());
+            })
+            .onSuccess(v -> {
+                if (startupIndex != null) {
+                    startupIndex.load();
+                }
+                // Also resumes the jobs that were running when the previous instance stopped
+                if (jobScheduler != null) {
+                    jobScheduler.start();
+                }
+            })
+            .onSuccess(loaded ->
+        vertx.createHttpServer(HttpTuning.serverOptions(vertx, serverConfig)).requestHandler(router).listen(http -> {
             if (http.succeeded()) {
                 startPromise.complete();
-                System.out.println("✅ HTTP server started on port 8888");
+                System.out.println("✅ HTTP server started on port " + http.result().actualPort());
+
+                List<String> statements = new ArrayList<>();
+                statements.addAll(PgTaskRepository.STATEMENTS);
+                statements.addAll(PgProjectRepository.STATEMENTS);
+                statements.addAll(PgUserRepository.STATEMENTS);
+                statements.addAll(TokenRevocationList.STATEMENTS);
+                statements.addAll(ActivityLog.STATEMENTS);
+                statements.addAll(ProgressHistory.STATEMENTS);
+                statements.addAll(TaskIndex.STATEMENTS);
+                statements.addAll(PgTaskDependencyRepository.STATEMENTS);
+                warmup.run(http.result().actualPort(), serverConfig.getJsonObject("tls", new JsonObject()).getBoolean("enabled", false), statements);
             } else {
                 startPromise.fail(http.cause());
                 System.out.println("❌ Failed to start HTTP server: " + http.cause().getMessage());
             }
-        });
+        }));
+    }
+
+    @Override
+    public void stop() {
+        Tracing.close();
+        if (profiler != null) {
+            profiler.close();
+        }
+        if (jobScheduler != null) {
+            jobScheduler.close();
+        }
+        if (taskImporter != null) {
+            taskImporter.close();
+        }
+        if (blockingExecutor != null) {
+            blockingExecutor.close();
+        }
+        if (jdbc != null) {
+            jdbc.close();
+        }
+    }
+
+    // In-memory storage starts empty; storage.admin {"username", "password", "email"} creates the first admin
+    private static void seedAdmin(UserRepository users, JsonObject admin) {
+        if (admin == null) {
+            System.out.println("⚠️ In-memory storage without storage.admin: no user can log in.");
+            return;
+        }
+        String hashedPassword = BCrypt.hashpw(admin.getString("password"), BCrypt.gensalt());
+        users.create(null, new User(null, admin.getString("username"), admin.getString("email"), "ADMIN", hashedPassword))
+            .onSuccess(v -> System.out.println("✅ Seeded admin user " + admin.getString("username") + "."));
+    }
+
+    // Like JWTAuthHandler, but a missing, invalid or revoked token just leaves the request anonymous
+    private static void optionalUser(RoutingContext ctx, JWTAuth jwtAuth, TokenRevocationList revocations) {
+        String authorization = ctx.request().getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            ctx.next();
+            return;
+        }
+        jwtAuth.authenticate(new TokenCredentials(authorization.substring(7).trim()))
+            .onComplete(ar -> {
+                if (ar.succeeded() && !revocations.isRevoked(ar.result().principal())) {
+                    ctx.setUser(ar.result());
+                }
+                ctx.next();
+            });
     }
 
     // Method to check if the user has the required role
@@ -0,0 +1,177 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// ProjectRepository on Postgres
+public class PgProjectRepository implements ProjectRepository {
+
+    private static final String SUMMARY_SQL =
+        "SELECT p.id AS project_id, MAX(p.name) AS name, MAX(p.status) AS status, " +
+        "t.status AS task_status, t.assigned_to, " +
+        "GROUPING(t.status) AS g_status, GROUPING(t.assigned_to) AS g_assignee, " +
+        "COUNT(t.id) AS task_count, AVG(t.progress) AS avg_progress " +
+        "FROM projects p LEFT JOIN tasks t ON t.project_id = p.id " +
+        "WHERE p.id = ANY($1) " +
+        "GROUP BY GROUPING SETS ((p.id, t.status), (p.id, t.assigned_to), (p.id)) " +
+        "ORDER BY p.id";
+
+    private static final String INSERT_PROJECT_SQL = "INSERT INTO projects (name, description, status, created_at) VALUES ($1, $2, $3, NOW()) RETURNING id";
+    private static final String SELECT_PROJECTS_SQL = "SELECT id, name, description, status, created_at FROM projects";
+    private static final String SELECT_PROJECT_SQL = "SELECT id, name, description, status, created_at FROM projects WHERE id = $1";
+    private static final String SELECT_PROJECTS_BY_IDS_SQL = SELECT_PROJECTS_SQL + " WHERE id = ANY($1)";
+    private static final String UPDATE_PROJECT_SQL = "UPDATE projects SET name = COALESCE($1, name), description = COALESCE($2, description), status = COALESCE($3, status) WHERE id = $4";
+    private static final String UPDATE_PROJECT_STATUS_SQL = "UPDATE projects SET status = $1 WHERE id = $2";
+    private static final String SELECT_PROJECT_ID_SQL = "SELECT id FROM projects WHERE id = $1";
+    private static final String DELETE_PROJECT_SQL = "DELETE FROM projects WHERE id = $1";
+
+    // Every statement this repository runs, used by the startup warm-up
+    static final List<String> STATEMENTS = List.of(
+        INSERT_PROJECT_SQL,
+        SELECT_PROJECTS_SQL,
+        SELECT_PROJECT_SQL,
+        SELECT_PROJECTS_BY_IDS_SQL,
+        UPDATE_PROJECT_SQL,
+        UPDATE_PROJECT_STATUS_SQL,
+        SELECT_PROJECT_ID_SQL,
+        DELETE_PROJECT_SQL,
+        SUMMARY_SQL
+    );
+
+    private final DatabaseConnector db;
+    private final PgPool client;
+
+    public PgProjectRepository(DatabaseConnector db) {
+        this.db = db;
+        this.client = db.primary();
+    }
+
+    @Override
+    public Future<Integer> create(RoutingContext ctx, Project project) {
+        return Tracing.query(client, INSERT_PROJECT_SQL, Tuple.of(project.name(), project.description(), project.status()), rows -> {
+                if (rows.rowCount() == 0) {
+                    throw new IllegalStateException("No rows were returned.");
+                }
+                db.markWrite(ctx);
+                return rows.iterator().next().getInteger("id");
+            });
+    }
+
+    @Override
+    public Future<List<Project>> findAll(RoutingContext ctx) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_PROJECTS_SQL, Tuple.tuple(), rows -> {
+                List<Project> projects = new ArrayList<>(rows.size());
+                for (Row row : rows) {
+                    projects.add(toProject(row));
+                }
+                return projects;
+            }));
+    }
+
+    @Override
+    public Future<Project> findById(RoutingContext ctx, int projectId) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_PROJECT_SQL, Tuple.of(projectId), rows -> rows.rowCount() > 0 ? toProject(rows.iterator().next()) : null));
+    }
+
+    @Override
+    public Future<List<Project>> findByIds(RoutingContext ctx, Integer[] projectIds) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_PROJECTS_BY_IDS_SQL, Tuple.of(projectIds), rows -> {
+                List<Project> projects = new ArrayList<>(rows.size());
+                for (Row row : rows) {
+                    projects.add(toProject(row));
+                }
+                return projects;
+            }));
+    }
+
+    @Override
+    public Future<Void> update(RoutingContext ctx, int projectId, String name, String description, String status) {
+        return Tracing.query(client, UPDATE_PROJECT_SQL, Tuple.of(name, description, status, projectId))
+            .<Void>mapEmpty()
+            .onSuccess(v -> db.markWrite(ctx));
+    }
+
+    // Checks existence first so a missing project can be told apart from a failed delete
+    @Override
+    public Future<Boolean> delete(RoutingContext ctx, int projectId) {
+        return Tracing.query(client, SELECT_PROJECT_ID_SQL, Tuple.of(projectId))
+            .compose(rows -> {
+                if (rows.rowCount() == 0) {
+                    return Future.succeededFuture(false);
+                }
+                return Tracing.query(client, DELETE_PROJECT_SQL, Tuple.of(projectId), res -> {
+                        db.markWrite(ctx);
+                        return true;
+                    });
+            });
+    }
+
+    @Override
+    public Future<Void> updateStatus(int projectId, String status) {
+        return Tracing.query(client, UPDATE_PROJECT_STATUS_SQL, Tuple.of(status, projectId))
+            .mapEmpty();
+    }
+
+    // One row per (project, status), (project, assignee) and project total. GROUPING() tells them apart.
+    @Override
+    public Future<JsonArray> summaries(RoutingContext ctx, Integer[] projectIds) {
+        return db.read(ctx, reader -> Tracing.query(reader, SUMMARY_SQL, Tuple.of(projectIds), rows -> {
+                Map<Integer, JsonObject> summaries = new LinkedHashMap<>();
+                for (Row row : rows) {
+                    int projectId = row.getInteger("project_id");
+                    JsonObject summary = summaries.computeIfAbsent(projectId, key -> new JsonObject()
+                        .put("project_id", key)
+                        .put("by_status", new JsonObject())
+                        .put("by_assignee", new JsonArray())
+                        .put("unassigned", 0));
+
+                    long taskCount = row.getLong("task_count");
+                    Double averageProgress = row.getValue("avg_progress") != null
+                        ? row.getNumeric("avg_progress").doubleValue()
+                        : null;
+                    boolean statusGroup = row.getInteger("g_status") == 0;
+                    boolean assigneeGroup = row.getInteger("g_assignee") == 0;
+
+                    if (!statusGroup && !assigneeGroup) {
+                        summary.put("name", row.getString("name"))
+                            .put("status", row.getString("status"))
+                            .put("task_count", taskCount)
+                            .put("average_progress", averageProgress);
+                    } else if (taskCount == 0) {
+                        // LEFT JOIN row of a project without tasks
+                        continue;
+                    } else if (statusGroup) {
+                        String taskStatus = row.getString("task_status");
+                        summary.getJsonObject("by_status").put(taskStatus != null ? taskStatus : "none", taskCount);
+                    } else if (row.getInteger("assigned_to") == null) {
+                        summary.put("unassigned", taskCount);
+                    } else {
+                        summary.getJsonArray("by_assignee").add(new JsonObject()
+                            .put("user_id", row.getInteger("assigned_to"))
+                            .put("task_count", taskCount)
+                            .put("average_progress", averageProgress));
+                    }
+                }
+                return new JsonArray(new ArrayList<>(summaries.values()));
+            }));
+    }
+
+    private static Project toProject(Row row) {
+        return new Project(
+            row.getInteger("id"),
+            row.getString("name"),
+            row.getString("description"),
+            row.getString("status"),
+            row.getLocalDateTime("created_at"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// TaskDependencyRepository on Postgres (task_dependencies, see SchemaMigrations). TaskGraphs
+// checks for cycles in memory first; the insert checks again under a per-project advisory lock,
+// since two instances could each accept half of a cycle.
+public class PgTaskDependencyRepository implements TaskDependencyRepository {
+
+    private static final String SELECT_DEPENDENCIES_SQL = "SELECT task_id, depends_on FROM task_dependencies WHERE project_id = $1";
+    private static final String LOCK_PROJECT_SQL = "SELECT pg_advisory_xact_lock(hashtext('task_dependencies'), $1::int)";
+    // Inserts unless depends_on already waits on task_id, directly or through other tasks. The casts
+    // pin the parameter types: from "$2 <> $3" alone Postgres would infer text.
+    private static final String INSERT_DEPENDENCY_SQL =
+        "INSERT INTO task_dependencies (project_id, task_id, depends_on) " +
+        "SELECT $1::int, $2::int, $3::int WHERE $2::int <> $3::int " +
+        "AND EXISTS (SELECT 1 FROM tasks WHERE id = $2 AND project_id = $1) " +
+        "AND EXISTS (SELECT 1 FROM tasks WHERE id = $3 AND project_id = $1) " +
+        "AND NOT EXISTS (" +
+            "WITH RECURSIVE upstream (id) AS (" +
+                "SELECT depends_on FROM task_dependencies WHERE project_id = $1 AND task_id = $3 " +
+                "UNION SELECT d.depends_on FROM task_dependencies d JOIN upstream u ON d.task_id = u.id WHERE d.project_id = $1) " +
+            "SELECT 1 FROM upstream WHERE id = $2) " +
+        "ON CONFLICT DO NOTHING";
+    private static final String DELETE_DEPENDENCY_SQL = "DELETE FROM task_dependencies WHERE project_id = $1 AND task_id = $2 AND depends_on = $3";
+
+    // Every statement this repository runs, used by the startup warm-up
+    static final List<String> STATEMENTS = List.of(
+        SELECT_DEPENDENCIES_SQL,
+        LOCK_PROJECT_SQL,
+        INSERT_DEPENDENCY_SQL,
+        DELETE_DEPENDENCY_SQL
+    );
+
+    private final DatabaseConnector db;
+    private final PgPool client;
+
+    public PgTaskDependencyRepository(DatabaseConnector db) {
+        this.db = db;
+        this.client = db.primary();
+    }
+
+    @Override
+    public Future<List<TaskDependency>> findByProject(int projectId) {
+        return Tracing.query(client, SELECT_DEPENDENCIES_SQL, Tuple.of(projectId), rows -> {
+                List<TaskDependency> dependencies = new ArrayList<>(rows.size());
+                for (Row row : rows) {
+                    dependencies.add(new TaskDependency(row.getInteger("task_id"), row.getInteger("depends_on")));
+                }
+                return dependencies;
+            });
+    }
+
+    @Override
+    public Future<Boolean> add(RoutingContext ctx, int projectId, TaskDependency dependency) {
+        return client.withTransaction(conn -> Tracing.query(conn, LOCK_PROJECT_SQL, Tuple.of(projectId))
+                .compose(locked -> Tracing.query(conn, INSERT_DEPENDENCY_SQL, Tuple.of(projectId, dependency.taskId(), dependency.dependsOn()),
+                    rows -> rows.rowCount() > 0)))
+            .onSuccess(added -> db.markWrite(ctx));
+    }
+
+    @Override
+    public Future<Boolean> remove(RoutingContext ctx, int projectId, TaskDependency dependency) {
+        return Tracing.query(client, DELETE_DEPENDENCY_SQL, Tuple.of(projectId, dependency.taskId(), dependency.dependsOn()), rows -> {
+                db.markWrite(ctx);
+                return rows.rowCount() > 0;
+            });
+    }
+}
@@ -0,0 +1,257 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+
+// TaskRepository on Postgres: writes and read-before-write lookups go to the primary,
+// list reads through DatabaseConnector.read.
+public class PgTaskRepository implements TaskRepository {
+
+    private static final String INSERT_TASK_SQL = "INSERT INTO tasks (project_id, name, description, status, assigned_to, progress, due_date, created_at) VALUES ($1, $2, $3, $4, $5, $6, $7, CURRENT_TIMESTAMP) RETURNING id";
+    private static final String SELECT_TASKS_BY_PROJECT_SQL = "SELECT * FROM tasks WHERE project_id = $1";
+    private static final String SELECT_TASKS_BY_PROJECTS_SQL = "SELECT * FROM tasks WHERE project_id = ANY($1)";
+    private static final String SELECT_TASKS_BY_USER_SQL = "SELECT * FROM tasks WHERE assigned_to = $1";
+    private static final String SELECT_TASKS_BY_USER_IN_PROJECTS_SQL = "SELECT * FROM tasks WHERE assigned_to = $1 AND project_id = ANY($2)";
+    private static final String SELECT_TASK_SQL = "SELECT * FROM tasks WHERE id = $1";
+    private static final String SELECT_TASK_IN_PROJECT_SQL = SELECT_TASK_SQL + " AND project_id = $2";
+    private static final String UPDATE_TASK_SQL = "UPDATE tasks SET name = $1, description = $2, status = $3, assigned_to = $4, progress = $5, due_date = $6 WHERE id = $7 AND project_id IS NOT DISTINCT FROM $8 RETURNING *";
+    private static final String DELETE_TASK_SQL = "DELETE FROM tasks WHERE id = $1 AND project_id IS NOT DISTINCT FROM $2";
+    private static final String ASSIGN_TASK_SQL = "UPDATE tasks SET assigned_to = $1 WHERE id = $2 RETURNING *";
+    private static final String ASSIGN_TASK_IN_PROJECT_SQL = "UPDATE tasks SET assigned_to = $1 WHERE id = $2 AND project_id = $3 RETURNING *";
+    private static final String SELECT_PROJECT_PROGRESS_SQL = "SELECT progress, status FROM tasks WHERE project_id = $1";
+    private static final String UPDATE_PROJECT_STATUS_SQL = "UPDATE projects SET status = $1 WHERE id = $2";
+    // change_seq is the id of the transaction that last wrote the row (SchemaMigrations.CHANGE_TRACKING)
+    private static final String SYNC_HORIZON_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS horizon, " +
+        "(SELECT pruned_through FROM task_sync_state WHERE id = 1) AS pruned_through";
+    private static final String CHANGED_TASKS_BY_PROJECT_SQL = "SELECT * FROM tasks WHERE project_id = $1 AND change_seq >= $2 AND change_seq < $3";
+    private static final String CHANGED_TASKS_BY_USER_SQL = "SELECT * FROM tasks WHERE assigned_to = $1 AND change_seq >= $2 AND change_seq < $3";
+    private static final String CHANGED_TASKS_BY_USER_IN_PROJECTS_SQL = CHANGED_TASKS_BY_USER_SQL + " AND project_id = ANY($4)";
+    private static final String REMOVED_FROM_PROJECT_SQL = "SELECT task_id, project_id, reason FROM task_tombstones " +
+        "WHERE project_id = $1 AND reason = 'deleted' AND change_seq >= $2 AND change_seq < $3";
+    private static final String REMOVED_FROM_USER_SQL = "SELECT task_id, project_id, reason FROM task_tombstones " +
+        "WHERE assigned_to = $1 AND change_seq >= $2 AND change_seq < $3";
+    private static final String REMOVED_FROM_USER_IN_PROJECTS_SQL = REMOVED_FROM_USER_SQL + " AND project_id = ANY($4)";
+
+    // Every statement this repository runs, used by the startup warm-up
+    static final List<String> STATEMENTS = List.of(
+        INSERT_TASK_SQL,
+        SELECT_TASKS_BY_PROJECT_SQL,
+        SELECT_TASKS_BY_PROJECTS_SQL,
+        SELECT_TASKS_BY_USER_SQL,
+        SELECT_TASKS_BY_USER_IN_PROJECTS_SQL,
+        SELECT_TASK_SQL,
+        SELECT_TASK_IN_PROJECT_SQL,
+        UPDATE_TASK_SQL,
+        DELETE_TASK_SQL,
+        ASSIGN_TASK_SQL,
+        ASSIGN_TASK_IN_PROJECT_SQL,
+        SELECT_PROJECT_PROGRESS_SQL,
+        UPDATE_PROJECT_STATUS_SQL,
+        SYNC_HORIZON_SQL,
+        CHANGED_TASKS_BY_PROJECT_SQL,
+        CHANGED_TASKS_BY_USER_SQL,
+        CHANGED_TASKS_BY_USER_IN_PROJECTS_SQL,
+        REMOVED_FROM_PROJECT_SQL,
+        REMOVED_FROM_USER_SQL,
+        REMOVED_FROM_USER_IN_PROJECTS_SQL
+    );
+
+    private final DatabaseConnector db;
+    private final PgPool client;
+
+    public PgTaskRepository(DatabaseConnector db) {
+        this(db, db.primary());
+    }
+
+    // Writes and primary reads on the given pool instead, e.g. the background job pool
+    PgTaskRepository(DatabaseConnector db, PgPool client) {
+        this.db = db;
+        this.client = client;
+    }
+
+    @Override
+    public Future<Integer> create(RoutingContext ctx, Task task) {
+        return Tracing.query(client, INSERT_TASK_SQL, Tuple.of(task.projectId(), task.name(), task.description(), task.status(),
+                task.assignedTo(), task.progress(), task.dueDate()), rows -> {
+                db.markWrite(ctx);
+                return rows.iterator().next().getInteger("id");
+            });
+    }
+
+    @Override
+    public Future<List<Task>> findByProject(RoutingContext ctx, int projectId) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_TASKS_BY_PROJECT_SQL, Tuple.of(projectId), PgTaskRepository::toTasks));
+    }
+
+    @Override
+    public Future<List<Task>> findByProjects(RoutingContext ctx, Integer[] projectIds) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_TASKS_BY_PROJECTS_SQL, Tuple.of(projectIds), PgTaskRepository::toTasks));
+    }
+
+    @Override
+    public Future<List<Task>> findByAssignee(RoutingContext ctx, int userId, Integer[] projectIds) {
+        return db.read(ctx, reader -> projectIds.length == 0
+                ? Tracing.query(reader, SELECT_TASKS_BY_USER_SQL, Tuple.of(userId))
+                : Tracing.query(reader, SELECT_TASKS_BY_USER_IN_PROJECTS_SQL, Tuple.of(userId, (Object) projectIds)))
+            .map(PgTaskRepository::toTasks);
+    }
+
+    // With the project hint a partitioned tasks table is probed in one partition instead of all
+    @Override
+    public Future<TaskChanges> changesInProject(RoutingContext ctx, int projectId, long since) {
+        return db.read(ctx, reader -> changes(reader, projectId, null, since, CHANGED_TASKS_BY_PROJECT_SQL, REMOVED_FROM_PROJECT_SQL));
+    }
+
+    @Override
+    public Future<TaskChanges> changesForAssignee(RoutingContext ctx, int userId, Integer[] projectIds, long since) {
+        return db.read(ctx, reader -> projectIds.length == 0
+            ? changes(reader, userId, null, since, CHANGED_TASKS_BY_USER_SQL, REMOVED_FROM_USER_SQL)
+            : changes(reader, userId, projectIds, since, CHANGED_TASKS_BY_USER_IN_PROJECTS_SQL, REMOVED_FROM_USER_IN_PROJECTS_SQL));
+    }
+
+    // The horizon is the oldest transaction still running. Everything below it has finished, so
+    // reading [since, horizon) and handing out horizon as the next cursor neither skips a write
+    // that commits late nor returns one twice. All three queries go to the same server.
+    private Future<TaskChanges> changes(SqlClient reader, int key, Integer[] projectIds, long since, String tasksSql, String removedSql) {
+        return Tracing.query(reader, SYNC_HORIZON_SQL, Tuple.tuple(), rows -> rows.iterator().next())
+            .compose(row -> {
+                long horizon = row.getLong("horizon");
+                Long prunedThrough = row.getLong("pruned_through");
+                if (since > 0 && prunedThrough != null && since <= prunedThrough) {
+                    return Future.<TaskChanges>succeededFuture(null);
+                }
+                Tuple args = Tuple.of(key, since, horizon);
+                if (projectIds != null) {
+                    args.addValue(projectIds);
+                }
+                Future<List<Task>> changed = Tracing.query(reader, tasksSql, args, PgTaskRepository::toTasks);
+                Future<List<TaskChanges.Removal>> removed = since == 0
+                    ? Future.succeededFuture(List.of())
+                    : Tracing.query(reader, removedSql, args, PgTaskRepository::toRemovals);
+                return Future.all(changed, removed)
+                    .map(v -> new TaskChanges(changed.result(), withoutReturned(removed.result(), changed.result()), horizon));
+            });
+    }
+
+    @Override
+    public Future<Task> findById(RoutingContext ctx, int taskId, Integer projectHint) {
+        return (projectHint == null
+                ? Tracing.query(client, SELECT_TASK_SQL, Tuple.of(taskId))
+                : Tracing.query(client, SELECT_TASK_IN_PROJECT_SQL, Tuple.of(taskId, projectHint)))
+            .map(PgTaskRepository::firstTask);
+    }
+
+    @Override
+    public Future<Task> update(RoutingContext ctx, Task task) {
+        return Tracing.query(client, UPDATE_TASK_SQL, Tuple.of(task.name(), task.description(), task.status(), task.assignedTo(),
+                task.progress(), task.dueDate(), task.id(), task.projectId()))
+            .map(rows -> {
+                db.markWrite(ctx);
+                return firstTask(rows);
+            });
+    }
+
+    @Override
+    public Future<Boolean> delete(RoutingContext ctx, int taskId, Integer projectId) {
+        return Tracing.query(client, DELETE_TASK_SQL, Tuple.of(taskId, projectId))
+            .map(rows -> rows.rowCount() > 0)
+            .onSuccess(v -> db.markWrite(ctx));
+    }
+
+    @Override
+    public Future<Task> assign(RoutingContext ctx, int taskId, Integer userId, Integer projectHint) {
+        return (projectHint == null
+                ? Tracing.query(client, ASSIGN_TASK_SQL, Tuple.of(userId, taskId))
+                : Tracing.query(client, ASSIGN_TASK_IN_PROJECT_SQL, Tuple.of(userId, taskId, projectHint)))
+            .map(rows -> {
+                db.markWrite(ctx);
+                return firstTask(rows);
+            });
+    }
+
+    @Override
+    public Future<Void> refreshProjectStatus(int projectId) {
+        // One transaction behind the project row lock, so a slower recompute cannot overwrite a newer one
+        return client.withTransaction(conn -> Tracing.query(conn, ProgressHistory.LOCK_PROJECT_SQL, Tuple.of(projectId))
+            .compose(locked -> Tracing.query(conn, SELECT_PROJECT_PROGRESS_SQL, Tuple.of(projectId)))
+            .compose(rows -> {
+                List<JsonObject> taskList = StreamSupport.stream(rows.spliterator(), false)
+                    .map(row -> new JsonObject().put("progress", row.getValue("progress")))
+                    .toList();
+                String newStatus = TaskHandler.computeProjectStatus(taskList);
+
+                // Same rows feed today's burndown bucket
+                ProgressHistory.Snapshot snapshot = new ProgressHistory.Snapshot();
+                for (Row row : rows) {
+                    snapshot.add(row.getInteger("progress"), row.getString("status"));
+                }
+                return Tracing.query(conn, UPDATE_PROJECT_STATUS_SQL, Tuple.of(newStatus, projectId))
+                    .compose(updated -> Tracing.query(conn, ProgressHistory.UPSERT_SQL, snapshot.toTuple(projectId)))
+                    .<Void>mapEmpty();
+            }));
+    }
+
+    private static List<TaskChanges.Removal> toRemovals(RowSet<Row> rows) {
+        List<TaskChanges.Removal> removals = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            removals.add(new TaskChanges.Removal(row.getInteger("task_id"), row.getInteger("project_id"), row.getString("reason")));
+        }
+        return removals;
+    }
+
+    // A task unassigned and assigned back within the window is still in the list
+    static List<TaskChanges.Removal> withoutReturned(List<TaskChanges.Removal> removed, List<Task> changed) {
+        if (removed.isEmpty() || changed.isEmpty()) {
+            return removed;
+        }
+        Set<Integer> changedIds = new HashSet<>();
+        for (Task task : changed) {
+            changedIds.add(task.id());
+        }
+        List<TaskChanges.Removal> result = new ArrayList<>(removed.size());
+        for (TaskChanges.Removal removal : removed) {
+            if (!changedIds.contains(removal.taskId())) {
+                result.add(removal);
+            }
+        }
+        return result;
+    }
+
+    static Task toTask(Row row) {
+        return new Task(
+            row.getInteger("id"),
+            row.getInteger("project_id"),
+            row.getString("name"),
+            row.getString("description"),
+            row.getString("status"),
+            row.getInteger("assigned_to"),
+            row.getLocalDateTime("created_at"),
+            row.getInteger("progress"),
+            row.getLocalDate("due_date"),
+            row.getLong("change_seq"));
+    }
+
+    private static List<Task> toTasks(RowSet<Row> rows) {
+        List<Task> tasks = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            tasks.add(toTask(row));
+        }
+        return tasks;
+    }
+
+    private static Task firstTask(RowSet<Row> rows) {
+        return rows.size() > 0 ? toTask(rows.iterator().next()) : null;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// UserRepository on Postgres
+public class PgUserRepository implements UserRepository {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (created_at, username,  email, password, role) VALUES (NOW(), $1, $2, $3, $4)";
+    private static final String SELECT_LOGIN_SQL = "SELECT id, username, email, role, password FROM users WHERE username = $1";
+    private static final String SELECT_USERS_SQL = "SELECT id, username, email, role FROM users";
+    private static final String SELECT_USER_SQL = "SELECT id, username, email, role FROM users WHERE id = $1";
+    private static final String SELECT_USERS_BY_IDS_SQL = "SELECT id, username, email, role FROM users WHERE id = ANY($1)";
+    private static final String SELECT_USERS_BY_ROLE_SQL = "SELECT id, username, email, role FROM users WHERE role = $1";
+    private static final String UPDATE_ROLE_SQL = "UPDATE users SET role = $1 WHERE id= $2";
+    private static final String DELETE_USER_SQL = "DELETE FROM users WHERE id = $1";
+    private static final String WORKLOAD_SQL =
+        "SELECT u.id, u.username, " +
+        "COUNT(t.id) FILTER (WHERE COALESCE(t.progress, 0) < 100) AS open_tasks, " +
+        "AVG(t.progress) FILTER (WHERE COALESCE(t.progress, 0) < 100) AS average_progress, " +
+        "COUNT(t.id) FILTER (WHERE COALESCE(t.progress, 0) < 100 AND t.due_date < CURRENT_DATE) AS overdue_tasks " +
+        "FROM users u LEFT JOIN tasks t ON t.assigned_to = u.id " +
+        "WHERE u.role = 'team_member' AND u.id > $1 " +
+        "GROUP BY u.id, u.username ORDER BY u.id LIMIT $2";
+    private static final String UPDATE_PROFILE_SQL = "UPDATE users SET username = $1, email = $2 WHERE id = $3";
+
+    // Every statement this repository runs, used by the startup warm-up
+    static final List<String> STATEMENTS = List.of(
+        INSERT_USER_SQL,
+        SELECT_LOGIN_SQL,
+        SELECT_USERS_SQL,
+        SELECT_USER_SQL,
+        SELECT_USERS_BY_IDS_SQL,
+        SELECT_USERS_BY_ROLE_SQL,
+        WORKLOAD_SQL,
+        UPDATE_ROLE_SQL,
+        DELETE_USER_SQL,
+        UPDATE_PROFILE_SQL
+    );
+
+    private final DatabaseConnector db;
+    private final PgPool client;
+
+    public PgUserRepository(DatabaseConnector db) {
+        this.db = db;
+        this.client = db.primary();
+    }
+
+    @Override
+    public Future<Void> create(RoutingContext ctx, User user) {
+        return Tracing.query(client, INSERT_USER_SQL, Tuple.of(user.username(), user.email(), user.password(), user.role()))
+            .<Void>mapEmpty()
+            .onSuccess(v -> db.markWrite(ctx));
+    }
+
+    @Override
+    public Future<User> findByUsername(RoutingContext ctx, String username) {
+        return Tracing.query(client, SELECT_LOGIN_SQL, Tuple.of(username), rows -> {
+                if (rows.rowCount() == 0) {
+                    return null;
+                }
+                Row row = rows.iterator().next();
+                return new User(row.getInteger("id"), row.getString("username"), row.getString("email"),
+                    row.getString("role"), row.getString("password"));
+            });
+    }
+
+    @Override
+    public Future<List<User>> findAll(RoutingContext ctx) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_USERS_SQL, Tuple.tuple(), PgUserRepository::toUsers));
+    }
+
+    @Override
+    public Future<User> findById(RoutingContext ctx, int userId) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_USER_SQL, Tuple.of(userId), rows -> rows.rowCount() > 0 ? toUser(rows.iterator().next()) : null));
+    }
+
+    @Override
+    public Future<List<User>> findByIds(RoutingContext ctx, Integer[] userIds) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_USERS_BY_IDS_SQL, Tuple.of(userIds), PgUserRepository::toUsers));
+    }
+
+    @Override
+    public Future<List<User>> findByRole(RoutingContext ctx, String role) {
+        return db.read(ctx, reader -> Tracing.query(reader, SELECT_USERS_BY_ROLE_SQL, Tuple.of(role), PgUserRepository::toUsers));
+    }
+
+    @Override
+    public Future<JsonArray> workload(RoutingContext ctx, int afterId, int limit) {
+        return db.read(ctx, reader -> Tracing.query(reader, WORKLOAD_SQL, Tuple.of(afterId, limit), rows -> {
+                JsonArray users = new JsonArray();
+                for (Row row : rows) {
+                    users.add(new JsonObject()
+                        .put("id", row.getInteger("id"))
+                        .put("username", row.getString("username"))
+                        .put("open_tasks", row.getLong("open_tasks"))
+                        .put("average_progress", row.getValue("average_progress") != null ? row.getNumeric("average_progress").doubleValue() : null)
+                        .put("overdue_tasks", row.getLong("overdue_tasks")));
+                }
+                return users;
+            }));
+    }
+
+    @Override
+    public Future<Void> updateRole(RoutingContext ctx, int userId, String role) {
+        return Tracing.query(client, UPDATE_ROLE_SQL, Tuple.of(role, userId))
+            .<Void>mapEmpty()
+            .onSuccess(v -> db.markWrite(ctx));
+    }
+
+    @Override
+    public Future<Void> delete(RoutingContext ctx, int userId) {
+        return Tracing.query(client, DELETE_USER_SQL, Tuple.of(userId))
+            .<Void>mapEmpty()
+            .onSuccess(v -> db.markWrite(ctx));
+    }
+
+    @Override
+    public Future<Boolean> updateProfile(RoutingContext ctx, int userId, String username, String email) {
+        return Tracing.query(client, UPDATE_PROFILE_SQL, Tuple.of(username, email, userId), rows -> {
+                if (rows.rowCount() == 0) {
+                    return false;
+                }
+                db.markWrite(ctx);
+                return true;
+            });
+    }
+
+    private static User toUser(Row row) {
+        return new User(row.getInteger("id"), row.getString("username"), row.getString("email"), row.getString("role"), null);
+    }
+
+    private static List<User> toUsers(RowSet<Row> rows) {
+        List<User> users = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            users.add(toUser(row));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,438 @@
+package com.example;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+import io.vertx.core.impl.VertxThread;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// On-demand diagnostics without a restart, under /admin/profiling (admin token):
+//
+// - A JFR recording (POST jfr/start, POST jfr/stop returns the .jfr file, GET jfr for its state),
+//   stopped on its own after maxSeconds. One at a time.
+// - An event-loop stall sampler (POST stalls/start, POST stalls/stop, GET stalls, DELETE stalls).
+//   Every intervalMs a daemon thread reads when each event loop's current task started; that is a
+//   field read, so an idle or fast loop costs nothing more. Only a task running past thresholdMs has
+//   its stack sampled. Samples are aggregated by route (from the request whose context the task
+//   runs on) and by the first frame in our own code, e.g. AuthenticationHandler.login. Blocking
+//   mode handlers run on worker threads and are not sampled.
+public class Profiler {
+
+    private static final Object LOCAL_KEY = new Object();
+    private static final String OWN_PACKAGE = "com.example.";
+    private static final int MAX_FRAMES = 40;
+    private static final int MAX_STACKS_PER_SITE = 10;
+    private static final int MAX_SITES = 500;
+    // The stall sampler reads Vert.x internals (VertxThread.startTime(), its package-private context
+    // field, ContextInternal) that change between releases without notice, so it only runs on the
+    // release it was written against. Keep in step with vertx.version in pom.xml.
+    static final String SAMPLER_VERTX_VERSION = "4.4.4";
+    private static final String VERTX_VERSION = vertxVersion();
+    private static final boolean SAMPLER_SUPPORTED = SAMPLER_VERTX_VERSION.equals(VERTX_VERSION);
+    // The context an event-loop thread is running a task for. Package-private in Vert.x; without it stalls have no route.
+    private static final Field THREAD_CONTEXT = SAMPLER_SUPPORTED ? threadContextField() : null;
+
+    private final Vertx vertx;
+    private final long jfrMaxSeconds;
+    private final long jfrMaxBytes;
+    private final long defaultThresholdMs;
+    private final long defaultIntervalMs;
+
+    private final Set<Thread> eventLoops = ConcurrentHashMap.newKeySet();
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private volatile Sampler sampler;
+
+    private Recording recording;
+    private Instant recordingStarted;
+
+    public Profiler(Vertx vertx, JsonObject config) {
+        this.vertx = vertx;
+        JsonObject jfr = config.getJsonObject("jfr", new JsonObject());
+        this.jfrMaxSeconds = jfr.getLong("maxSeconds", 300L);
+        this.jfrMaxBytes = jfr.getLong("maxBytes", 256L * 1024 * 1024);
+        JsonObject stalls = config.getJsonObject("stalls", new JsonObject());
+        this.defaultThresholdMs = stalls.getLong("thresholdMs", 50L);
+        this.defaultIntervalMs = stalls.getLong("intervalMs", 5L);
+        if (!SAMPLER_SUPPORTED) {
+            System.out.println("⚠️ Event-loop stall sampling is disabled: it is built for Vert.x " + SAMPLER_VERTX_VERSION
+                + ", running " + VERTX_VERSION + ".");
+        } else if (stalls.getBoolean("enabled", false)) {
+            startSampler(defaultThresholdMs, defaultIntervalMs);
+        }
+    }
+
+    // Route handler ahead of the others: remembers the request on its context so a stall in any of
+    // its callbacks can be attributed to it, and which threads are event loops
+    public void track(RoutingContext ctx) {
+        Thread thread = Thread.currentThread();
+        if (SAMPLER_SUPPORTED && thread instanceof VertxThread && !((VertxThread) thread).isWorker()) {
+            eventLoops.add(thread);
+            Context context = Vertx.currentContext();
+            if (context != null) {
+                context.putLocal(LOCAL_KEY, ctx);
+            }
+        }
+        ctx.next();
+    }
+
+    public void close() {
+        stopSampler();
+        synchronized (this) {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        }
+    }
+
+    // POST /admin/profiling/jfr/start?settings=profile|default&maxSeconds=
+    public void startRecording(RoutingContext ctx) {
+        String settings = ctx.request().getParam("settings", "profile");
+        long maxSeconds;
+        try {
+            maxSeconds = Math.min(jfrMaxSeconds, Long.parseLong(ctx.request().getParam("maxSeconds", String.valueOf(jfrMaxSeconds))));
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid maxSeconds.");
+            return;
+        }
+        vertx.<JsonObject>executeBlocking(promise -> {
+            synchronized (this) {
+                if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                    promise.complete(null);
+                    return;
+                }
+                if (recording != null) {
+                    recording.close();
+                }
+                try {
+                    Recording started = new Recording(Configuration.getConfiguration(settings));
+                    started.setName("on-demand");
+                    started.setToDisk(true);
+                    started.setDuration(Duration.ofSeconds(maxSeconds));
+                    started.setMaxSize(jfrMaxBytes);
+                    started.start();
+                    recording = started;
+                    recordingStarted = Instant.now();
+                    promise.complete(recordingState());
+                } catch (Exception e) {
+                    promise.fail(e);
+                }
+            }
+        }, false).onSuccess(state -> {
+            if (state == null) {
+                ctx.response().setStatusCode(409).end("A recording is already running.");
+                return;
+            }
+            System.out.println("⏳ JFR recording started (" + settings + ", at most " + maxSeconds + " s).");
+            ctx.response().putHeader("Content-Type", "application/json").end(state.encode());
+        }).onFailure(err -> ctx.response().setStatusCode(400).end("Failed to start recording: " + err.getMessage()));
+    }
+
+    // POST /admin/profiling/jfr/stop: stops the recording (if still running) and returns it as a .jfr file
+    public void stopRecording(RoutingContext ctx) {
+        vertx.<Path>executeBlocking(promise -> {
+            synchronized (this) {
+                if (recording == null) {
+                    promise.complete(null);
+                    return;
+                }
+                try {
+                    if (recording.getState() == RecordingState.RUNNING) {
+                        recording.stop();
+                    }
+                    Path file = Files.createTempFile("profile-", ".jfr");
+                    recording.dump(file);
+                    recording.close();
+                    recording = null;
+                    promise.complete(file);
+                } catch (Exception e) {
+                    promise.fail(e);
+                }
+            }
+        }, false).onSuccess(file -> {
+            if (file == null) {
+                ctx.response().setStatusCode(404).end("No recording.");
+                return;
+            }
+            System.out.println("✅ JFR recording stopped, sending " + file.getFileName() + ".");
+            ctx.response()
+                .putHeader("Content-Type", "application/octet-stream")
+                .putHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
+                .sendFile(file.toString())
+                .onComplete(ar -> vertx.fileSystem().delete(file.toString()));
+        }).onFailure(err -> ctx.response().setStatusCode(500).end("Failed to stop recording: " + err.getMessage()));
+    }
+
+    // GET /admin/profiling/jfr
+    public void recordingStatus(RoutingContext ctx) {
+        JsonObject state;
+        synchronized (this) {
+            state = recording != null ? recordingState() : new JsonObject().put("state", "none");
+        }
+        ctx.response().putHeader("Content-Type", "application/json").end(state.encode());
+    }
+
+    private JsonObject recordingState() {
+        return new JsonObject()
+            .put("state", recording.getState().name().toLowerCase())
+            .put("started_at", recordingStarted.toString())
+            .put("max_seconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null)
+            .put("size_bytes", recording.getSize());
+    }
+
+    // POST /admin/profiling/stalls/start?thresholdMs=&intervalMs=: restarts sampling with new settings, keeping the samples
+    public void startStalls(RoutingContext ctx) {
+        long thresholdMs;
+        long intervalMs;
+        try {
+            thresholdMs = Math.max(1, Long.parseLong(ctx.request().getParam("thresholdMs", String.valueOf(defaultThresholdMs))));
+            intervalMs = Math.max(1, Long.parseLong(ctx.request().getParam("intervalMs", String.valueOf(defaultIntervalMs))));
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid thresholdMs or intervalMs.");
+            return;
+        }
+        if (!SAMPLER_SUPPORTED) {
+            ctx.response().setStatusCode(501).end("Stall sampling needs Vert.x " + SAMPLER_VERTX_VERSION + ", running " + VERTX_VERSION + ".");
+            return;
+        }
+        startSampler(thresholdMs, intervalMs);
+        ctx.response().putHeader("Content-Type", "application/json").end(stallSettings().encode());
+    }
+
+    // POST /admin/profiling/stalls/stop
+    public void stopStalls(RoutingContext ctx) {
+        stopSampler();
+        ctx.response().putHeader("Content-Type", "application/json").end(stallSettings().encode());
+    }
+
+    // DELETE /admin/profiling/stalls: forgets the samples
+    public void resetStalls(RoutingContext ctx) {
+        sites.clear();
+        ctx.response().setStatusCode(204).end();
+    }
+
+    // GET /admin/profiling/stalls?limit=: the sites with the most stalled time first, each with its most common stacks
+    public void stallReport(RoutingContext ctx) {
+        int limit;
+        try {
+            limit = Math.max(1, Integer.parseInt(ctx.request().getParam("limit", "20")));
+        } catch (NumberFormatException e) {
+            ctx.response().setStatusCode(400).end("Invalid limit.");
+            return;
+        }
+        List<Site> sorted = new ArrayList<>(sites.values());
+        sorted.sort((a, b) -> Long.compare(b.sampledNanos(), a.sampledNanos()));
+        JsonArray report = new JsonArray();
+        for (Site site : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            report.add(site.toJson());
+        }
+        ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .end(stallSettings().put("sites", report).encode());
+    }
+
+    private JsonObject stallSettings() {
+        Sampler current = sampler;
+        return new JsonObject()
+            .put("sampling", current != null)
+            .put("threshold_ms", current != null ? current.thresholdNanos / 1_000_000 : null)
+            .put("interval_ms", current != null ? current.intervalMs : null)
+            .put("event_loops", eventLoops.size());
+    }
+
+    private synchronized void startSampler(long thresholdMs, long intervalMs) {
+        stopSampler();
+        sampler = new Sampler(thresholdMs * 1_000_000L, intervalMs);
+        sampler.start();
+        System.out.println("✅ Event-loop stall sampling above " + thresholdMs + " ms, every " + intervalMs + " ms.");
+    }
+
+    private synchronized void stopSampler() {
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler = null;
+        }
+    }
+
+    private final class Sampler extends Thread {
+        final long thresholdNanos;
+        final long intervalMs;
+        // Per event loop, the start of the task last seen stalling, so each stall is counted once
+        private final Map<Thread, Long> stalledTask = new LinkedHashMap<>();
+
+        Sampler(long thresholdNanos, long intervalMs) {
+            super("stall-sampler");
+            setDaemon(true);
+            this.thresholdNanos = thresholdNanos;
+            this.intervalMs = intervalMs;
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                try {
+                    Thread.sleep(intervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long now = System.nanoTime();
+                for (Thread thread : eventLoops) {
+                    // 0 while the loop waits for I/O
+                    long taskStarted = ((VertxThread) thread).startTime();
+                    if (taskStarted == 0 || now - taskStarted < thresholdNanos) {
+                        continue;
+                    }
+                    StackTraceElement[] stack = thread.getStackTrace();
+                    // The task may have finished while the stack was taken
+                    if (((VertxThread) thread).startTime() != taskStarted) {
+                        continue;
+                    }
+                    Long previous = stalledTask.put(thread, taskStarted);
+                    record(route(thread), stack, previous == null || previous != taskStarted, now - taskStarted, intervalMs);
+                }
+            }
+        }
+    }
+
+    private void record(String route, StackTraceElement[] stack, boolean newStall, long stalledNanos, long intervalMs) {
+        String handler = handlerFrame(stack);
+        String key = route + " " + handler;
+        Site site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                return;
+            }
+            site = sites.computeIfAbsent(key, k -> new Site(route, handler));
+        }
+        site.add(stack, newStall, stalledNanos, intervalMs * 1_000_000L);
+    }
+
+    // "GET /projects/:id" for the request the event loop is working for, or "(no request)"
+    // for timers, event bus consumers and other work outside a request
+    private static String route(Thread thread) {
+        if (THREAD_CONTEXT == null) {
+            return "(unknown)";
+        }
+        try {
+            Object context = THREAD_CONTEXT.get(thread);
+            Object request = context != null ? ((ContextInternal) context).localContextData().get(LOCAL_KEY) : null;
+            if (!(request instanceof RoutingContext)) {
+                return "(no request)";
+            }
+            RoutingContext ctx = (RoutingContext) request;
+            String path = ctx.currentRoute() != null && ctx.currentRoute().getPath() != null
+                ? ctx.currentRoute().getPath()
+                : ctx.request().path();
+            return ctx.request().method() + " " + path;
+        } catch (Exception e) {
+            return "(unknown)";
+        }
+    }
+
+    // The innermost frame in our own code, which is the handler method doing the work
+    private static String handlerFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith(OWN_PACKAGE) && !frame.getClassName().equals(Profiler.class.getName())) {
+                return frame.getClassName().substring(OWN_PACKAGE.length()) + "." + frame.getMethodName();
+            }
+        }
+        return stack.length > 0 ? stack[0].getClassName() + "." + stack[0].getMethodName() : "(empty)";
+    }
+
+    // From the version file in the vertx-core jar; null if it cannot be read
+    private static String vertxVersion() {
+        try (InputStream in = Vertx.class.getClassLoader().getResourceAsStream("META-INF/vertx/vertx-version.txt")) {
+            return in != null ? new String(in.readAllBytes(), StandardCharsets.UTF_8).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Field threadContextField() {
+        try {
+            Field field = VertxThread.class.getDeclaredField("context");
+            field.setAccessible(true);
+            return field;
+        } catch (Exception e) {
+            System.out.println("⚠️ Stall samples will not name their route: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Samples of one route and handler method; written by the sampler thread, read by requests
+    private static final class Site {
+        final String route;
+        final String handler;
+        private long stalls;
+        private long samples;
+        private long maxStalledNanos;
+        private long sampledNanos;
+        private final Map<String, Integer> stacks = new LinkedHashMap<>();
+        private final Map<String, List<String>> frames = new LinkedHashMap<>();
+
+        Site(String route, String handler) {
+            this.route = route;
+            this.handler = handler;
+        }
+
+        synchronized void add(StackTraceElement[] stack, boolean newStall, long stalledNanos, long intervalNanos) {
+            if (newStall) {
+                stalls++;
+            }
+            samples++;
+            sampledNanos += intervalNanos;
+            maxStalledNanos = Math.max(maxStalledNanos, stalledNanos);
+
+            List<String> top = new ArrayList<>();
+            for (int i = 0; i < stack.length && i < MAX_FRAMES; i++) {
+                top.add(stack[i].toString());
+            }
+            String signature = String.join("\n", top);
+            if (stacks.containsKey(signature) || stacks.size() < MAX_STACKS_PER_SITE) {
+                stacks.merge(signature, 1, Integer::sum);
+                frames.putIfAbsent(signature, top);
+            }
+        }
+
+        synchronized long sampledNanos() {
+            return sampledNanos;
+        }
+
+        synchronized JsonObject toJson() {
+            List<Map.Entry<String, Integer>> common = new ArrayList<>(stacks.entrySet());
+            common.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            JsonArray stackJson = new JsonArray();
+            for (Map.Entry<String, Integer> entry : common) {
+                stackJson.add(new JsonObject().put("samples", entry.getValue()).put("frames", new JsonArray(frames.get(entry.getKey()))));
+            }
+            return new JsonObject()
+                .put("route", route)
+                .put("handler", handler)
+                .put("stalls", stalls)
+                .put("samples", samples)
+                .put("sampled_ms", sampledNanos / 1_000_000)
+                .put("max_stall_ms", maxStalledNanos / 1_000_000)
+                .put("stacks", stackJson);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.List;
+
+// Per-project daily progress buckets for burndown charts. Every task write that recomputes the
+// project status also overwrites today's bucket with the project's totals, so a chart is one
+// indexed range read of at most one row per day, however many tasks the project has.
+public class ProgressHistory {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 366;
+
+    // SQL form of isCompleted, for set-based rollups over tasks
+    static final String COMPLETED_CONDITION = "progress >= 100 OR LOWER(status) IN ('completed', 'done')";
+    static final String INSERT_BUCKET =
+        "INSERT INTO project_progress_daily (project_id, day, total_tasks, completed_tasks, progress_sum, progress_count, updated_at) ";
+    // updated_at only moves forward. Per-write recomputes lock the project row (LOCK_PROJECT_SQL) before
+    // reading its tasks and stamp clock_timestamp() after that, so they land in the order they read.
+    static final String ON_CONFLICT_REPLACE =
+        " ON CONFLICT (project_id, day) DO UPDATE SET total_tasks = EXCLUDED.total_tasks, " +
+        "completed_tasks = EXCLUDED.completed_tasks, progress_sum = EXCLUDED.progress_sum, " +
+        "progress_count = EXCLUDED.progress_count, updated_at = EXCLUDED.updated_at " +
+        "WHERE project_progress_daily.updated_at <= EXCLUDED.updated_at";
+    // Taken first in the recompute transaction; a concurrent recompute for the project waits here, then reads what this one committed
+    static final String LOCK_PROJECT_SQL = "SELECT id FROM projects WHERE id = $1 FOR UPDATE";
+    static final String LOCK_PROJECT_JDBC_SQL = "SELECT id FROM projects WHERE id = ? FOR UPDATE";
+    static final String UPSERT_SQL = INSERT_BUCKET + "VALUES ($1, CURRENT_DATE, $2, $3, $4, $5, clock_timestamp())" + ON_CONFLICT_REPLACE;
+    // The same statement with JDBC placeholders, for BlockingTaskHandler
+    static final String UPSERT_JDBC_SQL = INSERT_BUCKET + "VALUES (?, CURRENT_DATE, ?, ?, ?, ?, clock_timestamp())" + ON_CONFLICT_REPLACE;
+    // The last bucket before the range seeds the days that had no changes
+    private static final String BURNDOWN_SQL =
+        "(SELECT day, total_tasks, completed_tasks, progress_sum, progress_count FROM project_progress_daily " +
+        "WHERE project_id = $1 AND day < $2 ORDER BY day DESC LIMIT 1) " +
+        "UNION ALL " +
+        "(SELECT day, total_tasks, completed_tasks, progress_sum, progress_count FROM project_progress_daily " +
+        "WHERE project_id = $1 AND day BETWEEN $2 AND $3) " +
+        "ORDER BY day";
+
+    static final List<String> STATEMENTS = List.of(LOCK_PROJECT_SQL, UPSERT_SQL, BURNDOWN_SQL);
+
+    // Project totals at one point in time, accumulated from the project's task rows
+    static final class Snapshot {
+        int totalTasks;
+        int completedTasks;
+        long progressSum;
+        int progressCount;
+
+        void add(Integer progress, String status) {
+            totalTasks++;
+            if (progress != null) {
+                progressSum += progress;
+                progressCount++;
+            }
+            if (isCompleted(progress, status)) {
+                completedTasks++;
+            }
+        }
+
+        Tuple toTuple(int projectId) {
+            return Tuple.of(projectId, totalTasks, completedTasks, progressSum, progressCount);
+        }
+    }
+
+    // Keep in sync with COMPLETED_CONDITION
+    static boolean isCompleted(Integer progress, String status) {
+        return (progress != null && progress >= 100)
+            || "completed".equalsIgnoreCase(status)
+            || "done".equalsIgnoreCase(status);
+    }
+
+    private final DatabaseConnector db;
+
+    public ProgressHistory(DatabaseConnector db) {
+        this.db = db;
+    }
+
+    // GET /projects/:id/burndown?from=YYYY-MM-DD&to=YYYY-MM-DD, one entry per day from the first known snapshot
+    public void getBurndown(RoutingContext ctx) {
+        int projectId;
+        LocalDate from;
+        LocalDate to;
+        try {
+            projectId = Integer.parseInt(ctx.pathParam("id"));
+            String toParam = ctx.request().getParam("to");
+            String fromParam = ctx.request().getParam("from");
+            to = toParam != null ? LocalDate.parse(toParam) : LocalDate.now();
+            from = fromParam != null ? LocalDate.parse(fromParam) : to.minusDays(DEFAULT_DAYS - 1);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            ctx.response().setStatusCode(400).end("Invalid project id or date, expected YYYY-MM-DD.");
+            return;
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            ctx.response().setStatusCode(400).end("'from' must not be after 'to' and the range is limited to " + MAX_DAYS + " days.");
+            return;
+        }
+
+        db.read(ctx, reader -> Tracing.query(reader, BURNDOWN_SQL, Tuple.of(projectId, from, to)))
+            .onSuccess(rows -> {
+                JsonArray series = new JsonArray();
+                Row current = null;
+                Iterator<Row> buckets = rows.iterator();
+                Row next = buckets.hasNext() ? buckets.next() : null;
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    // Carry the latest bucket forward over days without task changes
+                    while (next != null && !next.getLocalDate("day").isAfter(day)) {
+                        current = next;
+                        next = buckets.hasNext() ? buckets.next() : null;
+                    }
+                    if (current == null) {
+                        continue;
+                    }
+                    int total = current.getInteger("total_tasks");
+                    int completed = current.getInteger("completed_tasks");
+                    int progressCount = current.getInteger("progress_count");
+                    series.add(new JsonObject()
+                        .put("date", day.toString())
+                        .put("total_tasks", total)
+                        .put("completed_tasks", completed)
+                        .put("remaining_tasks", total - completed)
+                        .put("average_progress", progressCount == 0 ? null : (double) current.getLong("progress_sum") / progressCount));
+                }
+                ctx.response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(new JsonObject()
+                        .put("project_id", projectId)
+                        .put("from", from.toString())
+                        .put("to", to.toString())
+                        .put("days", series)
+                        .encode());
+            })
+            .onFailure(err -> ctx.response().setStatusCode(500).end("Failed to fetch burndown: " + err.getMessage()));
+    }
+}
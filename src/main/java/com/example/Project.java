@@ -0,0 +1,13 @@
+package com.example;
+
+import java.time.LocalDateTime;
+
+// One row of the projects table
+public record Project(
+    Integer id,
+    String name,
+    String description,
+    String status,
+    LocalDateTime createdAt
+) {
+}
@@ -4,20 +4,25 @@ import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.sqlclient.Tuple;
-import io.vertx.pgclient.PgPool;
-// import io.vertx.sqlclient.Tuple;
-// import io.vertx.sqlclient.RowSet;
 
 import java.util.Arrays;
 import java.util.List;
 
 public class ProjectHandler {
 
-    private final PgPool client;
+    private static final int MAX_SUMMARY_PROJECTS = 500;
 
-    public ProjectHandler(PgPool client) {
-        this.client = client;
+    private final ProjectRepository projects;
+    // Set with Postgres storage: project deletion then runs as a background job
+    private final JobScheduler jobs;
+
+    public ProjectHandler(ProjectRepository projects) {
+        this(projects, null);
+    }
+
+    public ProjectHandler(ProjectRepository projects, JobScheduler jobs) {
+        this.projects = projects;
+        this.jobs = jobs;
     }
     public void createProject(RoutingContext routingContext) {
         JsonObject requestBody = routingContext.body().asJsonObject();
@@ -45,34 +50,15 @@ public class ProjectHandler {
             return;
         }
     
-        String sql = "INSERT INTO projects (name, description, status, created_at) VALUES ($1, $2, $3, NOW()) RETURNING id";
-        System.out.println("⚡ Preparing to execute SQL: " + sql);
         System.out.println("🔹 Parameters: name=" + name + ", description=" + description + ", status=" + status);
     
-        // 🛑 Check if `client` is null
-        if (client == null) {
-            System.out.println("❌ Database client is NULL!");
-            routingContext.response().setStatusCode(500).end("Database connection error.");
-            return;
-        }
-    
-        client.preparedQuery(sql)
-            .execute(Tuple.of(name, description, status))
-            .onSuccess(rows -> {
-                System.out.println("✅ Query executed successfully, row count: " + rows.rowCount());
-                if (rows.rowCount() > 0) {
-                    int projectId = rows.iterator().next().getInteger("id");
-                    System.out.println("✅ Project created successfully with ID: " + projectId);
-                    routingContext.response()
-                        .setStatusCode(201)
-                        .putHeader("Content-Type", "application/json")
-                        .end(new JsonObject().put("message", "user registered successfully").encode());
-                } else {
-                    System.out.println("⚠️ Query succeeded but returned no rows.");
-                    routingContext.response()
-                        .setStatusCode(500)
-                        .end("Unexpected error: No rows were returned.");
-                }
+        projects.create(routingContext, new Project(null, name, description, status, null))
+            .onSuccess(projectId -> {
+                System.out.println("✅ Project created successfully with ID: " + projectId);
+                routingContext.response()
+                    .setStatusCode(201)
+                    .putHeader("Content-Type", "application/json")
+                    .end(new JsonObject().put("message", "user registered successfully").encode());
             })
             .onFailure(err -> {
                 System.out.println("❌ Query execution failed: " + err.getMessage());
@@ -82,49 +68,24 @@ public class ProjectHandler {
                     .end("Failed to create project: " + err.getMessage());
             });
     
-        System.out.println("🔍 Query execution triggered.");
     }
     
 
 
     public void getAllProjects(RoutingContext routingContext) {
-        String sql = "SELECT id, name, description, status, created_at FROM projects";
-        
-        // Log query before execution
-        System.out.println("Preparing to execute SQL: " + sql);
-        
-        client.preparedQuery(sql)
-            .execute()
+        projects.findAll(routingContext)
             .onSuccess(rows -> {
                 // Log the size of the result set to verify data is being fetched
                 System.out.println("Query executed successfully, row count: " + rows.size());
-                if (rows.size() == 0) {
+                if (rows.isEmpty()) {
                     System.out.println("No projects found in the database.");
                 }
     
-                JsonArray projects = new JsonArray(); // Create a JsonArray to store the projects
-                
-                rows.forEach(row -> {
-                    JsonObject project = new JsonObject()
-                        .put("id", row.getInteger("id"))
-                        .put("name", row.getString("name"))
-                        .put("description", row.getString("description"))
-                        .put("status", row.getString("status"))
-                        .put("created_at", row.getLocalDateTime("created_at").toString());
-                    projects.add(project);  // Add each project to the JsonArray
-                });
-    
-                JsonObject response = new JsonObject();
-                System.out.println("Sending response: " + response.encodePrettily());
-
-                response.put("projects", projects);  // Put the array into the response JSON
-    
-                // Log the response before sending it
-                
+                // Rows are streamed straight into the response buffer
                 routingContext.response()
                     .putHeader("Content-Type", "application/json")
                     .setStatusCode(200)
-                    .end(response.encode());  // Send the actual projects response
+                    .end(JsonRowWriter.projects(rows));
                     
                     System.out.println("✅ Response sent successfully.");
 
@@ -149,18 +110,15 @@ public class ProjectHandler {
             return;
         }
     
-        String sql = "SELECT id, name, description, status, created_at FROM projects WHERE id = $1";
-        client.preparedQuery(sql)
-            .execute(Tuple.of(Integer.parseInt(projectId)))
-            .onSuccess(rows -> {
-                if (rows.rowCount() > 0) {
-                    var row = rows.iterator().next();
+        projects.findById(routingContext, Integer.parseInt(projectId))
+            .onSuccess(stored -> {
+                if (stored != null) {
                     JsonObject project = new JsonObject()
-                        .put("id", row.getInteger("id"))
-                        .put("name", row.getString("name"))
-                        .put("description", row.getString("description"))
-                        .put("status", row.getString("status"))
-                        .put("created_at", row.getLocalDateTime("created_at").toString());
+                        .put("id", stored.id())
+                        .put("name", stored.name())
+                        .put("description", stored.description())
+                        .put("status", stored.status())
+                        .put("created_at", stored.createdAt().toString());
                     
                     routingContext.response()
                         .putHeader("Content-Type", "application/json")
@@ -197,9 +155,8 @@ public class ProjectHandler {
             return;
         }
 
-        String sql = "UPDATE projects SET name = COALESCE($1, name), description = COALESCE($2, description), status = COALESCE($3, status) WHERE id = $4";
-        client.preparedQuery(sql)
-            .execute(Tuple.of(name, description, status, Integer.parseInt(projectId)), ar -> {
+        projects.update(routingContext, Integer.parseInt(projectId), name, description, status)
+            .onComplete(ar -> {
                 if (ar.succeeded()) {
                     routingContext.response().setStatusCode(200).end("Project updated successfully.");
                 } else {
@@ -221,50 +178,132 @@ public class ProjectHandler {
             return;
         }
     
-        // Check if the project exists before deleting
-        String checkSql = "SELECT id FROM projects WHERE id = $1";
-        String deleteSql = "DELETE FROM projects WHERE id = $1";
-    
-        client.preparedQuery(checkSql).execute(Tuple.of(Integer.parseInt(projectId)))
-            .onSuccess(rows -> {
-                if (rows.rowCount() == 0) {
+        if (jobs != null) {
+            scheduleDelete(routingContext, Integer.parseInt(projectId));
+            return;
+        }
+
+        // Missing projects are told apart from failed deletes
+        projects.delete(routingContext, Integer.parseInt(projectId))
+            .onSuccess(deleted -> {
+                if (!deleted) {
                     System.out.println("⚠️ Project with ID " + projectId + " not found.");
                     routingContext.response().setStatusCode(404).end("Project not found.");
                     return;
                 }
-    
-                // Proceed with deletion if the project exists
-                client.preparedQuery(deleteSql).execute(Tuple.of(Integer.parseInt(projectId)))
-                    .onSuccess(res -> {
-                        System.out.println("✅ Project with ID " + projectId + " deleted.");
-                        routingContext.response().setStatusCode(200).end("Project deleted successfully.");
-                    })
-                    .onFailure(err -> {
-                        System.out.println("❌ Failed to delete project: " + err.getMessage());
-                        err.printStackTrace();
-                        routingContext.response().setStatusCode(500).end("Failed to delete project.");
-                    });
+                System.out.println("✅ Project with ID " + projectId + " deleted.");
+                routingContext.response().setStatusCode(200).end("Project deleted successfully.");
             })
             .onFailure(err -> {
-                System.out.println("❌ Failed to check if project exists: " + err.getMessage());
+                System.out.println("❌ Failed to delete project: " + err.getMessage());
                 err.printStackTrace();
-                routingContext.response().setStatusCode(500).end("Error: " + err.getMessage());
+                routingContext.response().setStatusCode(500).end("Failed to delete project.");
             });
     }
     
 
+    // A project with many tasks is too much for one request: answer 202 with the job's status URL
+    // and let the job delete its tasks in batches. Deleting the same project twice returns the same job.
+    void scheduleDelete(RoutingContext routingContext, int projectId) {
+        projects.findById(routingContext, projectId)
+            .onSuccess(stored -> {
+                if (stored == null) {
+                    System.out.println("⚠️ Project with ID " + projectId + " not found.");
+                    routingContext.response().setStatusCode(404).end("Project not found.");
+                    return;
+                }
+                System.out.println("⏳ Scheduling deletion of project " + projectId + ".");
+                JobScheduler.accepted(routingContext, jobs.enqueue(JobScheduler.DELETE_PROJECT,
+                    new JsonObject().put("project_id", projectId), JobScheduler.DELETE_PROJECT + ":" + projectId));
+            })
+            .onFailure(err -> {
+                System.out.println("❌ Failed to delete project: " + err.getMessage());
+                routingContext.response().setStatusCode(500).end("Failed to delete project.");
+            });
+    }
+
+    boolean hasJobs() {
+        return jobs != null;
+    }
+
+    // Dashboard aggregates for one project, computed in a single grouped query
+    public void getProjectSummary(RoutingContext routingContext) {
+        String projectId = routingContext.request().getParam("id");
+        if (projectId == null) {
+            routingContext.response().setStatusCode(400).end("Project ID is required.");
+            return;
+        }
+
+        int id;
+        try {
+            id = Integer.parseInt(projectId);
+        } catch (NumberFormatException e) {
+            routingContext.response().setStatusCode(400).end("Invalid project ID.");
+            return;
+        }
+
+        fetchSummaries(routingContext, new Integer[] { id })
+            .onSuccess(summaries -> {
+                if (summaries.isEmpty()) {
+                    routingContext.response().setStatusCode(404).end("Project not found.");
+                    return;
+                }
+                routingContext.response()
+                    .putHeader("Content-Type", "application/json")
+                    .end(summaries.getJsonObject(0).encode());
+            })
+            .onFailure(err -> {
+                err.printStackTrace();
+                routingContext.response().setStatusCode(500).end("Failed to fetch project summary: " + err.getMessage());
+            });
+    }
+
+    // Portfolio view: GET /projects/summary?ids=1,2,3 returns the summaries of all listed projects in one round trip
+    public void getPortfolioSummary(RoutingContext routingContext) {
+        String idsParam = routingContext.request().getParam("ids");
+        if (idsParam == null || idsParam.isBlank()) {
+            routingContext.response().setStatusCode(400).end("Query parameter 'ids' is required.");
+            return;
+        }
+
+        String[] parts = idsParam.split(",");
+        if (parts.length > MAX_SUMMARY_PROJECTS) {
+            routingContext.response().setStatusCode(400).end("At most " + MAX_SUMMARY_PROJECTS + " projects per request.");
+            return;
+        }
+
+        Integer[] ids = new Integer[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                ids[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            routingContext.response().setStatusCode(400).end("Invalid project ID list.");
+            return;
+        }
+
+        fetchSummaries(routingContext, ids)
+            .onSuccess(summaries -> routingContext.response()
+                .putHeader("Content-Type", "application/json")
+                .end(new JsonObject().put("projects", summaries).encode()))
+            .onFailure(err -> {
+                err.printStackTrace();
+                routingContext.response().setStatusCode(500).end("Failed to fetch project summaries: " + err.getMessage());
+            });
+    }
+
+    private Future<JsonArray> fetchSummaries(RoutingContext routingContext, Integer[] ids) {
+        return projects.summaries(routingContext, ids);
+    }
+
     // Helper method to validate the project status
-    private boolean isValidStatus(String status) {
+    boolean isValidStatus(String status) {
         // Define allowed statuses
         List<String> validStatuses = Arrays.asList("New", "In Progress", "Completed", "On Hold");
         return validStatuses.contains(status);
     }
     public Future<Void> updateProjectStatus(int projectId, String status) {
-        String sql = "UPDATE projects SET status = ? WHERE id = ?";
-        return client
-            .preparedQuery(sql)
-            .execute(Tuple.of(status, projectId))
-            .mapEmpty();
+        return projects.updateStatus(projectId, status);
     }
     
 }
@@ -0,0 +1,34 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.List;
+
+// Project storage used by ProjectHandler. ctx as in TaskRepository.
+public interface ProjectRepository {
+
+    // Returns the generated id
+    Future<Integer> create(RoutingContext ctx, Project project);
+
+    Future<List<Project>> findAll(RoutingContext ctx);
+
+    // null when missing
+    Future<Project> findById(RoutingContext ctx, int projectId);
+
+    // The listed projects that exist, in no particular order
+    Future<List<Project>> findByIds(RoutingContext ctx, Integer[] projectIds);
+
+    // null arguments keep the current value
+    Future<Void> update(RoutingContext ctx, int projectId, String name, String description, String status);
+
+    // false when the project does not exist
+    Future<Boolean> delete(RoutingContext ctx, int projectId);
+
+    Future<Void> updateStatus(int projectId, String status);
+
+    // Dashboard aggregates per existing project, ordered by id:
+    // {project_id, by_status, by_assignee, unassigned, name, status, task_count, average_progress}
+    Future<JsonArray> summaries(RoutingContext ctx, Integer[] projectIds);
+}
@@ -0,0 +1,108 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgPool;
+
+import java.util.List;
+
+// Idempotent DDL applied at startup, in order. Every statement must be safe to re-run.
+public class SchemaMigrations {
+
+    static final String TASKS_ASSIGNED_INDEX = "CREATE INDEX IF NOT EXISTS idx_tasks_assigned_to ON tasks (assigned_to)";
+
+    private static final List<String> STATEMENTS = List.of(
+        "ALTER TABLE tasks ADD COLUMN IF NOT EXISTS due_date DATE",
+        TASKS_ASSIGNED_INDEX,
+        "CREATE TABLE IF NOT EXISTS token_revocations (" +
+            "id SERIAL PRIMARY KEY, user_id INTEGER, token_id VARCHAR(64), " +
+            "revoked_at TIMESTAMPTZ NOT NULL, expires_at TIMESTAMPTZ NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_token_revocations_expires_at ON token_revocations (expires_at)",
+        "CREATE TABLE IF NOT EXISTS task_activity (" +
+            "id BIGSERIAL PRIMARY KEY, task_id INTEGER NOT NULL, project_id INTEGER, actor_id INTEGER, " +
+            "action VARCHAR(32) NOT NULL, details JSONB NOT NULL DEFAULT '{}', created_at TIMESTAMPTZ NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_task_activity_task ON task_activity (task_id, id)",
+        "CREATE INDEX IF NOT EXISTS idx_task_activity_project ON task_activity (project_id, id)",
+        "CREATE TABLE IF NOT EXISTS project_progress_daily (" +
+            "project_id INTEGER NOT NULL, day DATE NOT NULL, total_tasks INTEGER NOT NULL, completed_tasks INTEGER NOT NULL, " +
+            "progress_sum BIGINT NOT NULL, progress_count INTEGER NOT NULL, updated_at TIMESTAMPTZ NOT NULL, " +
+            "PRIMARY KEY (project_id, day))",
+        // Starting bucket for projects that had tasks before burndown tracking existed
+        ProgressHistory.INSERT_BUCKET +
+            "SELECT project_id, CURRENT_DATE, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE " + ProgressHistory.COMPLETED_CONDITION + "), " +
+            "COALESCE(SUM(progress), 0), COUNT(progress), NOW() FROM tasks t " +
+            "WHERE project_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM project_progress_daily p WHERE p.project_id = t.project_id) " +
+            "GROUP BY project_id",
+        // Background jobs (JobScheduler); the partial unique index lets a dedupe key be reused once its job is done
+        "CREATE TABLE IF NOT EXISTS jobs (" +
+            "id BIGSERIAL PRIMARY KEY, type VARCHAR(32) NOT NULL, payload JSONB NOT NULL DEFAULT '{}', " +
+            "state VARCHAR(16) NOT NULL DEFAULT 'queued', attempts INTEGER NOT NULL DEFAULT 0, max_attempts INTEGER NOT NULL, " +
+            "progress JSONB NOT NULL DEFAULT '{}', error TEXT, dedupe_key VARCHAR(128), " +
+            "run_after TIMESTAMPTZ NOT NULL DEFAULT NOW(), locked_by VARCHAR(64), locked_until TIMESTAMPTZ, " +
+            "created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), started_at TIMESTAMPTZ, updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), " +
+            "finished_at TIMESTAMPTZ)",
+        "CREATE INDEX IF NOT EXISTS idx_jobs_runnable ON jobs (state, run_after) WHERE state IN ('queued', 'running')",
+        "CREATE UNIQUE INDEX IF NOT EXISTS idx_jobs_dedupe_key ON jobs (dedupe_key) WHERE state IN ('queued', 'running')",
+        // Blocked-by relations between tasks of one project (TaskGraphs)
+        "CREATE TABLE IF NOT EXISTS task_dependencies (" +
+            "task_id INTEGER NOT NULL, depends_on INTEGER NOT NULL, project_id INTEGER NOT NULL, " +
+            "created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(), PRIMARY KEY (task_id, depends_on))",
+        "CREATE INDEX IF NOT EXISTS idx_task_dependencies_project ON task_dependencies (project_id)",
+        "CREATE INDEX IF NOT EXISTS idx_task_dependencies_depends_on ON task_dependencies (depends_on)"
+    );
+
+    // Change tracking for delta sync. change_seq is the id of the transaction that last wrote the
+    // row, set on insert by the default and on update by the trigger, which also records deletes
+    // and unassignments as tombstones; a deleted task also takes its task_dependencies rows along,
+    // whichever path deleted it. Runs after partitioning, since swapping in the partitioned
+    // table drops triggers and indexes; TaskPartitioning's cutover re-applies it for the same reason.
+    static final List<String> CHANGE_TRACKING = List.of(
+        "ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint",
+        // A partitioning migration in progress copies whole rows, so its shadow table needs the column too
+        "ALTER TABLE IF EXISTS tasks_partitioned ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint",
+        "CREATE INDEX IF NOT EXISTS idx_tasks_project_change ON tasks (project_id, change_seq)",
+        "CREATE INDEX IF NOT EXISTS idx_tasks_assigned_change ON tasks (assigned_to, change_seq)",
+        "CREATE TABLE IF NOT EXISTS task_tombstones (" +
+            "task_id INTEGER NOT NULL, project_id INTEGER, assigned_to INTEGER, reason VARCHAR(16) NOT NULL, " +
+            "change_seq BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint, removed_at TIMESTAMPTZ NOT NULL DEFAULT NOW())",
+        "CREATE INDEX IF NOT EXISTS idx_task_tombstones_project ON task_tombstones (project_id, change_seq)",
+        "CREATE INDEX IF NOT EXISTS idx_task_tombstones_assignee ON task_tombstones (assigned_to, change_seq)",
+        "CREATE INDEX IF NOT EXISTS idx_task_tombstones_removed_at ON task_tombstones (removed_at)",
+        // Highest change_seq of any pruned tombstone; cursors at or below it can no longer be served
+        "CREATE TABLE IF NOT EXISTS task_sync_state (id INTEGER PRIMARY KEY CHECK (id = 1), pruned_through BIGINT NOT NULL)",
+        "INSERT INTO task_sync_state VALUES (1, 0) ON CONFLICT (id) DO NOTHING",
+        "CREATE OR REPLACE FUNCTION tasks_track_change() RETURNS trigger LANGUAGE plpgsql AS $$\n" +
+            "BEGIN\n" +
+            "    IF TG_OP = 'DELETE' THEN\n" +
+            "        INSERT INTO task_tombstones (task_id, project_id, assigned_to, reason) VALUES (OLD.id, OLD.project_id, OLD.assigned_to, 'deleted');\n" +
+            "        DELETE FROM task_dependencies WHERE task_id = OLD.id OR depends_on = OLD.id;\n" +
+            "        RETURN OLD;\n" +
+            "    END IF;\n" +
+            "    NEW.change_seq := pg_current_xact_id()::text::bigint;\n" +
+            "    IF OLD.assigned_to IS NOT NULL AND OLD.assigned_to IS DISTINCT FROM NEW.assigned_to THEN\n" +
+            "        INSERT INTO task_tombstones (task_id, project_id, assigned_to, reason) VALUES (OLD.id, OLD.project_id, OLD.assigned_to, 'unassigned');\n" +
+            "    END IF;\n" +
+            "    RETURN NEW;\n" +
+            "END\n" +
+            "$$",
+        "DROP TRIGGER IF EXISTS tasks_track_change ON tasks",
+        "CREATE TRIGGER tasks_track_change BEFORE UPDATE OR DELETE ON tasks FOR EACH ROW EXECUTE FUNCTION tasks_track_change()"
+    );
+
+    public static Future<Void> run(PgPool client, JsonObject partitioning) {
+        Future<Void> chain = Future.succeededFuture();
+        for (String statement : STATEMENTS) {
+            chain = chain.compose(v -> client.query(statement).execute().mapEmpty());
+        }
+        if (TaskPartitioning.enabled(partitioning)) {
+            chain = chain.compose(v -> TaskPartitioning.migrate(client, partitioning));
+        }
+        for (String statement : CHANGE_TRACKING) {
+            chain = chain.compose(v -> client.query(statement).execute().mapEmpty());
+        }
+        return chain
+            .onSuccess(v -> System.out.println("✅ Schema migrations applied (" + (STATEMENTS.size() + CHANGE_TRACKING.size()) + " statements)."))
+            .onFailure(err -> System.out.println("❌ Schema migration failed: " + err.getMessage()));
+    }
+}
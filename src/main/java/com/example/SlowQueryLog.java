@@ -0,0 +1,265 @@
+package com.example;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Statements that take longer than thresholdMs are logged with their parameters (password values
+// redacted) and aggregated by normalised SQL. For explainSampleRate of them, at most once per
+// explainIntervalMs per statement and one at a time, the plan is captured inside a transaction that
+// is always rolled back: EXPLAIN (ANALYZE, BUFFERS) for reads, plain EXPLAIN for writes, which are
+// not executed again (triggers, sequences and locks would not all roll back).
+// Timings come from Tracing.query, which every repository query goes through.
+public final class SlowQueryLog {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$])\\d+(?:\\.\\d+)?");
+    private static final Pattern PASSWORD_COMPARISON = Pattern.compile("(?i)\\bpassword\\s*=\\s*\\$(\\d+)");
+    private static final Pattern INSERT_COLUMNS = Pattern.compile("(?i)^\\s*INSERT\\s+INTO\\s+\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(");
+    private static final Pattern READ_STATEMENT = Pattern.compile("(?i)^[\\s(]*(SELECT|WITH)\\b");
+    private static final Pattern WRITE_KEYWORD = Pattern.compile("(?i)\\b(INSERT|UPDATE|DELETE|MERGE)\\b");
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private static volatile SlowQueryLog instance;
+
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final long explainIntervalMs;
+    private final int topN;
+
+    private final Map<String, Stats> statements = new ConcurrentHashMap<>();
+    private final AtomicBoolean explaining = new AtomicBoolean();
+
+    private SlowQueryLog(JsonObject config) {
+        this.thresholdNanos = config.getLong("thresholdMs", 250L) * 1_000_000L;
+        this.explainSampleRate = config.getDouble("explainSampleRate", 0.1);
+        this.explainIntervalMs = config.getLong("explainIntervalMs", 60_000L);
+        this.topN = config.getInteger("topN", 20);
+    }
+
+    public static void configure(JsonObject config) {
+        if (config == null) {
+            config = new JsonObject();
+        }
+        if (!config.getBoolean("enabled", true)) {
+            instance = null;
+            return;
+        }
+        instance = new SlowQueryLog(config);
+        System.out.println("✅ Slow query log above " + instance.thresholdNanos / 1_000_000 + " ms.");
+    }
+
+    // Called with the time from issuing the statement to its result, including the wait for a pooled connection
+    static void record(SqlClient client, String sql, Tuple args, long durationNanos) {
+        SlowQueryLog log = instance;
+        if (log == null || durationNanos < log.thresholdNanos) {
+            return;
+        }
+        log.slow(client, sql, args, durationNanos);
+    }
+
+    // GET /admin/slow-queries?limit=: the slowest statements by worst execution, with their last plan
+    public static void list(RoutingContext ctx) {
+        SlowQueryLog log = instance;
+        JsonArray result = new JsonArray();
+        if (log != null) {
+            int limit = log.topN;
+            String limitParam = ctx.request().getParam("limit");
+            if (limitParam != null) {
+                try {
+                    limit = Math.max(1, Integer.parseInt(limitParam));
+                } catch (NumberFormatException e) {
+                    ctx.response().setStatusCode(400).end("Invalid limit");
+                    return;
+                }
+            }
+            List<Stats> slowest = new ArrayList<>(log.statements.values());
+            slowest.sort((a, b) -> Long.compare(b.maxNanos(), a.maxNanos()));
+            for (Stats stats : slowest.subList(0, Math.min(limit, slowest.size()))) {
+                result.add(stats.toJson());
+            }
+        }
+        ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .end(result.encode());
+    }
+
+    private void slow(SqlClient client, String sql, Tuple args, long durationNanos) {
+        String normalized = normalize(sql);
+        JsonArray parameters = parameters(sql, args);
+        Stats stats = statements.computeIfAbsent(normalized, Stats::new);
+        boolean explain = stats.add(durationNanos, parameters, explainIntervalMs)
+            && client instanceof Pool
+            && ThreadLocalRandom.current().nextDouble() < explainSampleRate;
+
+        System.out.println("⏳ Slow query (" + durationNanos / 1_000_000 + " ms): " + normalized + " " + parameters.encode());
+
+        if (explain && explaining.compareAndSet(false, true)) {
+            stats.explainStarted();
+            explain((Pool) client, sql, args, stats);
+        }
+    }
+
+    private void explain(Pool pool, String sql, Tuple args, Stats stats) {
+        pool.withConnection(conn -> conn.begin().compose(tx -> conn
+                .preparedQuery(explainPrefix(sql) + sql)
+                .execute(args)
+                .eventually(v -> tx.rollback())))
+            .onSuccess(rows -> {
+                JsonArray plan = new JsonArray();
+                for (Row row : rows) {
+                    plan.add(row.getString(0));
+                }
+                stats.plan(plan);
+            })
+            .onFailure(err -> System.out.println("❌ EXPLAIN failed for " + stats.sql + ": " + err.getMessage()))
+            .onComplete(ar -> explaining.set(false));
+    }
+
+    // Only plain reads are executed again; anything that writes (including a WITH around an
+    // INSERT, or SELECT ... FOR UPDATE) gets the estimated plan
+    static String explainPrefix(String sql) {
+        boolean read = READ_STATEMENT.matcher(sql).find() && !WRITE_KEYWORD.matcher(sql).find();
+        return read ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ";
+    }
+
+    // Collapses whitespace and replaces literals, so the same statement with inlined values aggregates together
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    // Parameter values for the log; the ones bound to a password column are redacted
+    static JsonArray parameters(String sql, Tuple args) {
+        Set<Integer> redacted = passwordParameters(sql);
+        JsonArray parameters = new JsonArray();
+        for (int i = 0; i < args.size(); i++) {
+            Object value = args.getValue(i);
+            if (redacted.contains(i + 1)) {
+                parameters.add("***");
+            } else if (value == null) {
+                parameters.addNull();
+            } else {
+                String text = value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value);
+                parameters.add(text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text);
+            }
+        }
+        return parameters;
+    }
+
+    // $n positions bound to a column named password, in "password = $n" or an INSERT column list
+    private static Set<Integer> passwordParameters(String sql) {
+        Set<Integer> positions = new HashSet<>();
+        Matcher comparison = PASSWORD_COMPARISON.matcher(sql);
+        while (comparison.find()) {
+            positions.add(Integer.parseInt(comparison.group(1)));
+        }
+
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            String[] columns = insert.group(1).split(",");
+            List<String> values = splitTopLevel(sql, insert.end());
+            for (int i = 0; i < columns.length && i < values.size(); i++) {
+                String value = values.get(i).trim();
+                if (columns[i].trim().equalsIgnoreCase("password") && value.startsWith("$")) {
+                    positions.add(Integer.parseInt(value.substring(1)));
+                }
+            }
+        }
+        return positions;
+    }
+
+    // The comma-separated expressions of a VALUES list starting at from, which may contain calls like NOW()
+    private static List<String> splitTopLevel(String sql, int from) {
+        List<String> values = new ArrayList<>();
+        int depth = 0;
+        int start = from;
+        for (int i = from; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && depth > 0) {
+                depth--;
+            } else if (c == ')' || (c == ',' && depth == 0)) {
+                values.add(sql.substring(start, i));
+                start = i + 1;
+                if (c == ')') {
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    // Aggregate of one normalised statement; updated from any event loop
+    private static final class Stats {
+        final String sql;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private JsonArray lastParameters;
+        private Instant lastSeen;
+        private long lastExplainMs;
+        private JsonArray plan;
+        private Instant planCapturedAt;
+
+        Stats(String sql) {
+            this.sql = sql;
+        }
+
+        // Returns whether the statement is due for another EXPLAIN
+        synchronized boolean add(long durationNanos, JsonArray parameters, long explainIntervalMs) {
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+            lastParameters = parameters;
+            lastSeen = Instant.now();
+            return System.currentTimeMillis() - lastExplainMs >= explainIntervalMs;
+        }
+
+        synchronized void explainStarted() {
+            lastExplainMs = System.currentTimeMillis();
+        }
+
+        synchronized void plan(JsonArray plan) {
+            this.plan = plan;
+            this.planCapturedAt = Instant.now();
+        }
+
+        synchronized long maxNanos() {
+            return maxNanos;
+        }
+
+        synchronized JsonObject toJson() {
+            return new JsonObject()
+                .put("sql", sql)
+                .put("count", count)
+                .put("total_ms", totalNanos / 1_000_000.0)
+                .put("average_ms", totalNanos / 1_000_000.0 / count)
+                .put("max_ms", maxNanos / 1_000_000.0)
+                .put("last_parameters", lastParameters)
+                .put("last_seen", lastSeen.toString())
+                .put("plan", plan)
+                .put("plan_captured_at", planCapturedAt != null ? planCapturedAt.toString() : null);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.PreparedStatement;
+import io.vertx.sqlclient.SqlConnection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Startup phase run after the server is listening: prepares every statement on every pooled
+// connection, optionally replays synthetic GET traffic to warm the JIT, then reports ready.
+public class StartupWarmup {
+
+    // Writes and row locks, which are never routed to a replica and not worth preparing there
+    private static final Pattern WRITE = Pattern.compile("\\b(INSERT|UPDATE|DELETE|pg_advisory\\w*)\\b", Pattern.CASE_INSENSITIVE);
+    private static final long RETRY_DELAY_MS = 5000;
+
+    private final Vertx vertx;
+    private final DatabaseConnector db;
+    private final JsonObject config;
+    private volatile boolean ready;
+
+    public StartupWarmup(Vertx vertx, DatabaseConnector db, JsonObject config) {
+        this.vertx = vertx;
+        this.db = db;
+        this.config = config;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // GET /health/ready: 503 until warm-up has finished
+    public void readiness(RoutingContext ctx) {
+        ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .setStatusCode(ready ? 200 : 503)
+            .end(new JsonObject().put("status", ready ? "ready" : "warming-up").encode());
+    }
+
+    public void run(int httpPort, boolean tls, List<String> statements) {
+        if (!config.getBoolean("enabled", true)) {
+            ready = true;
+            System.out.println("✅ Warm-up disabled, service is ready.");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        // Nothing to prepare without a database (in-memory storage), only the replay runs
+        Future<Long> prepared = db == null
+            ? Future.succeededFuture(0L)
+            : db.primary().query("SELECT 1").execute()
+                .onSuccess(res -> System.out.println("✅ Database test query succeeded."))
+                .onFailure(err -> System.out.println("❌ Database test query failed: " + err.getMessage()))
+                .compose(res -> prepareAll(statements));
+        prepared
+            .compose(prepareMs -> {
+                long replayStarted = System.currentTimeMillis();
+                return replay(httpPort, tls).map(v -> {
+                    System.out.println("✅ Warm-up finished: statements " + prepareMs + " ms, synthetic requests "
+                        + (System.currentTimeMillis() - replayStarted) + " ms, total "
+                        + (System.currentTimeMillis() - started) + " ms.");
+                    return v;
+                });
+            })
+            .onSuccess(v -> {
+                ready = true;
+                System.out.println("✅ Service is ready.");
+            })
+            .onFailure(err -> {
+                System.out.println("❌ Warm-up failed: " + err.getMessage() + " (retrying in " + RETRY_DELAY_MS + " ms)");
+                vertx.setTimer(RETRY_DELAY_MS, id -> run(httpPort, tls, statements));
+            });
+    }
+
+    // Replicas only get the read statements: reads are all that is routed to them
+    private Future<Long> prepareAll(List<String> statements) {
+        long started = System.currentTimeMillis();
+        List<String> reads = new ArrayList<>();
+        for (String sql : statements) {
+            if (!WRITE.matcher(sql).find()) {
+                reads.add(sql);
+            }
+        }
+        List<Future<Void>> pools = new ArrayList<>();
+        for (Map.Entry<PgPool, Integer> pool : db.pools().entrySet()) {
+            pools.add(preparePool(pool.getKey(), pool.getValue(), pool.getKey() == db.primary() ? statements : reads));
+        }
+        return Future.join(pools).map(v -> System.currentTimeMillis() - started);
+    }
+
+    // Holds every connection of the pool at once so each backend parses every statement once
+    private Future<Void> preparePool(PgPool pool, int size, List<String> statements) {
+        List<Future<SqlConnection>> connections = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            connections.add(pool.getConnection());
+        }
+
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        return Future.join(connections).transform(joined -> {
+            List<Future<Void>> warmed = new ArrayList<>();
+            for (Future<SqlConnection> connection : connections) {
+                if (connection.succeeded()) {
+                    SqlConnection conn = connection.result();
+                    warmed.add(prepareConnection(conn, statements, failures).eventually(v -> conn.close()));
+                }
+            }
+            return Future.join(warmed);
+        }).map(v -> {
+            long opened = connections.stream().filter(Future::succeeded).count();
+            System.out.println("✅ Prepared " + statements.size() + " statements on " + opened + "/" + size + " connections"
+                + (failures.isEmpty() ? "." : " (" + failures.size() + " statements failed to prepare)."));
+            return null;
+        });
+    }
+
+    // Statements are only parsed and described, one after the other, never executed: running
+    // writes, even rolled back, would still advance sequences, fire triggers and wait on locks.
+    private Future<Void> prepareConnection(SqlConnection conn, List<String> statements, Map<String, String> failures) {
+        Future<Void> chain = Future.succeededFuture();
+        for (String sql : statements) {
+            chain = chain.compose(v -> conn.prepare(sql)
+                .compose(PreparedStatement::close)
+                .transform(prepared -> {
+                    if (prepared.failed()) {
+                        failures.putIfAbsent(sql, prepared.cause().getMessage());
+                    }
+                    return Future.succeededFuture();
+                }));
+        }
+        return chain;
+    }
+
+    // Replays a synthetic GET mix through our own router so the hot handler paths get JIT-compiled
+    private Future<Void> replay(int httpPort, boolean tls) {
+        int total = config.getInteger("syntheticRequests", 0);
+        if (total <= 0) {
+            return Future.succeededFuture();
+        }
+
+        List<String> paths = new ArrayList<>();
+        JsonArray configured = config.getJsonArray("paths", new JsonArray()
+            .add("/projects").add("/projects/1").add("/projects/1/summary").add("/tasks/1").add("/tasks/user/1"));
+        configured.forEach(path -> paths.add(path.toString()));
+
+        int concurrency = config.getInteger("concurrency", 4);
+        HttpClient http = vertx.createHttpClient(new HttpClientOptions()
+            .setDefaultHost("localhost")
+            .setDefaultPort(httpPort)
+            // Our own certificate, which need not be valid for localhost
+            .setSsl(tls)
+            .setTrustAll(tls)
+            .setVerifyHost(false)
+            .setMaxPoolSize(concurrency));
+
+        AtomicInteger next = new AtomicInteger();
+        List<Future<Void>> lanes = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            lanes.add(replayLane(http, paths, next, total));
+        }
+        return Future.join(lanes)
+            .eventually(v -> http.close())
+            .onSuccess(v -> System.out.println("✅ Replayed " + total + " synthetic requests."))
+            .mapEmpty();
+    }
+
+    private Future<Void> replayLane(HttpClient http, List<String> paths, AtomicInteger next, int total) {
+        int n = next.getAndIncrement();
+        if (n >= total) {
+            return Future.succeededFuture();
+        }
+        return http.request(HttpMethod.GET, paths.get(n % paths.size()))
+            .compose(request -> request.send())
+            .compose(response -> response.body())
+            // Error statuses (missing ids, auth) still exercise the code path, so they are not fatal
+            .transform(ar -> replayLane(http, paths, next, total));
+    }
+}
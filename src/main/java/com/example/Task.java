@@ -0,0 +1,33 @@
+package com.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row of the tasks table. Immutable, so the in-memory engine can hand out the stored
+// instance itself. changeSeq is the row's change_seq where it was read from Postgres, null otherwise.
+public record Task(
+    Integer id,
+    Integer projectId,
+    String name,
+    String description,
+    String status,
+    Integer assignedTo,
+    LocalDateTime createdAt,
+    Integer progress,
+    LocalDate dueDate,
+    Long changeSeq
+) {
+
+    public Task(Integer id, Integer projectId, String name, String description, String status, Integer assignedTo,
+                LocalDateTime createdAt, Integer progress, LocalDate dueDate) {
+        this(id, projectId, name, description, status, assignedTo, createdAt, progress, dueDate, null);
+    }
+
+    public Task withId(Integer newId, LocalDateTime newCreatedAt) {
+        return new Task(newId, projectId, name, description, status, assignedTo, newCreatedAt, progress, dueDate);
+    }
+
+    public Task withAssignedTo(Integer newAssignedTo) {
+        return new Task(id, projectId, name, description, status, newAssignedTo, createdAt, progress, dueDate);
+    }
+}
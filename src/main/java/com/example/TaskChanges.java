@@ -0,0 +1,16 @@
+package com.example;
+
+import java.util.List;
+
+// Result of a delta read: tasks created or updated since the cursor, tasks that left the list
+// since (deleted, or unassigned from the user), and the cursor for the next read
+public record TaskChanges(
+    List<Task> tasks,
+    List<Removal> removed,
+    long cursor
+) {
+
+    // reason is "deleted" or "unassigned"
+    public record Removal(int taskId, Integer projectId, String reason) {
+    }
+}
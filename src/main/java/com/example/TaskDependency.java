@@ -0,0 +1,6 @@
+package com.example;
+
+// One blocked-by relation: taskId cannot start before dependsOn is done. Both tasks belong to
+// the same project.
+public record TaskDependency(int taskId, int dependsOn) {
+}
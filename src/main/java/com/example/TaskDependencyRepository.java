@@ -0,0 +1,21 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.List;
+
+// Storage of the blocked-by relations between tasks, used by TaskGraphs. Deleting a task also
+// deletes its relations (a trigger on Postgres, the store itself in memory).
+public interface TaskDependencyRepository {
+
+    // Read from the primary: the result is cached as the project's graph
+    Future<List<TaskDependency>> findByProject(int projectId);
+
+    // false when nothing was stored: one of the tasks is not in the project, or the relation would
+    // close a cycle with relations written meanwhile by another instance
+    Future<Boolean> add(RoutingContext ctx, int projectId, TaskDependency dependency);
+
+    // false when there was no such relation
+    Future<Boolean> remove(RoutingContext ctx, int projectId, TaskDependency dependency);
+}
@@ -0,0 +1,413 @@
+package com.example;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+// Blocked-by graph of one project's tasks with its critical path kept up to date. Edges run from
+// a task to the tasks it blocks. The nodes keep a topological order (Pearce-Kelly): an edge that
+// agrees with it changes nothing, one that does not only reorders the nodes between its two ends,
+// and the search doing that is also the cycle check. A task's earliest finish is the latest finish
+// among its blockers plus its own remaining work. After a change only the tasks whose finish
+// actually moves are recomputed, in topological order, and each task points at the blocker that
+// decides its start, so reading the critical path costs its length.
+// Not thread-safe: TaskGraphs uses it from one event loop.
+final class TaskGraph {
+
+    private static final int NONE = -1;
+
+    private final IntIntMap nodes = new IntIntMap(); // task id -> node
+    private final IntList freeNodes = new IntList();
+    // (finish << 32 | node) of every task; the last one ends the critical path
+    private final TreeSet<Long> finishes = new TreeSet<>();
+    private final PriorityQueue<Integer> pending = new PriorityQueue<>((a, b) -> Integer.compare(this.ord[a], this.ord[b]));
+
+    private Task[] tasks = new Task[16];
+    private int[] ord = new int[16];
+    private int[] remaining = new int[16];
+    private int[] finish = new int[16];
+    private int[] decidedBy = new int[16];
+    private int[] mark = new int[16];
+    private IntList[] blockers = new IntList[16];
+    private IntList[] blocks = new IntList[16];
+    private int nodeCount;
+    private int nextOrd;
+    private int markEpoch;
+    private int edgeCount;
+
+    // Edges that name unknown tasks are skipped. Stored edges never form a cycle (they are
+    // checked on insert), but if they do the ones closing it are dropped with a warning.
+    TaskGraph(List<Task> projectTasks, List<TaskDependency> dependencies) {
+        for (Task task : projectTasks) {
+            int node = allocate(task);
+            remaining[node] = remainingWork(task);
+        }
+        for (TaskDependency dependency : dependencies) {
+            int from = nodes.get(dependency.dependsOn());
+            int to = nodes.get(dependency.taskId());
+            if (from != IntIntMap.MISSING && to != IntIntMap.MISSING && from != to && !blocks[from].contains(to)) {
+                link(from, to);
+            }
+        }
+
+        // Kahn's algorithm: order and finish times in one pass
+        int[] waiting = new int[nodeCount];
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int node = 0; node < nodeCount; node++) {
+            waiting[node] = blockers[node].size();
+            if (waiting[node] == 0) {
+                ready.add(node);
+            }
+        }
+        int ordered = 0;
+        while (ordered < nodeCount) {
+            if (ready.isEmpty()) {
+                breakCycle(waiting, ready);
+            }
+            int node = ready.poll();
+            ord[node] = nextOrd++;
+            ordered++;
+            recompute(node);
+            finishes.add(key(node));
+            for (int i = 0; i < blocks[node].size(); i++) {
+                int next = blocks[node].get(i);
+                if (--waiting[next] == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+    }
+
+    int taskCount() {
+        return nodes.size();
+    }
+
+    int dependencyCount() {
+        return edgeCount;
+    }
+
+    boolean contains(int taskId) {
+        return nodes.containsKey(taskId);
+    }
+
+    boolean hasDependency(int taskId, int dependsOn) {
+        int from = nodes.get(dependsOn);
+        int to = nodes.get(taskId);
+        return from != IntIntMap.MISSING && to != IntIntMap.MISSING && blocks[from].contains(to);
+    }
+
+    // A new task, or new values for a known one; only a changed progress moves finish times
+    void put(Task task) {
+        int node = nodes.get(task.id());
+        if (node == IntIntMap.MISSING) {
+            node = allocate(task);
+            ord[node] = nextOrd++;
+            remaining[node] = remainingWork(task);
+            recompute(node);
+            finishes.add(key(node));
+            return;
+        }
+        tasks[node] = task;
+        int work = remainingWork(task);
+        if (work != remaining[node]) {
+            remaining[node] = work;
+            pending.add(node);
+            propagate();
+        }
+    }
+
+    void remove(int taskId) {
+        int node = nodes.remove(taskId);
+        if (node == IntIntMap.MISSING) {
+            return;
+        }
+        while (!blockers[node].isEmpty()) {
+            unlink(blockers[node].get(blockers[node].size() - 1), node);
+        }
+        while (!blocks[node].isEmpty()) {
+            int next = blocks[node].get(blocks[node].size() - 1);
+            unlink(node, next);
+            pending.add(next);
+        }
+        finishes.remove(key(node));
+        tasks[node] = null;
+        freeNodes.add(node);
+        propagate();
+    }
+
+    // taskId cannot start before dependsOn finishes. false, and nothing changes, when dependsOn
+    // already waits on taskId (directly or not): the edge would close a cycle.
+    boolean addDependency(int taskId, int dependsOn) {
+        int from = nodes.get(dependsOn);
+        int to = nodes.get(taskId);
+        if (from == IntIntMap.MISSING || to == IntIntMap.MISSING) {
+            throw new IllegalArgumentException("Unknown task");
+        }
+        if (from == to) {
+            return false;
+        }
+        if (blocks[from].contains(to)) {
+            return true;
+        }
+        if (ord[from] > ord[to] && !reorder(from, to)) {
+            return false;
+        }
+        link(from, to);
+        pending.add(to);
+        propagate();
+        return true;
+    }
+
+    // Whether addDependency would refuse the edge, without changing anything: lets the caller store
+    // the edge first and add it once stored
+    boolean closesCycle(int taskId, int dependsOn) {
+        int from = nodes.get(dependsOn);
+        int to = nodes.get(taskId);
+        if (from == IntIntMap.MISSING || to == IntIntMap.MISSING) {
+            throw new IllegalArgumentException("Unknown task");
+        }
+        if (from == to) {
+            return true;
+        }
+        if (blocks[from].contains(to) || ord[from] < ord[to]) {
+            return false;
+        }
+        return forwardSet(from, to) == null;
+    }
+
+    // Removing an edge never breaks the order, only finish times may drop
+    boolean removeDependency(int taskId, int dependsOn) {
+        int from = nodes.get(dependsOn);
+        int to = nodes.get(taskId);
+        if (from == IntIntMap.MISSING || to == IntIntMap.MISSING || !blocks[from].contains(to)) {
+            return false;
+        }
+        unlink(from, to);
+        pending.add(to);
+        propagate();
+        return true;
+    }
+
+    // Total remaining work along the longest chain of blockers
+    int length() {
+        return finishes.isEmpty() ? 0 : finish[(int) (long) finishes.last()];
+    }
+
+    // First task to last
+    JsonArray criticalPath() {
+        if (finishes.isEmpty()) {
+            return new JsonArray();
+        }
+        int count = 0;
+        for (int node = (int) (long) finishes.last(); node != NONE; node = decidedBy[node]) {
+            count++;
+        }
+        JsonObject[] steps = new JsonObject[count];
+        for (int node = (int) (long) finishes.last(); node != NONE; node = decidedBy[node]) {
+            Task task = tasks[node];
+            steps[--count] = new JsonObject()
+                .put("id", task.id())
+                .put("name", task.name())
+                .put("status", task.status())
+                .put("progress", task.progress())
+                .put("remaining", remaining[node])
+                .put("earliest_start", finish[node] - remaining[node])
+                .put("earliest_finish", finish[node]);
+        }
+        return new JsonArray(Arrays.asList(steps));
+    }
+
+    // Without durations on tasks the work left is what progress (0-100) has not covered
+    static int remainingWork(Task task) {
+        Integer progress = task.progress();
+        return progress == null ? 100 : 100 - Math.max(0, Math.min(100, progress));
+    }
+
+    // Pearce-Kelly for a new edge from -> to with ord[from] > ord[to]. Forward from "to" over the
+    // nodes ordered up to "from" (reaching "from" means a cycle), back from "from" over the nodes
+    // ordered after "to", then both sets share their old positions, the backward set first.
+    private boolean reorder(int from, int to) {
+        int lower = ord[to];
+        IntList forward = forwardSet(from, to);
+        if (forward == null) {
+            return false;
+        }
+        // forwardSet left its nodes marked with the current epoch
+        int epoch = markEpoch;
+
+        IntList backward = new IntList();
+        IntList stack = new IntList();
+        stack.add(from);
+        mark[from] = epoch;
+        while (!stack.isEmpty()) {
+            int node = stack.removeLast();
+            backward.add(node);
+            for (int i = 0; i < blockers[node].size(); i++) {
+                int previous = blockers[node].get(i);
+                if (mark[previous] != epoch && ord[previous] > lower) {
+                    mark[previous] = epoch;
+                    stack.add(previous);
+                }
+            }
+        }
+
+        int[] back = sortedByOrd(backward);
+        int[] fore = sortedByOrd(forward);
+        int[] slots = new int[back.length + fore.length];
+        for (int i = 0; i < back.length; i++) {
+            slots[i] = ord[back[i]];
+        }
+        for (int i = 0; i < fore.length; i++) {
+            slots[back.length + i] = ord[fore[i]];
+        }
+        Arrays.sort(slots);
+        for (int i = 0; i < back.length; i++) {
+            ord[back[i]] = slots[i];
+        }
+        for (int i = 0; i < fore.length; i++) {
+            ord[fore[i]] = slots[back.length + i];
+        }
+        return true;
+    }
+
+    // The forward half: nodes reachable from "to" that are ordered before "from", or null when
+    // "from" itself is reachable. Leaves them marked with a new epoch.
+    private IntList forwardSet(int from, int to) {
+        int upper = ord[from];
+        int epoch = ++markEpoch;
+
+        IntList forward = new IntList();
+        IntList stack = new IntList();
+        stack.add(to);
+        mark[to] = epoch;
+        while (!stack.isEmpty()) {
+            int node = stack.removeLast();
+            forward.add(node);
+            for (int i = 0; i < blocks[node].size(); i++) {
+                int next = blocks[node].get(i);
+                if (next == from) {
+                    return null;
+                }
+                if (mark[next] != epoch && ord[next] < upper) {
+                    mark[next] = epoch;
+                    stack.add(next);
+                }
+            }
+        }
+        return forward;
+    }
+
+    private int[] sortedByOrd(IntList list) {
+        int[] nodes = list.toArray();
+        long[] keyed = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            keyed[i] = (long) ord[nodes[i]] << 32 | nodes[i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < keyed.length; i++) {
+            nodes[i] = (int) keyed[i];
+        }
+        return nodes;
+    }
+
+    // Recomputes the pending nodes in topological order; a node whose finish moves queues the
+    // nodes it blocks, so the walk stops wherever the finish times stay the same
+    private void propagate() {
+        while (!pending.isEmpty()) {
+            int node = pending.poll();
+            while (!pending.isEmpty() && pending.peek() == node) {
+                pending.poll();
+            }
+            int before = finish[node];
+            finishes.remove(key(node));
+            recompute(node);
+            finishes.add(key(node));
+            if (finish[node] != before) {
+                for (int i = 0; i < blocks[node].size(); i++) {
+                    pending.add(blocks[node].get(i));
+                }
+            }
+        }
+    }
+
+    private void recompute(int node) {
+        int start = 0;
+        int decider = NONE;
+        for (int i = 0; i < blockers[node].size(); i++) {
+            int previous = blockers[node].get(i);
+            if (finish[previous] > start || (finish[previous] == start && decider != NONE && previous < decider)) {
+                start = finish[previous];
+                decider = previous;
+            }
+        }
+        finish[node] = start + remaining[node];
+        decidedBy[node] = decider;
+    }
+
+    // Loading only: frees the waiting node with the fewest blockers left by dropping those edges
+    private void breakCycle(int[] waiting, ArrayDeque<Integer> ready) {
+        int chosen = NONE;
+        for (int node = 0; node < nodeCount; node++) {
+            if (waiting[node] > 0 && (chosen == NONE || waiting[node] < waiting[chosen])) {
+                chosen = node;
+            }
+        }
+        for (int i = blockers[chosen].size() - 1; i >= 0; i--) {
+            int previous = blockers[chosen].get(i);
+            if (waiting[previous] > 0) {
+                System.out.println("⚠️ Dropping dependency " + tasks[previous].id() + " -> " + tasks[chosen].id() + ": it closes a cycle.");
+                unlink(previous, chosen);
+            }
+        }
+        waiting[chosen] = 0;
+        ready.add(chosen);
+    }
+
+    private void link(int from, int to) {
+        blocks[from].add(to);
+        blockers[to].add(from);
+        edgeCount++;
+    }
+
+    private void unlink(int from, int to) {
+        blocks[from].removeValue(to);
+        blockers[to].removeValue(from);
+        edgeCount--;
+    }
+
+    private long key(int node) {
+        return (long) finish[node] << 32 | node;
+    }
+
+    private int allocate(Task task) {
+        int node;
+        if (!freeNodes.isEmpty()) {
+            node = freeNodes.removeLast();
+        } else {
+            node = nodeCount++;
+            if (node == tasks.length) {
+                int capacity = tasks.length * 2;
+                tasks = Arrays.copyOf(tasks, capacity);
+                ord = Arrays.copyOf(ord, capacity);
+                remaining = Arrays.copyOf(remaining, capacity);
+                finish = Arrays.copyOf(finish, capacity);
+                decidedBy = Arrays.copyOf(decidedBy, capacity);
+                mark = Arrays.copyOf(mark, capacity);
+                blockers = Arrays.copyOf(blockers, capacity);
+                blocks = Arrays.copyOf(blocks, capacity);
+            }
+            blockers[node] = new IntList(2);
+            blocks[node] = new IntList(2);
+        }
+        tasks[node] = task;
+        decidedBy[node] = NONE;
+        finish[node] = 0;
+        nodes.put(task.id(), node);
+        return node;
+    }
+}
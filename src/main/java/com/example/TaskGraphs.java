@@ -0,0 +1,413 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Blocked-by relations between the tasks of a project and the project's critical path. The first
+// read of a project builds its TaskGraph from the tasks and stored relations; after that every task
+// write made through track(...) and every relation added or removed here updates the cached graph
+// in place, touching only the tasks downstream of the change, so GET /projects/:id/critical-path
+// costs the length of the path. Writes are announced on ADDRESS and the other instances apply
+// them the same way. The graphs of up to maxCachedProjects projects are kept, least recently used
+// out first.
+public class TaskGraphs {
+
+    public static final String ADDRESS = "tasks.graph";
+
+    private final Vertx vertx;
+    private final TaskRepository tasks;
+    private final TaskDependencyRepository dependencies;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<Integer, TaskGraph> graphs;
+    private final Map<Integer, Future<TaskGraph>> loading = new HashMap<>();
+    // Projects written to while their graph was loading: that graph may predate the write
+    private final Set<Integer> staleLoads = new HashSet<>();
+
+    public TaskGraphs(Vertx vertx, TaskRepository tasks, TaskDependencyRepository dependencies, JsonObject config) {
+        this.vertx = vertx;
+        this.tasks = tasks;
+        this.dependencies = dependencies;
+        int maxCachedProjects = config.getInteger("maxCachedProjects", 1000);
+        this.graphs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TaskGraph> eldest) {
+                return size() > maxCachedProjects;
+            }
+        };
+
+        vertx.eventBus().<JsonObject>consumer(ADDRESS, message -> {
+            JsonObject change = message.body();
+            if (!origin.equals(change.getString("origin"))) {
+                apply(change);
+            }
+        });
+        // Imports and reindexing rewrite tasks wholesale, background deletes drop whole projects
+        vertx.eventBus().<JsonObject>consumer(TaskIndex.ADDRESS, message -> {
+            JsonObject change = message.body();
+            if (change.getBoolean("reload", false)) {
+                staleLoads.addAll(loading.keySet());
+                graphs.clear();
+            } else if (change.containsKey("removed_project")) {
+                drop(change.getInteger("removed_project"));
+            }
+        });
+        System.out.println("✅ Task dependencies enabled (graphs of up to " + maxCachedProjects + " projects cached).");
+    }
+
+    // Keeps the cached graphs current with the task writes made through the returned repository
+    public TaskRepository track(TaskRepository delegate) {
+        return new Tracked(delegate);
+    }
+
+    // POST /tasks/:id/dependencies {"depends_on": id}: the task cannot start before depends_on is done
+    public void addDependency(RoutingContext ctx) {
+        int taskId = Integer.parseInt(ctx.pathParam("id"));
+        JsonObject body = ctx.body().asJsonObject();
+        Integer dependsOn = body != null ? body.getInteger("depends_on") : null;
+        if (dependsOn == null) {
+            ctx.response().setStatusCode(400).end("depends_on is required.");
+            return;
+        }
+        if (dependsOn == taskId) {
+            ctx.response().setStatusCode(400).end("A task cannot depend on itself.");
+            return;
+        }
+
+        tasks.findById(ctx, taskId, TaskHandler.projectHint(ctx)).onComplete(found -> {
+            if (found.failed()) {
+                ctx.response().setStatusCode(500).end("Failed to add dependency: " + found.cause().getMessage());
+                return;
+            }
+            Task task = found.result();
+            if (task == null || task.projectId() == null) {
+                ctx.response().setStatusCode(404).end("Task not found");
+                return;
+            }
+            int projectId = task.projectId();
+            graph(ctx, projectId).onComplete(loaded -> {
+                if (loaded.failed()) {
+                    ctx.response().setStatusCode(500).end("Failed to add dependency: " + loaded.cause().getMessage());
+                    return;
+                }
+                TaskGraph graph = loaded.result();
+                graph.put(task);
+                if (!graph.contains(dependsOn)) {
+                    ctx.response().setStatusCode(400).end("depends_on must be another task of the same project.");
+                    return;
+                }
+                if (graph.hasDependency(taskId, dependsOn)) {
+                    respondWithDependency(ctx, 200, "Dependency already exists", taskId, dependsOn);
+                    return;
+                }
+                if (graph.closesCycle(taskId, dependsOn)) {
+                    ctx.response().setStatusCode(409).end("Task " + dependsOn + " already waits on task " + taskId + ", the dependency would create a cycle.");
+                    return;
+                }
+
+                // The edge joins the cached graph only once it is stored; the insert checks for cycles again
+                dependencies.add(ctx, projectId, new TaskDependency(taskId, dependsOn)).onComplete(stored -> {
+                    if (stored.succeeded() && stored.result()) {
+                        JsonObject change = new JsonObject().put("project_id", projectId).put("task_id", taskId).put("depends_on", dependsOn).put("added", true);
+                        apply(change);
+                        announce(change);
+                        respondWithDependency(ctx, 201, "Dependency added", taskId, dependsOn);
+                        return;
+                    }
+                    // Whatever was stored instead, the next read rebuilds the graph from it
+                    drop(projectId);
+                    if (stored.failed()) {
+                        ctx.response().setStatusCode(500).end("Failed to add dependency: " + stored.cause().getMessage());
+                    } else {
+                        ctx.response().setStatusCode(409).end("The dependency conflicts with a concurrent change, try again.");
+                    }
+                });
+            });
+        });
+    }
+
+    // DELETE /tasks/:id/dependencies/:dependsOn
+    public void removeDependency(RoutingContext ctx) {
+        int taskId = Integer.parseInt(ctx.pathParam("id"));
+        int dependsOn = Integer.parseInt(ctx.pathParam("dependsOn"));
+
+        tasks.findById(ctx, taskId, TaskHandler.projectHint(ctx)).onComplete(found -> {
+            if (found.failed()) {
+                ctx.response().setStatusCode(500).end("Failed to remove dependency: " + found.cause().getMessage());
+                return;
+            }
+            Task task = found.result();
+            if (task == null || task.projectId() == null) {
+                ctx.response().setStatusCode(404).end("Task not found");
+                return;
+            }
+            int projectId = task.projectId();
+            dependencies.remove(ctx, projectId, new TaskDependency(taskId, dependsOn)).onComplete(removed -> {
+                if (removed.failed()) {
+                    ctx.response().setStatusCode(500).end("Failed to remove dependency: " + removed.cause().getMessage());
+                } else if (!removed.result()) {
+                    ctx.response().setStatusCode(404).end("Dependency not found");
+                } else {
+                    JsonObject change = new JsonObject().put("project_id", projectId).put("task_id", taskId).put("depends_on", dependsOn).put("added", false);
+                    apply(change);
+                    announce(change);
+                    ctx.response().setStatusCode(200).end("Dependency removed");
+                }
+            });
+        });
+    }
+
+    // GET /projects/:id/critical-path: the chain of blocked-by tasks with the most work left.
+    // Tasks have no durations, so a task's work is the progress (0-100) it has left.
+    public void getCriticalPath(RoutingContext ctx) {
+        int projectId = Integer.parseInt(ctx.pathParam("id"));
+        graph(ctx, projectId).onComplete(loaded -> {
+            if (loaded.failed()) {
+                ctx.response().setStatusCode(500).end("Failed to compute critical path: " + loaded.cause().getMessage());
+                return;
+            }
+            TaskGraph graph = loaded.result();
+            ctx.response()
+                .putHeader("Content-Type", "application/json")
+                .setStatusCode(200)
+                .end(new JsonObject()
+                    .put("project_id", projectId)
+                    .put("length", graph.length())
+                    .put("tasks", graph.criticalPath())
+                    .encode());
+        });
+    }
+
+    // Blocking handlers write through JDBC, around the tracked repository. They wrap the result
+    // of the committed transaction in these, so the graphs hear about the write after the commit.
+    // Safe to call from any thread.
+    public <T> T afterTaskWrite(int taskId, T committed) {
+        vertx.eventBus().publish(ADDRESS, new JsonObject().put("task_id", taskId));
+        return committed;
+    }
+
+    public <T> T afterProjectWrite(Integer projectId, T committed) {
+        if (projectId != null) {
+            vertx.eventBus().publish(ADDRESS, new JsonObject().put("project_id", projectId));
+        }
+        return committed;
+    }
+
+    private Future<TaskGraph> graph(RoutingContext ctx, int projectId) {
+        TaskGraph cached = graphs.get(projectId);
+        if (cached != null) {
+            return Future.succeededFuture(cached);
+        }
+        Future<TaskGraph> inFlight = loading.get(projectId);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        Promise<TaskGraph> promise = Promise.promise();
+        loading.put(projectId, promise.future());
+        Future<List<Task>> projectTasks = tasks.findByProject(ctx, projectId);
+        Future<List<TaskDependency>> projectDependencies = dependencies.findByProject(projectId);
+        Future.all(projectTasks, projectDependencies)
+            .map(all -> new TaskGraph(projectTasks.result(), projectDependencies.result()))
+            .onComplete(built -> {
+                loading.remove(projectId);
+                boolean stale = staleLoads.remove(projectId);
+                if (built.succeeded() && !stale) {
+                    graphs.put(projectId, built.result());
+                }
+                promise.handle(built);
+            });
+        return promise.future();
+    }
+
+    // A change made here or announced by another instance
+    private void apply(JsonObject change) {
+        Integer projectId = change.getInteger("project_id");
+        Integer taskId = change.getInteger("task_id");
+        if (projectId == null && taskId != null) {
+            projectId = projectOf(taskId);
+        }
+        if (projectId == null) {
+            return;
+        }
+        touched(projectId);
+        TaskGraph graph = graphs.get(projectId);
+        if (graph == null) {
+            return;
+        }
+
+        if (change.containsKey("depends_on")) {
+            int dependsOn = change.getInteger("depends_on");
+            if (!change.getBoolean("added")) {
+                graph.removeDependency(taskId, dependsOn);
+            } else if (!graph.contains(taskId) || !graph.contains(dependsOn) || !graph.addDependency(taskId, dependsOn)) {
+                drop(projectId);
+            }
+        } else if (taskId != null) {
+            refresh(projectId, taskId);
+        } else {
+            drop(projectId);
+        }
+    }
+
+    // Takes the task's current row, or drops it if it is gone
+    private void refresh(int projectId, int taskId) {
+        tasks.findById(null, taskId, projectId)
+            .onSuccess(task -> {
+                TaskGraph graph = graphs.get(projectId);
+                if (graph == null) {
+                    return;
+                }
+                if (task != null) {
+                    graph.put(task);
+                } else {
+                    graph.remove(taskId);
+                }
+            })
+            .onFailure(err -> {
+                System.out.println("❌ Failed to refresh task " + taskId + " in the dependency graph: " + err.getMessage());
+                drop(projectId);
+            });
+    }
+
+    private Integer projectOf(int taskId) {
+        for (Map.Entry<Integer, TaskGraph> entry : graphs.entrySet()) {
+            if (entry.getValue().contains(taskId)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void touched(int projectId) {
+        if (loading.containsKey(projectId)) {
+            staleLoads.add(projectId);
+        }
+    }
+
+    private void drop(int projectId) {
+        touched(projectId);
+        graphs.remove(projectId);
+    }
+
+    private void announce(JsonObject change) {
+        vertx.eventBus().publish(ADDRESS, change.copy().put("origin", origin));
+    }
+
+    private void respondWithDependency(RoutingContext ctx, int status, String message, int taskId, int dependsOn) {
+        ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .setStatusCode(status)
+            .end(new JsonObject().put("message", message).put("task_id", taskId).put("depends_on", dependsOn).encode());
+    }
+
+    // Applies the task writes to the cached graph of their project, then announces them
+    private class Tracked implements TaskRepository {
+
+        private final TaskRepository delegate;
+
+        Tracked(TaskRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Future<Integer> create(RoutingContext ctx, Task task) {
+            return delegate.create(ctx, task)
+                .onSuccess(id -> written(task.withId(id, null)));
+        }
+
+        @Override
+        public Future<List<Task>> findByProject(RoutingContext ctx, int projectId) {
+            return delegate.findByProject(ctx, projectId);
+        }
+
+        @Override
+        public Future<List<Task>> findByProjects(RoutingContext ctx, Integer[] projectIds) {
+            return delegate.findByProjects(ctx, projectIds);
+        }
+
+        @Override
+        public Future<List<Task>> findByAssignee(RoutingContext ctx, int userId, Integer[] projectIds) {
+            return delegate.findByAssignee(ctx, userId, projectIds);
+        }
+
+        @Override
+        public Future<TaskChanges> changesInProject(RoutingContext ctx, int projectId, long since) {
+            return delegate.changesInProject(ctx, projectId, since);
+        }
+
+        @Override
+        public Future<TaskChanges> changesForAssignee(RoutingContext ctx, int userId, Integer[] projectIds, long since) {
+            return delegate.changesForAssignee(ctx, userId, projectIds, since);
+        }
+
+        @Override
+        public Future<Task> findById(RoutingContext ctx, int taskId, Integer projectHint) {
+            return delegate.findById(ctx, taskId, projectHint);
+        }
+
+        // A changed progress moves the finish times of the task and of what waits on it, nothing else
+        @Override
+        public Future<Task> update(RoutingContext ctx, Task task) {
+            return delegate.update(ctx, task)
+                .onSuccess(updated -> {
+                    if (updated != null) {
+                        written(updated);
+                    }
+                });
+        }
+
+        @Override
+        public Future<Boolean> delete(RoutingContext ctx, int taskId, Integer projectId) {
+            return delegate.delete(ctx, taskId, projectId)
+                .onSuccess(deleted -> {
+                    if (!deleted || projectId == null) {
+                        return;
+                    }
+                    touched(projectId);
+                    TaskGraph graph = graphs.get(projectId);
+                    if (graph != null) {
+                        graph.remove(taskId);
+                    }
+                    announce(new JsonObject().put("project_id", projectId).put("task_id", taskId));
+                });
+        }
+
+        @Override
+        public Future<Task> assign(RoutingContext ctx, int taskId, Integer userId, Integer projectHint) {
+            return delegate.assign(ctx, taskId, userId, projectHint)
+                .onSuccess(task -> {
+                    if (task != null) {
+                        written(task);
+                    }
+                });
+        }
+
+        @Override
+        public Future<Void> refreshProjectStatus(int projectId) {
+            return delegate.refreshProjectStatus(projectId);
+        }
+
+        private void written(Task task) {
+            if (task.projectId() == null) {
+                return;
+            }
+            touched(task.projectId());
+            TaskGraph graph = graphs.get(task.projectId());
+            if (graph != null) {
+                graph.put(task);
+            }
+            announce(new JsonObject().put("project_id", task.projectId()).put("task_id", task.id()));
+        }
+    }
+}
@@ -1,22 +1,22 @@
 package com.example;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
-import io.vertx.core.json.JsonArray;
+import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
-import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.pgclient.PgPool;
-import io.vertx.sqlclient.Row;
-import io.vertx.sqlclient.RowSet;
-import io.vertx.sqlclient.Tuple;
-import java.util.stream.StreamSupport;
 
 
 public class TaskHandler {
-    private final PgPool client;
 
-    public TaskHandler(PgPool client) {
-        this.client = client;
+    private final TaskRepository tasks;
+    private final ActivityLog activity;
+
+    public TaskHandler(TaskRepository tasks, ActivityLog activity) {
+        this.tasks = tasks;
+        this.activity = activity;
     }
 
 
@@ -24,20 +24,31 @@ public class TaskHandler {
         JsonObject body = ctx.body().asJsonObject();
         Integer assignedTo = body.getValue("assigned_to") != null ? body.getInteger("assigned_to") : null;
         Integer progress = body.getValue("progress") !=null ? body.getInteger("progress") :null;
+        LocalDate dueDate;
+        try {
+            dueDate = parseDueDate(body.getString("due_date"));
+        } catch (DateTimeParseException e) {
+            ctx.response().setStatusCode(400).end("Invalid due_date, expected YYYY-MM-DD.");
+            return;
+        }
+        if (!activity.admit(ctx)) {
+            return;
+        }
 
-        client.preparedQuery("INSERT INTO tasks (project_id, name, description, status, assigned_to, progress, created_at) VALUES ($1, $2, $3, $4, $5, $6, CURRENT_TIMESTAMP) RETURNING id")
-            .execute(Tuple.of(
-                body.getInteger("project_id"),
-                body.getString("name"),
-                body.getString("description"),
-                body.getString("status"),
-                assignedTo,
-                progress
-            ), ar -> {
-                if (ar.succeeded() && ar.result().size() > 0) {
-                    RowSet<Row> result = ar.result();
-                    Row row = result.iterator().next();
-                    int taskId =row.getInteger("id"); // Retrieve generated task ID
+        Task task = new Task(null, body.getInteger("project_id"), body.getString("name"), body.getString("description"),
+            body.getString("status"), assignedTo, null, progress, dueDate);
+        tasks.create(ctx, task).onComplete(ar -> {
+                if (ar.succeeded()) {
+                    int taskId = ar.result(); // Generated task ID
+                    activity.record(ctx, "create", taskId, body.getInteger("project_id"), new JsonObject()
+                        .put("name", body.getString("name"))
+                        .put("status", body.getString("status"))
+                        .put("assigned_to", assignedTo)
+                        .put("progress", progress));
+                    Integer projectId = body.getInteger("project_id");
+                    if (projectId != null) {
+                        updateProjectStatus(projectId);
+                    }
                     ctx.response()
                     .putHeader("Content-Type", "application/json")
                     .setStatusCode(201)
@@ -48,37 +59,26 @@ public class TaskHandler {
                     ctx.response().setStatusCode(500).end("Failed to create task: " + ar.cause().getMessage());
                 }
             });
-            int projectId = body.getInteger("project_id");
-            updateProjectStatus(projectId);
-
-            
     }
 
+   // ?since=<cursor> returns only what changed after an earlier read (see respondWithChanges)
    public void getTasksByProject(RoutingContext ctx) {
     int projectId = Integer.parseInt(ctx.pathParam("projectId"));
+    if (ctx.request().getParam("since") != null) {
+        Long since = since(ctx);
+        if (since != null) {
+            respondWithChanges(ctx, tasks.changesInProject(ctx, projectId, since));
+        }
+        return;
+    }
 
-    client.preparedQuery("SELECT * FROM tasks WHERE project_id = $1")
-        .execute(Tuple.of(projectId), ar -> {
+    tasks.findByProject(ctx, projectId)
+        .onComplete(ar -> {
             if (ar.succeeded()) {
-                JsonArray tasksArray = new JsonArray();
-                ar.result().forEach(row -> {
-                    JsonObject task = new JsonObject()
-                        .put("id", row.getInteger("id"))
-                        .put("project_id", row.getInteger("project_id"))
-                        .put("name", row.getString("name"))
-                        .put("description", row.getString("description"))
-                        .put("status", row.getString("status"))
-                        .put("assigned_to", row.getInteger("assigned_to"))
-                        .put("created_at", row.getLocalDateTime("created_at").toString())
-                        .put("progress", row.getValue("progress")); 
-
-                    tasksArray.add(task);
-                });
-
                 ctx.response()
                     .putHeader("Content-Type", "application/json")
                     .setStatusCode(200)
-                    .end(tasksArray.encode());
+                    .end(JsonRowWriter.tasks(ar.result()));
             } else {
                 ctx.response().setStatusCode(500)
                     .end("Failed to fetch tasks: " + ar.cause().getMessage());
@@ -86,31 +86,33 @@ public class TaskHandler {
         });
 }
 
+// ?projectId=1,2 narrows the result to those projects, which on a partitioned tasks table
+// also limits the scan to their partitions
 public void getTasksByUser(RoutingContext ctx) {
     int userId = Integer.parseInt(ctx.pathParam("userId"));
+    Integer[] projectIds;
+    try {
+        projectIds = projectIds(ctx);
+    } catch (NumberFormatException e) {
+        ctx.response().setStatusCode(400).end("Invalid projectId.");
+        return;
+    }
 
-    client.preparedQuery("SELECT * FROM tasks WHERE assigned_to = $1")
-        .execute(Tuple.of(userId), ar -> {
-            if (ar.succeeded()) {
-                JsonArray tasksArray = new JsonArray();
-                ar.result().forEach(row -> {
-                    JsonObject task = new JsonObject()
-                        .put("id", row.getInteger("id"))
-                        .put("project_id", row.getInteger("project_id"))
-                        .put("name", row.getString("name"))
-                        .put("description", row.getString("description"))
-                        .put("status", row.getString("status"))
-                        .put("assigned_to", row.getInteger("assigned_to"))
-                        .put("created_at", row.getLocalDateTime("created_at").toString())
-                        .put("progress", row.getValue("progress"));
-
-                    tasksArray.add(task);
-                });
+    if (ctx.request().getParam("since") != null) {
+        Long since = since(ctx);
+        if (since != null) {
+            respondWithChanges(ctx, tasks.changesForAssignee(ctx, userId, projectIds, since));
+        }
+        return;
+    }
 
+    tasks.findByAssignee(ctx, userId, projectIds)
+        .onComplete(ar -> {
+            if (ar.succeeded()) {
                 ctx.response()
                     .putHeader("Content-Type", "application/json")
                     .setStatusCode(200)
-                    .end(tasksArray.encode());
+                    .end(JsonRowWriter.tasks(ar.result()));
             } else {
                 ctx.response().setStatusCode(500)
                     .end("Failed to fetch tasks: " + ar.cause().getMessage());
@@ -125,30 +127,49 @@ public void updateTask(RoutingContext ctx) {
     
     int taskId = Integer.parseInt(ctx.pathParam("id"));
     JsonObject body = ctx.body().asJsonObject();
+    if (!activity.admit(ctx)) {
+        return;
+    }
 
     //  Existing task details first
-    String selectQuery = "SELECT name, description, status, assigned_to, progress, project_id FROM tasks WHERE id = $1";
-    client.preparedQuery(selectQuery).execute(Tuple.of(taskId), res -> {
-        if (res.succeeded() && res.result().size() > 0) {
-            Row row = res.result().iterator().next();
+    tasks.findById(ctx, taskId, projectHint(ctx)).onComplete(res -> {
+        if (res.succeeded() && res.result() != null) {
+            Task current = res.result();
 
             // Keep existing values if not provided in the request
-            String name = body.getString("name", row.getString("name"));
-            String description = body.getString("description", row.getString("description"));
-            String status = body.getString("status", row.getString("status"));
-            Integer assignedTo = body.getInteger("assigned_to", row.getInteger("assigned_to"));
+            String name = body.getString("name", current.name());
+            String description = body.getString("description", current.description());
+            String status = body.getString("status", current.status());
+            Integer assignedTo = body.getInteger("assigned_to", current.assignedTo());
             
             // Check for progress and use the provided value, otherwise fallback to the existing value
-            Integer progress = body.containsKey("progress") ? body.getInteger("progress") : row.getInteger("progress");
-
-            int projectId = row.getInteger("project_id");
+            Integer progress = body.containsKey("progress") ? body.getInteger("progress") : current.progress();
+
+            LocalDate dueDate;
+            try {
+                dueDate = body.containsKey("due_date") ? parseDueDate(body.getString("due_date")) : current.dueDate();
+            } catch (DateTimeParseException e) {
+                ctx.response().setStatusCode(400).end("Invalid due_date, expected YYYY-MM-DD.");
+                return;
+            }
 
-            // Perform the update query
-            String updateQuery = "UPDATE tasks SET name = $1, description = $2, status = $3, assigned_to = $4, progress = $5 WHERE id = $6";
-            client.preparedQuery(updateQuery)
-                .execute(Tuple.of(name, description, status, assignedTo, progress, taskId), ar -> {
-                    if (ar.succeeded()) {
-                        updateProjectStatus(projectId);
+            Integer projectId = current.projectId();
+
+            // Perform the update
+            Task updated = new Task(taskId, projectId, name, description, status, assignedTo, current.createdAt(), progress, dueDate);
+            tasks.update(ctx, updated)
+                .onComplete(ar -> {
+                    if (ar.succeeded() && ar.result() == null) {
+                        // Deleted since it was read
+                        ctx.response().setStatusCode(404).end("Task not found");
+                    } else if (ar.succeeded()) {
+                        activity.record(ctx, "update", taskId, projectId, changes(
+                            taskState(current.name(), current.description(), current.status(),
+                                current.assignedTo(), current.progress(), current.dueDate()),
+                            taskState(name, description, status, assignedTo, progress, dueDate)));
+                        if (projectId != null) {
+                            updateProjectStatus(projectId);
+                        }
                         ctx.response().setStatusCode(200).end("Task updated");
                     } else {
                         ctx.response().setStatusCode(500).end("Failed to update task: " + ar.cause().getMessage());
@@ -165,16 +186,24 @@ public void updateTask(RoutingContext ctx) {
 
 public void deleteTask(RoutingContext ctx) {
     int taskId = Integer.parseInt(ctx.pathParam("id"));
-    
-    client.preparedQuery("SELECT project_id FROM tasks WHERE id = $1")
-        .execute(Tuple.of(taskId), fetchAr -> {
-            if (fetchAr.succeeded() && fetchAr.result().size() > 0) {
-                int projectId = fetchAr.result().iterator().next().getInteger("project_id");
-
-                client.preparedQuery("DELETE FROM tasks WHERE id = $1")
-                    .execute(Tuple.of(taskId), deleteAr -> {
-                        if (deleteAr.succeeded()) {
-                            updateProjectStatus(projectId);
+    if (!activity.admit(ctx)) {
+        return;
+    }
+
+    tasks.findById(ctx, taskId, projectHint(ctx)).onComplete(fetchAr -> {
+            if (fetchAr.succeeded() && fetchAr.result() != null) {
+                Integer projectId = fetchAr.result().projectId();
+
+                tasks.delete(ctx, taskId, projectId)
+                    .onComplete(deleteAr -> {
+                        if (deleteAr.succeeded() && !deleteAr.result()) {
+                            // Deleted since it was read
+                            ctx.response().setStatusCode(404).end("Task not found");
+                        } else if (deleteAr.succeeded()) {
+                            activity.record(ctx, "delete", taskId, projectId, null);
+                            if (projectId != null) {
+                                updateProjectStatus(projectId);
+                            }
                             ctx.response().setStatusCode(200).end("Task deleted");
                         } else {
                             ctx.response().setStatusCode(500).end("Failed to delete task: " + deleteAr.cause().getMessage());
@@ -196,10 +225,15 @@ public void deleteTask(RoutingContext ctx) {
             ctx.response().setStatusCode(400).end("User ID is required for assignment.");
             return;
         }
+        if (!activity.admit(ctx)) {
+            return;
+        }
     
-        client.preparedQuery("UPDATE tasks SET assigned_to = $1 WHERE id = $2")
-            .execute(Tuple.of(userId, taskId), ar -> {
+        tasks.assign(ctx, taskId, userId, projectHint(ctx)).onComplete(ar -> {
                 if (ar.succeeded()) {
+                    if (ar.result() != null) {
+                        activity.record(ctx, "assign", taskId, ar.result().projectId(), new JsonObject().put("assigned_to", userId));
+                    }
                     ctx.response().setStatusCode(200).end("Task assigned successfully");
                 } else {
                     ctx.response().setStatusCode(500).end("Failed to assign task: " + ar.cause().getMessage());
@@ -212,10 +246,15 @@ public void deleteTask(RoutingContext ctx) {
 
         int taskId = Integer.parseInt(ctx.pathParam("taskId"));
         System.out.println("Unassigning task with ID: " + taskId);
+        if (!activity.admit(ctx)) {
+            return;
+        }
 
-        client.preparedQuery("UPDATE tasks SET assigned_to = NULL WHERE id = $1")
-            .execute(Tuple.of(taskId), ar -> {
+        tasks.assign(ctx, taskId, null, projectHint(ctx)).onComplete(ar -> {
                 if (ar.succeeded()) {
+                    if (ar.result() != null) {
+                        activity.record(ctx, "unassign", taskId, ar.result().projectId(), null);
+                    }
                     ctx.response().setStatusCode(200).end("Task unassigned");
                 } else {
                     ar.cause().printStackTrace();
@@ -224,7 +263,95 @@ public void deleteTask(RoutingContext ctx) {
             });
     }
     
-    private String computeProjectStatus(List<JsonObject> tasks) {
+    static JsonObject taskState(String name, String description, String status, Integer assignedTo, Integer progress, LocalDate dueDate) {
+        return new JsonObject()
+            .put("name", name)
+            .put("description", description)
+            .put("status", status)
+            .put("assigned_to", assignedTo)
+            .put("progress", progress)
+            .put("due_date", formatDueDate(dueDate));
+    }
+
+    // {"field": {"from": old, "to": new}} for every field that changed
+    static JsonObject changes(JsonObject before, JsonObject after) {
+        JsonObject changes = new JsonObject();
+        for (String field : after.fieldNames()) {
+            Object from = before.getValue(field);
+            Object to = after.getValue(field);
+            if (from == null ? to != null : !from.equals(to)) {
+                changes.put(field, new JsonObject().put("from", from).put("to", to));
+            }
+        }
+        return changes;
+    }
+
+    // Optional ?projectId= on single-task routes. Lookups by id alone have to probe every partition
+    // of a partitioned tasks table; with the project they touch one. An unusable value is ignored.
+    static Integer projectHint(RoutingContext ctx) {
+        String value = ctx.request().getParam("projectId");
+        try {
+            return value != null ? Integer.valueOf(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ?projectId=1,2 or repeated ?projectId=
+    static Integer[] projectIds(RoutingContext ctx) {
+        List<Integer> ids = new ArrayList<>();
+        for (String value : ctx.queryParam("projectId")) {
+            for (String part : value.split(",")) {
+                if (!part.isBlank()) {
+                    ids.add(Integer.valueOf(part.trim()));
+                }
+            }
+        }
+        return ids.toArray(new Integer[0]);
+    }
+
+    // The since cursor, or null after answering 400
+    static Long since(RoutingContext ctx) {
+        try {
+            long since = Long.parseLong(ctx.request().getParam("since").trim());
+            if (since >= 0) {
+                return since;
+            }
+        } catch (NumberFormatException e) {
+            // answered below
+        }
+        ctx.response().setStatusCode(400).end("Invalid since cursor.");
+        return null;
+    }
+
+    // {"cursor", "tasks", "deleted"}: tasks replace the client's copies, deleted ones are dropped
+    // from the list, and cursor is passed as ?since= next time. since=0 is a full sync.
+    static void respondWithChanges(RoutingContext ctx, Future<TaskChanges> changes) {
+        changes.onComplete(ar -> {
+            if (ar.failed()) {
+                ctx.response().setStatusCode(500)
+                    .end("Failed to fetch tasks: " + ar.cause().getMessage());
+            } else if (ar.result() == null) {
+                ctx.response().setStatusCode(410)
+                    .end("Cursor expired, sync again with since=0.");
+            } else {
+                ctx.response()
+                    .putHeader("Content-Type", "application/json")
+                    .setStatusCode(200)
+                    .end(JsonRowWriter.taskChanges(ar.result()));
+            }
+        });
+    }
+
+    static LocalDate parseDueDate(String value) {
+        return value == null || value.isBlank() ? null : LocalDate.parse(value);
+    }
+
+    static String formatDueDate(LocalDate dueDate) {
+        return dueDate != null ? dueDate.toString() : null;
+    }
+
+    static String computeProjectStatus(List<JsonObject> tasks) {
     if (tasks.isEmpty()) return "Not Started";
 
     double totalProgress = 0;
@@ -247,27 +374,7 @@ public void deleteTask(RoutingContext ctx) {
 }
 
 private void updateProjectStatus(int projectId) {
-    client.preparedQuery("SELECT progress FROM tasks WHERE project_id = $1")
-        .execute(Tuple.of(projectId), ar -> {
-            if (ar.succeeded()) {
-
-                RowSet<Row> rows = ar.result();
-                List<JsonObject> taskList = StreamSupport.stream(rows.spliterator(), false)
-                    .map(row -> new JsonObject().put("progress", row.getValue("progress")))
-                    .toList();
-
-                String newStatus = computeProjectStatus(taskList);
-
-                client.preparedQuery("UPDATE projects SET status = $1 WHERE id = $2")
-                    .execute(Tuple.of(newStatus, projectId), updateAr -> {
-                        if (!updateAr.succeeded()) {
-                            updateAr.cause().printStackTrace();
-                        }
-                    });
-            } else {
-                ar.cause().printStackTrace();
-            }
-        });
+    tasks.refreshProjectStatus(projectId).onFailure(Throwable::printStackTrace);
 }
 
 
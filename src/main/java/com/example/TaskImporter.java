@@ -0,0 +1,539 @@
+package com.example;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bulk task import. The upload is streamed straight into COPY ... FROM STDIN on a temporary staging
+// table, validated and merged into projects/tasks with set-based statements, and every affected
+// project gets one status recompute and one burndown bucket, all in a single transaction.
+//
+//   POST /admin/import/tasks?format=csv|ndjson&columns=...&onError=abort|skip   (body: the file)
+//   mvn -q compile exec:java -Dexec.mainClass=com.example.TaskImporter -Dexec.args="--file tasks.csv --config conf.json"
+public class TaskImporter {
+
+    public static final String IMPORT_PATH = "/admin/import/tasks";
+
+    // Fields of one imported task. project is a project name (created when missing), assignee a username.
+    static final List<String> COLUMNS = List.of("project", "name", "description", "status", "assignee", "progress", "due_date");
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int RECENT_IMPORTS = 20;
+
+    private static final String CREATE_ROWS_SQL =
+        "CREATE TEMP TABLE import_rows (line_no BIGSERIAL, project TEXT, name TEXT, description TEXT, status TEXT, " +
+        "assignee TEXT, progress TEXT, due_date TEXT, error TEXT) ON COMMIT DROP";
+    // Casts that return NULL instead of failing the statement, so one bad row can be marked and skipped.
+    // Session-local (pg_temp), replaced on every import since pooled connections outlive the transaction.
+    private static final String CREATE_TRY_DATE_SQL =
+        "CREATE OR REPLACE FUNCTION pg_temp.import_try_date(value TEXT) RETURNS DATE LANGUAGE plpgsql AS $$ " +
+        "BEGIN RETURN value::date; EXCEPTION WHEN data_exception THEN RETURN NULL; END $$";
+    private static final String CREATE_TRY_JSONB_SQL =
+        "CREATE OR REPLACE FUNCTION pg_temp.import_try_jsonb(value TEXT) RETURNS JSONB LANGUAGE plpgsql AS $$ " +
+        "BEGIN RETURN value::jsonb; EXCEPTION WHEN data_exception THEN RETURN NULL; END $$";
+    private static final String CREATE_RAW_SQL = "CREATE TEMP TABLE import_raw (line_no BIGSERIAL, doc TEXT) ON COMMIT DROP";
+    private static final String CREATE_AFFECTED_SQL =
+        "CREATE TEMP TABLE import_affected (project_id INTEGER PRIMARY KEY, tasks BIGINT) ON COMMIT DROP";
+    private static final String COPY_CSV_SQL = "COPY import_rows (%s) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    // One field per line: control characters as quote and delimiter leave the JSON text untouched
+    private static final String COPY_NDJSON_SQL = "COPY import_raw (doc) FROM STDIN WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+    // Lines that are not a JSON object come through with only their error set
+    private static final String EXPAND_NDJSON_SQL =
+        "INSERT INTO import_rows (line_no, project, name, description, status, assignee, progress, due_date, error) " +
+        "SELECT line_no, doc->>'project', doc->>'name', doc->>'description', doc->>'status', doc->>'assignee', " +
+        "doc->>'progress', doc->>'due_date', " +
+        "CASE WHEN doc IS NULL THEN 'line is not valid JSON' WHEN jsonb_typeof(doc) <> 'object' THEN 'line is not a JSON object' END " +
+        "FROM (SELECT line_no, pg_temp.import_try_jsonb(doc) AS doc FROM import_raw WHERE btrim(doc) <> '') raw";
+    // Normalises blanks to NULL and marks invalid rows in one pass; the CASE still sees the raw values,
+    // and an error set while expanding NDJSON is kept
+    private static final String VALIDATE_SQL =
+        "UPDATE import_rows SET project = NULLIF(btrim(project), ''), name = NULLIF(btrim(name), ''), " +
+        "assignee = NULLIF(btrim(assignee), ''), progress = NULLIF(btrim(progress), ''), due_date = NULLIF(btrim(due_date), ''), " +
+        "error = COALESCE(error, CASE " +
+        "WHEN NULLIF(btrim(project), '') IS NULL THEN 'project is required' " +
+        "WHEN NULLIF(btrim(name), '') IS NULL THEN 'name is required' " +
+        "WHEN NULLIF(btrim(progress), '') IS NOT NULL AND " +
+        "(CASE WHEN btrim(progress) ~ '^[0-9]{1,3}$' THEN btrim(progress)::int > 100 ELSE true END) " +
+        "THEN 'progress must be an integer between 0 and 100' " +
+        "WHEN NULLIF(btrim(due_date), '') !~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN 'due_date must be YYYY-MM-DD' " +
+        "WHEN NULLIF(btrim(due_date), '') IS NOT NULL AND pg_temp.import_try_date(btrim(due_date)) IS NULL THEN 'due_date is not a valid date' " +
+        "WHEN NULLIF(btrim(assignee), '') IS NOT NULL " +
+        "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.username = btrim(import_rows.assignee)) THEN 'unknown assignee' " +
+        "END)";
+    private static final String COUNT_SQL = "SELECT COUNT(*) AS total, COUNT(error) AS rejected FROM import_rows";
+    private static final String ERRORS_SQL =
+        "SELECT line_no, error FROM import_rows WHERE error IS NOT NULL ORDER BY line_no LIMIT " + MAX_REPORTED_ERRORS;
+    private static final String CREATE_PROJECTS_SQL =
+        "INSERT INTO projects (name, description, status, created_at) " +
+        "SELECT DISTINCT r.project, '', 'New', NOW() FROM import_rows r " +
+        "WHERE r.error IS NULL AND NOT EXISTS (SELECT 1 FROM projects p WHERE p.name = r.project)";
+    // Duplicate project names resolve to the oldest project
+    private static final String MAP_PROJECTS_SQL =
+        "CREATE TEMP TABLE import_projects ON COMMIT DROP AS " +
+        "SELECT DISTINCT ON (p.name) p.name, p.id FROM projects p " +
+        "WHERE p.name IN (SELECT project FROM import_rows WHERE error IS NULL) ORDER BY p.name, p.id";
+    private static final String INSERT_TASKS_SQL =
+        "WITH inserted AS (" +
+        "INSERT INTO tasks (project_id, name, description, status, assigned_to, progress, due_date, created_at) " +
+        "SELECT p.id, r.name, r.description, r.status, u.id, r.progress::int, r.due_date::date, CURRENT_TIMESTAMP " +
+        "FROM import_rows r JOIN import_projects p ON p.name = r.project LEFT JOIN users u ON u.username = r.assignee " +
+        "WHERE r.error IS NULL ORDER BY r.line_no RETURNING project_id) " +
+        "INSERT INTO import_affected SELECT project_id, COUNT(*) FROM inserted GROUP BY project_id";
+    // ProgressHistory.LOCK_PROJECT_SQL for every affected project, in id order, so the recompute below
+    // reads the tasks of each project after any concurrent per-write recompute has committed
+    private static final String LOCK_AFFECTED_PROJECTS_SQL =
+        "SELECT id FROM projects WHERE id IN (SELECT project_id FROM import_affected) ORDER BY id FOR UPDATE";
+    // Set-based form of TaskHandler.computeProjectStatus
+    private static final String RECOMPUTE_STATUS_SQL =
+        "UPDATE projects p SET status = CASE WHEN s.avg_progress = 100 THEN 'Completed' " +
+        "WHEN s.avg_progress > 0 THEN 'In Progress' ELSE 'Not Started' END " +
+        "FROM (SELECT t.project_id, AVG(t.progress) AS avg_progress FROM tasks t " +
+        "JOIN import_affected a ON a.project_id = t.project_id GROUP BY t.project_id) s WHERE p.id = s.project_id";
+    private static final String BURNDOWN_SQL =
+        ProgressHistory.INSERT_BUCKET +
+        "SELECT t.project_id, CURRENT_DATE, COUNT(*), COUNT(*) FILTER (WHERE " + ProgressHistory.COMPLETED_CONDITION + "), " +
+        "COALESCE(SUM(t.progress), 0), COUNT(t.progress), clock_timestamp() FROM tasks t " +
+        "JOIN import_affected a ON a.project_id = t.project_id GROUP BY t.project_id" +
+        ProgressHistory.ON_CONFLICT_REPLACE;
+    private static final String AFFECTED_SQL = "SELECT COUNT(*) AS projects, COALESCE(SUM(tasks), 0) AS tasks FROM import_affected";
+
+    // Progress of one import, readable from any thread while it runs
+    static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final String format;
+        final long startedAt = System.currentTimeMillis();
+        final AtomicLong bytes = new AtomicLong();
+        volatile String phase = "receiving";
+        volatile long rows;
+        volatile long rejected;
+        volatile long imported;
+        volatile long projectsCreated;
+        volatile long projectsAffected;
+        volatile long finishedAt;
+        volatile String error;
+
+        Job(String format) {
+            this.format = format;
+        }
+
+        void phase(String phase) {
+            this.phase = phase;
+            System.out.println("⏳ Import " + id + ": " + phase + " (" + bytes.get() + " bytes read)");
+        }
+
+        JsonObject toJson() {
+            return new JsonObject()
+                .put("import_id", id)
+                .put("format", format)
+                .put("phase", phase)
+                .put("bytes_read", bytes.get())
+                .put("rows", rows)
+                .put("rejected", rejected)
+                .put("imported", imported)
+                .put("projects_created", projectsCreated)
+                .put("projects_affected", projectsAffected)
+                .put("elapsed_ms", (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt)
+                .put("error", error);
+        }
+    }
+
+    private final Vertx vertx;
+    private final JdbcPool jdbc;
+    private final WorkerExecutor workers;
+    private final int maxConcurrent;
+    private final AtomicInteger running = new AtomicInteger();
+    private final Deque<Job> recent = new ArrayDeque<>();
+
+    public TaskImporter(Vertx vertx, JsonObject dbConfig, JsonObject config) {
+        this.vertx = vertx;
+        this.maxConcurrent = config.getInteger("maxConcurrent", 2);
+        this.jdbc = JdbcPool.create(dbConfig, maxConcurrent);
+        // A large import holds its worker for minutes; keep it off the shared worker pool
+        this.workers = vertx.createSharedWorkerExecutor("task-import", maxConcurrent, 6, TimeUnit.HOURS);
+    }
+
+    // The global BodyHandler must let import uploads through unbuffered
+    public static boolean isUpload(RoutingContext ctx) {
+        return ctx.request().method() == HttpMethod.POST && IMPORT_PATH.equals(ctx.normalizedPath());
+    }
+
+    public void importTasks(RoutingContext ctx) {
+        HttpServerRequest request = ctx.request();
+        String contentType = request.getHeader("Content-Type");
+        String format = request.getParam("format",
+            contentType != null && (contentType.contains("ndjson") || contentType.contains("jsonl")) ? "ndjson" : "csv");
+        if (!"csv".equals(format) && !"ndjson".equals(format)) {
+            ctx.response().setStatusCode(400).end("format must be csv or ndjson.");
+            return;
+        }
+        List<String> columns;
+        try {
+            columns = parseColumns(request.getParam("columns"));
+        } catch (IllegalArgumentException e) {
+            ctx.response().setStatusCode(400).end(e.getMessage());
+            return;
+        }
+        String onError = request.getParam("onError", "abort");
+        if (!"abort".equals(onError) && !"skip".equals(onError)) {
+            ctx.response().setStatusCode(400).end("onError must be abort or skip.");
+            return;
+        }
+        if (running.incrementAndGet() > maxConcurrent) {
+            running.decrementAndGet();
+            ctx.response().putHeader("Retry-After", "60").setStatusCode(429).end("Too many imports running, try again later.");
+            return;
+        }
+
+        Job job = new Job(format);
+        synchronized (recent) {
+            recent.addFirst(job);
+            while (recent.size() > RECENT_IMPORTS) {
+                recent.removeLast();
+            }
+        }
+        System.out.println("✅ Import " + job.id + " started (" + format + ", onError=" + onError + ")");
+
+        UploadStream upload = new UploadStream(vertx.getOrCreateContext(), request, job);
+        workers.<JsonObject>executeBlocking(promise -> {
+            try {
+                promise.complete(jdbc.withConnection(conn -> run(conn, upload, format, columns, "abort".equals(onError), job)));
+            } catch (Exception e) {
+                promise.fail(e);
+            }
+        }, false).onComplete(ar -> {
+            running.decrementAndGet();
+            boolean unread = !upload.finished();
+            upload.discard();
+            job.finishedAt = System.currentTimeMillis();
+            if (unread) {
+                // Whatever the client is still sending is of no use
+                ctx.response().putHeader("Connection", "close");
+            }
+
+            if (ar.failed()) {
+                Throwable err = ar.cause();
+                job.error = err.getMessage();
+                job.phase = "failed";
+                System.out.println("❌ Import " + job.id + " failed: " + err.getMessage());
+                // SQLSTATE class 22 = data exception, i.e. a malformed file rather than a server problem
+                boolean badInput = err instanceof SQLException && ((SQLException) err).getSQLState() != null
+                    && ((SQLException) err).getSQLState().startsWith("22");
+                ctx.response()
+                    .setStatusCode(badInput || err.getCause() instanceof IOException ? 400 : 500)
+                    .putHeader("Content-Type", "application/json")
+                    .end(job.toJson().encode());
+                return;
+            }
+
+            JsonObject result = ar.result();
+            System.out.println("✅ Import " + job.id + " " + job.phase + ": " + job.imported + " tasks, " + job.rejected + " rejected rows");
+            if (job.imported > 0) {
+                // COPY bypasses the repositories, so task indexes rebuild from the database
+                vertx.eventBus().publish(TaskIndex.ADDRESS, new JsonObject().put("reload", true));
+            }
+            ctx.response()
+                .setStatusCode("aborted".equals(job.phase) ? 422 : 200)
+                .putHeader("Content-Type", "application/json")
+                .end(result.encode());
+        });
+    }
+
+    // GET /admin/imports: running and recently finished imports, newest first
+    public void listImports(RoutingContext ctx) {
+        JsonArray imports = new JsonArray();
+        synchronized (recent) {
+            for (Job job : recent) {
+                imports.add(job.toJson());
+            }
+        }
+        ctx.response()
+            .putHeader("Content-Type", "application/json")
+            .end(new JsonObject().put("imports", imports).encode());
+    }
+
+    public void close() {
+        workers.close();
+        jdbc.close();
+    }
+
+    // The whole import on one connection and in one transaction. Blocking; shared by the endpoint and the CLI.
+    static JsonObject run(Connection conn, InputStream in, String format, List<String> columns, boolean abortOnError,
+                          Job job) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            st.execute(CREATE_ROWS_SQL);
+            st.execute(CREATE_AFFECTED_SQL);
+            st.execute(CREATE_TRY_DATE_SQL);
+            st.execute(CREATE_TRY_JSONB_SQL);
+
+            job.phase("copying");
+            CopyManager copy = conn.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                if ("csv".equals(format)) {
+                    copy.copyIn(String.format(COPY_CSV_SQL, String.join(", ", columns)), in);
+                } else {
+                    st.execute(CREATE_RAW_SQL);
+                    copy.copyIn(COPY_NDJSON_SQL, in);
+                    st.executeUpdate(EXPAND_NDJSON_SQL);
+                }
+            } catch (IOException e) {
+                throw new SQLException("Reading the upload failed: " + e.getMessage(), e);
+            }
+
+            job.phase("validating");
+            st.executeUpdate(VALIDATE_SQL);
+            // Temp tables are never auto-analyzed; the merge joins need real row counts
+            st.execute("ANALYZE import_rows");
+            try (ResultSet rs = st.executeQuery(COUNT_SQL)) {
+                rs.next();
+                job.rows = rs.getLong("total");
+                job.rejected = rs.getLong("rejected");
+            }
+            // Header line for CSV, so the reported line matches the file
+            long lineOffset = "csv".equals(format) ? 1 : 0;
+            JsonArray errors = new JsonArray();
+            try (ResultSet rs = st.executeQuery(ERRORS_SQL)) {
+                while (rs.next()) {
+                    errors.add(new JsonObject().put("line", rs.getLong("line_no") + lineOffset).put("error", rs.getString("error")));
+                }
+            }
+
+            if (abortOnError && job.rejected > 0) {
+                conn.rollback();
+                job.phase = "aborted";
+                return job.toJson().put("errors", errors);
+            }
+
+            job.phase("merging");
+            job.projectsCreated = st.executeUpdate(CREATE_PROJECTS_SQL);
+            st.execute(MAP_PROJECTS_SQL);
+            st.executeUpdate(INSERT_TASKS_SQL);
+
+            job.phase("recomputing");
+            st.execute(LOCK_AFFECTED_PROJECTS_SQL);
+            st.executeUpdate(RECOMPUTE_STATUS_SQL);
+            st.executeUpdate(BURNDOWN_SQL);
+            try (ResultSet rs = st.executeQuery(AFFECTED_SQL)) {
+                rs.next();
+                job.projectsAffected = rs.getLong("projects");
+                job.imported = rs.getLong("tasks");
+            }
+
+            conn.commit();
+            job.phase = "completed";
+            return job.toJson().put("errors", errors);
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    static List<String> parseColumns(String param) {
+        if (param == null || param.isBlank()) {
+            return COLUMNS;
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (String column : param.split(",")) {
+            String name = column.trim();
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + name + "', expected some of " + COLUMNS + ".");
+            }
+            if (!columns.add(name)) {
+                throw new IllegalArgumentException("Column '" + name + "' listed twice.");
+            }
+        }
+        return new ArrayList<>(columns);
+    }
+
+    // Bridges the request body (event loop) to the blocking COPY reader (worker). The request is paused
+    // while too many chunks are queued and resumed once the reader has caught up.
+    private static final class UploadStream extends InputStream {
+        private static final int HIGH_WATER = 64;
+        private static final int LOW_WATER = 16;
+        private static final byte[] END = new byte[0];
+
+        private final Context context;
+        private final HttpServerRequest request;
+        private final Job job;
+        private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private volatile boolean paused;
+        private volatile boolean discarded;
+        private volatile boolean ended;
+        private volatile Throwable failure;
+
+        // Only touched by the reading thread
+        private byte[] current;
+        private int position;
+
+        UploadStream(Context context, HttpServerRequest request, Job job) {
+            this.context = context;
+            this.request = request;
+            this.job = job;
+            request.handler(buffer -> {
+                if (discarded) {
+                    return;
+                }
+                chunks.add(buffer.getBytes());
+                if (queued.incrementAndGet() >= HIGH_WATER && !paused) {
+                    paused = true;
+                    request.pause();
+                }
+            });
+            request.exceptionHandler(err -> {
+                failure = err;
+                chunks.add(END);
+            });
+            request.endHandler(v -> chunks.add(END));
+            request.resume();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            while (current == null || position == current.length) {
+                if (ended) {
+                    return -1;
+                }
+                byte[] next;
+                try {
+                    next = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Import interrupted");
+                }
+                if (next == END) {
+                    ended = true;
+                    if (failure != null) {
+                        throw new IOException("Upload failed: " + failure.getMessage(), failure);
+                    }
+                    return -1;
+                }
+                current = next;
+                position = 0;
+                if (queued.decrementAndGet() <= LOW_WATER && paused) {
+                    context.runOnContext(v -> {
+                        if (paused && !discarded) {
+                            paused = false;
+                            request.resume();
+                        }
+                    });
+                }
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, target, offset, count);
+            position += count;
+            job.bytes.addAndGet(count);
+            return count;
+        }
+
+        boolean finished() {
+            return ended;
+        }
+
+        // The import is over: drop anything the client still sends instead of queueing it
+        void discard() {
+            discarded = true;
+            chunks.clear();
+            if (paused) {
+                paused = false;
+                request.resume();
+            }
+        }
+    }
+
+    // CLI: same pipeline against a local file, printing progress every few seconds.
+    // Options: --file, --format (default from the extension), --columns, --onError, --config (JSON file with a "db" block).
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        if (!options.containsKey("file")) {
+            System.out.println("Usage: TaskImporter --file tasks.csv|tasks.ndjson [--format csv|ndjson] [--columns "
+                + String.join(",", COLUMNS) + "] [--onError abort|skip] [--config conf.json]");
+            System.exit(2);
+        }
+        Path file = Path.of(options.get("file"));
+        String name = file.getFileName().toString();
+        String format = options.getOrDefault("format", name.endsWith(".ndjson") || name.endsWith(".jsonl") ? "ndjson" : "csv");
+        JsonObject config = options.containsKey("config")
+            ? new JsonObject(Files.readString(Path.of(options.get("config"))))
+            : new JsonObject();
+
+        Job job = new Job(format);
+        JdbcPool pool = JdbcPool.create(config.getJsonObject("db", new JsonObject()), 1);
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        long size = Files.size(file);
+        progress.scheduleAtFixedRate(() -> System.out.printf("⏳ %s: %d / %d bytes%n", job.phase, job.bytes.get(), size),
+            2, 2, TimeUnit.SECONDS);
+        try (InputStream in = new CountingInputStream(Files.newInputStream(file), job)) {
+            JsonObject result = pool.withConnection(conn -> run(conn, in, format, parseColumns(options.get("columns")),
+                !"skip".equals(options.getOrDefault("onError", "abort")), job));
+            job.finishedAt = System.currentTimeMillis();
+            System.out.println(result.put("elapsed_ms", job.finishedAt - job.startedAt).encodePrettily());
+        } finally {
+            progress.shutdownNow();
+            pool.close();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Job job;
+
+        CountingInputStream(InputStream in, Job job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            int count = super.read(target, offset, length);
+            if (count > 0) {
+                job.bytes.addAndGet(count);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Read model of the tasks table for GET /tasks/:projectId and GET /tasks/user/:userId.
+// Fields are stored column by column in primitive arrays indexed by slot (one per task, reused
+// after deletes), statuses as a byte code into a small dictionary. Project and assignee ids map
+// to IntLists of slots. Loaded from the primary at startup in pages by id, and kept current by
+// IndexedTaskRepository; a row is only ever replaced by one with a later change_seq. Until the
+// load has finished, or once the index outgrows maxTasks or maxBytes, lookups return null and
+// the caller reads from the database.
+public class TaskIndex {
+
+    public static final String ADDRESS = "tasks.index";
+
+    private static final String PAGE_SQL = "SELECT * FROM tasks WHERE id > $1 ORDER BY id LIMIT $2";
+
+    static final List<String> STATEMENTS = List.of(PAGE_SQL);
+
+    // null markers for the primitive columns
+    private static final int NONE = Integer.MIN_VALUE;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final long NO_SEQ = Long.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+
+    // Per slot: five int columns, two long, one byte and two references, plus about one
+    // IntIntMap entry at its load factor and two IntList entries
+    private static final int FIXED_BYTES_PER_TASK = 5 * 4 + 2 * 8 + 1 + 2 * 4 + 14 + 2 * 4;
+
+    private enum State { LOADING, READY, DISABLED }
+
+    private final PgPool client;
+    private final int maxTasks;
+    private final long maxBytes;
+    private final int pageSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Everything below is guarded by lock
+    private int[] ids = new int[0];
+    private int[] projectIds = new int[0];
+    private int[] assignees = new int[0];
+    private int[] progress = new int[0];
+    private int[] dueDays = new int[0];
+    private long[] createdMicros = new long[0];
+    private long[] changeSeqs = new long[0];
+    private byte[] statuses = new byte[0];
+    private String[] names = new String[0];
+    private String[] descriptions = new String[0];
+    private int highWater;
+    private final IntList freeSlots = new IntList();
+    private final IntIntMap slotById = new IntIntMap();
+    private final IntObjectMap<IntList> slotsByProject = new IntObjectMap<>();
+    private final IntObjectMap<IntList> slotsByAssignee = new IntObjectMap<>();
+    private final List<String> statusNames = new ArrayList<>();
+    private final Map<String, Byte> statusCodes = new HashMap<>();
+    private long stringBytes;
+    private boolean statusOverflow;
+
+    private State state = State.LOADING;
+    private int generation;
+    // Tasks deleted since the current load started, so a page read earlier cannot bring them back
+    private Set<Integer> deletedWhileLoading = new HashSet<>();
+    private long loadedInMs;
+
+    public TaskIndex(PgPool client, JsonObject config) {
+        this.client = client;
+        this.maxTasks = config.getInteger("maxTasks", 2_000_000);
+        this.maxBytes = config.getLong("maxBytes", 256L * 1024 * 1024);
+        this.pageSize = config.getInteger("loadPageSize", 5_000);
+    }
+
+    // (Re)builds the index from the database. Reads fall back to the database until it completes;
+    // writes made meanwhile are applied and win over older rows being loaded.
+    public Future<Void> load() {
+        int loadGeneration;
+        lock.writeLock().lock();
+        try {
+            reset();
+            state = State.LOADING;
+            deletedWhileLoading = new HashSet<>();
+            loadGeneration = ++generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long started = System.currentTimeMillis();
+        return loadPage(0, loadGeneration, started)
+            .onFailure(err -> System.out.println("❌ Failed to load the task index: " + err.getMessage()));
+    }
+
+    private Future<Void> loadPage(int afterId, int loadGeneration, long started) {
+        return client.preparedQuery(PAGE_SQL)
+            .execute(Tuple.of(afterId, pageSize))
+            .compose(rows -> {
+                int lastId = afterId;
+                lock.writeLock().lock();
+                try {
+                    if (loadGeneration != generation || state != State.LOADING) {
+                        // Superseded by a newer load, or disabled
+                        return Future.succeededFuture();
+                    }
+                    for (Row row : rows) {
+                        Task task = PgTaskRepository.toTask(row);
+                        lastId = task.id();
+                        if (!deletedWhileLoading.contains(lastId)) {
+                            replaceIfNewer(task);
+                        }
+                    }
+                    if (!checkBounds()) {
+                        return Future.succeededFuture();
+                    }
+                    if (rows.size() < pageSize) {
+                        state = State.READY;
+                        deletedWhileLoading = null;
+                        loadedInMs = System.currentTimeMillis() - started;
+                        System.out.println("✅ Task index loaded: " + slotById.size() + " tasks, about "
+                            + estimatedBytes() / (1024 * 1024) + " MiB, in " + loadedInMs + " ms.");
+                        return Future.succeededFuture();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return loadPage(lastId, loadGeneration, started);
+            });
+    }
+
+    // Tasks of the project, or null when the index cannot answer
+    public List<Task> findByProject(int projectId) {
+        lock.readLock().lock();
+        try {
+            if (state != State.READY) {
+                return null;
+            }
+            return tasks(slotsByProject.get(projectId), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tasks assigned to the user, limited to projectIds unless it is empty; null when the index cannot answer
+    public List<Task> findByAssignee(int userId, Integer[] projectIds) {
+        lock.readLock().lock();
+        try {
+            if (state != State.READY) {
+                return null;
+            }
+            return tasks(slotsByAssignee.get(userId), projectIds.length > 0 ? projectIds : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Inserts or replaces the task after a committed write. Callbacks of concurrent writes can run in
+    // either order, so a row older than the indexed one (by change_seq) is ignored.
+    public void put(Task task) {
+        lock.writeLock().lock();
+        try {
+            if (state == State.DISABLED) {
+                return;
+            }
+            replaceIfNewer(task);
+            checkBounds();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int taskId) {
+        lock.writeLock().lock();
+        try {
+            if (state == State.DISABLED) {
+                return;
+            }
+            int slot = slotById.get(taskId);
+            if (slot != IntIntMap.MISSING) {
+                release(slot);
+            }
+            if (deletedWhileLoading != null) {
+                deletedWhileLoading.add(taskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A project and its tasks were deleted outside the repositories (by a background job)
+    public void removeProject(int projectId) {
+        lock.writeLock().lock();
+        try {
+            if (state == State.DISABLED) {
+                return;
+            }
+            IntList slots = slotsByProject.get(projectId);
+            if (slots == null) {
+                return;
+            }
+            int[] taskIds = new int[slots.size()];
+            for (int i = 0; i < taskIds.length; i++) {
+                taskIds[i] = ids[slots.get(i)];
+            }
+            for (int taskId : taskIds) {
+                release(slotById.get(taskId));
+                if (deletedWhileLoading != null) {
+                    deletedWhileLoading.add(taskId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public JsonObject metrics() {
+        lock.readLock().lock();
+        try {
+            int tasks = slotById.size();
+            long bytes = estimatedBytes();
+            return new JsonObject()
+                .put("state", state.name().toLowerCase())
+                .put("tasks", tasks)
+                .put("projects", slotsByProject.size())
+                .put("assignees", slotsByAssignee.size())
+                .put("estimated_bytes", bytes)
+                .put("bytes_per_task", tasks > 0 ? bytes / tasks : 0)
+                .put("max_tasks", maxTasks)
+                .put("max_bytes", maxBytes)
+                .put("loaded_in_ms", state == State.READY ? loadedInMs : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Task> tasks(IntList slots, Integer[] projectFilter) {
+        if (slots == null) {
+            return List.of();
+        }
+        List<Task> result = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            int slot = slots.get(i);
+            if (projectFilter == null || (projectIds[slot] != NONE && contains(projectFilter, projectIds[slot]))) {
+                result.add(task(slot));
+            }
+        }
+        return result;
+    }
+
+    private Task task(int slot) {
+        long created = createdMicros[slot];
+        return new Task(
+            ids[slot],
+            projectIds[slot] == NONE ? null : projectIds[slot],
+            names[slot],
+            descriptions[slot],
+            statuses[slot] == NO_STATUS ? null : statusNames.get(statuses[slot]),
+            assignees[slot] == NONE ? null : assignees[slot],
+            created == NO_TIME ? null : LocalDateTime.ofEpochSecond(Math.floorDiv(created, 1_000_000L),
+                (int) Math.floorMod(created, 1_000_000L) * 1000, ZoneOffset.UTC),
+            progress[slot] == NONE ? null : progress[slot],
+            dueDays[slot] == NONE ? null : LocalDate.ofEpochDay(dueDays[slot]),
+            changeSeqs[slot] == NO_SEQ ? null : changeSeqs[slot]);
+    }
+
+    // Rows without a change_seq always replace
+    private void replaceIfNewer(Task task) {
+        int slot = slotById.get(task.id());
+        if (slot != IntIntMap.MISSING) {
+            if (task.changeSeq() != null && changeSeqs[slot] != NO_SEQ && changeSeqs[slot] > task.changeSeq()) {
+                return;
+            }
+            release(slot);
+        }
+        insert(task);
+    }
+
+    private void insert(Task task) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.removeLast();
+        } else {
+            if (highWater == ids.length) {
+                grow(Math.max(1024, highWater + (highWater >> 1)));
+            }
+            slot = highWater++;
+        }
+
+        ids[slot] = task.id();
+        // project_id is nullable; such tasks are only reachable by id and assignee
+        projectIds[slot] = task.projectId() != null ? task.projectId() : NONE;
+        assignees[slot] = task.assignedTo() != null ? task.assignedTo() : NONE;
+        progress[slot] = task.progress() != null ? task.progress() : NONE;
+        dueDays[slot] = task.dueDate() != null ? (int) task.dueDate().toEpochDay() : NONE;
+        createdMicros[slot] = task.createdAt() != null
+            ? task.createdAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000L + task.createdAt().getNano() / 1000
+            : NO_TIME;
+        changeSeqs[slot] = task.changeSeq() != null ? task.changeSeq() : NO_SEQ;
+        statuses[slot] = statusCode(task.status());
+        names[slot] = task.name();
+        descriptions[slot] = task.description();
+        stringBytes += stringBytes(task.name()) + stringBytes(task.description());
+
+        slotById.put(task.id(), slot);
+        if (task.projectId() != null) {
+            slotsOf(slotsByProject, task.projectId()).add(slot);
+        }
+        if (task.assignedTo() != null) {
+            slotsOf(slotsByAssignee, task.assignedTo()).add(slot);
+        }
+    }
+
+    private void release(int slot) {
+        slotById.remove(ids[slot]);
+        if (projectIds[slot] != NONE) {
+            unlink(slotsByProject, projectIds[slot], slot);
+        }
+        if (assignees[slot] != NONE) {
+            unlink(slotsByAssignee, assignees[slot], slot);
+        }
+        stringBytes -= stringBytes(names[slot]) + stringBytes(descriptions[slot]);
+        names[slot] = null;
+        descriptions[slot] = null;
+        freeSlots.add(slot);
+    }
+
+    private byte statusCode(String status) {
+        if (status == null) {
+            return NO_STATUS;
+        }
+        Byte code = statusCodes.get(status);
+        if (code == null) {
+            if (statusNames.size() == Byte.MAX_VALUE) {
+                // Statuses are a handful of fixed values; this many means free text, which the byte column cannot hold
+                statusOverflow = true;
+                return NO_STATUS;
+            }
+            code = (byte) statusNames.size();
+            statusNames.add(status);
+            statusCodes.put(status, code);
+        }
+        return code;
+    }
+
+    // Disables the index once it holds more than allowed. Returns false when it did.
+    private boolean checkBounds() {
+        if (slotById.size() <= maxTasks && estimatedBytes() <= maxBytes && !statusOverflow) {
+            return true;
+        }
+        System.out.println(statusOverflow
+            ? "⚠️ Task index disabled: more than " + Byte.MAX_VALUE + " distinct task statuses. Task reads go to the database."
+            : "⚠️ Task index disabled: " + slotById.size() + " tasks, about " + estimatedBytes()
+                + " bytes, over maxTasks " + maxTasks + " / maxBytes " + maxBytes + ". Task reads go to the database.");
+        reset();
+        state = State.DISABLED;
+        return false;
+    }
+
+    private long estimatedBytes() {
+        return (long) ids.length * FIXED_BYTES_PER_TASK + stringBytes;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        projectIds = Arrays.copyOf(projectIds, capacity);
+        assignees = Arrays.copyOf(assignees, capacity);
+        progress = Arrays.copyOf(progress, capacity);
+        dueDays = Arrays.copyOf(dueDays, capacity);
+        createdMicros = Arrays.copyOf(createdMicros, capacity);
+        changeSeqs = Arrays.copyOf(changeSeqs, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    private void reset() {
+        grow(0);
+        highWater = 0;
+        freeSlots.clear();
+        slotById.clear();
+        slotsByProject.clear();
+        slotsByAssignee.clear();
+        statusNames.clear();
+        statusCodes.clear();
+        statusOverflow = false;
+        stringBytes = 0;
+    }
+
+    private static IntList slotsOf(IntObjectMap<IntList> index, int key) {
+        IntList slots = index.get(key);
+        if (slots == null) {
+            slots = new IntList(4);
+            index.put(key, slots);
+        }
+        return slots;
+    }
+
+    private static void unlink(IntObjectMap<IntList> index, int key, int slot) {
+        IntList slots = index.get(key);
+        if (slots != null) {
+            slots.removeValue(slot);
+            if (slots.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static boolean contains(Integer[] values, int value) {
+        for (Integer candidate : values) {
+            if (candidate != null && candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // String header and backing array, counting two bytes per char as an upper bound
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
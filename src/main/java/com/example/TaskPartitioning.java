@@ -0,0 +1,467 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Optional declarative partitioning of tasks by project_id ("partitioning" config block).
+//
+// A new deployment (tasks still empty) is switched over by SchemaMigrations at startup. An existing table
+// is moved online with the CLI:
+//
+//   mvn -q compile exec:java -Dexec.mainClass=com.example.TaskPartitioning -Dexec.args="prepare --config conf.json"
+//
+//   prepare   create the partitioned shadow table and a trigger that mirrors every write into it
+//   backfill  copy the existing rows over in id-ordered batches (--batch, --sleep ms); resumable
+//   cutover   swap the tables in one short transaction; the old table stays as tasks_unpartitioned
+//   status    backfill progress and partition sizes
+//   bench     per-project query latency on the unpartitioned vs the partitioned table (--samples, --iterations)
+public class TaskPartitioning {
+
+    private static final String SHADOW = "tasks_partitioned";
+    private static final String OLD = "tasks_unpartitioned";
+    // Indexes SchemaMigrations creates on tasks by name. Index names are schema-wide, so while the old table
+    // keeps them, CREATE INDEX IF NOT EXISTS ... ON tasks would skip the partitioned table.
+    private static final List<String> TASKS_INDEXES = List.of("idx_tasks_assigned_to", "idx_tasks_project_change", "idx_tasks_assigned_change");
+
+    private static final String INSPECT_SQL =
+        "SELECT (SELECT relkind FROM pg_class WHERE oid = to_regclass('tasks'))::text AS kind, " +
+        "EXISTS (SELECT 1 FROM tasks) AS has_rows, " +
+        "to_regclass('" + SHADOW + "') IS NOT NULL AS has_shadow, " +
+        "pg_get_serial_sequence('tasks', 'id') AS id_sequence, " +
+        "(SELECT COUNT(*) FROM pg_constraint WHERE contype = 'f' AND confrelid = to_regclass('tasks')) AS foreign_keys";
+    private static final String CREATE_STATE_SQL =
+        "CREATE TABLE IF NOT EXISTS task_partitioning_state (" +
+        "id INTEGER PRIMARY KEY CHECK (id = 1), target_id BIGINT NOT NULL, backfilled_through BIGINT NOT NULL)";
+    // Run after the trigger exists: every id above target_id is mirrored by the trigger, everything up to it by the backfill
+    private static final String INIT_STATE_SQL =
+        "INSERT INTO task_partitioning_state SELECT 1, COALESCE(MAX(id), 0), 0 FROM tasks ON CONFLICT (id) DO NOTHING";
+    private static final String SYNC_FUNCTION_SQL =
+        "CREATE OR REPLACE FUNCTION tasks_partition_sync() RETURNS trigger LANGUAGE plpgsql AS $$\n" +
+        "BEGIN\n" +
+        "    IF TG_OP <> 'INSERT' THEN\n" +
+        "        IF OLD.project_id IS NULL THEN\n" +
+        "            DELETE FROM " + SHADOW + " WHERE id = OLD.id AND project_id IS NULL;\n" +
+        "        ELSE\n" +
+        "            DELETE FROM " + SHADOW + " WHERE id = OLD.id AND project_id = OLD.project_id;\n" +
+        "        END IF;\n" +
+        "    END IF;\n" +
+        "    IF TG_OP <> 'DELETE' THEN\n" +
+        "        INSERT INTO " + SHADOW + " SELECT (NEW).*;\n" +
+        "    END IF;\n" +
+        "    RETURN NULL;\n" +
+        "END\n" +
+        "$$";
+    private static final String SYNC_TRIGGER_SQL =
+        "CREATE TRIGGER tasks_partition_sync AFTER INSERT OR UPDATE OR DELETE ON tasks " +
+        "FOR EACH ROW EXECUTE FUNCTION tasks_partition_sync()";
+    // FOR SHARE waits for concurrent writers and re-checks the row, so a task deleted meanwhile is not resurrected
+    private static final String BACKFILL_SQL =
+        "INSERT INTO " + SHADOW + " SELECT t.* FROM tasks t WHERE t.id > ? AND t.id <= ? " +
+        "AND NOT EXISTS (SELECT 1 FROM " + SHADOW + " s WHERE s.id = t.id AND s.project_id IS NOT DISTINCT FROM t.project_id) " +
+        "FOR SHARE OF t";
+    private static final String PARTITIONS_SQL =
+        "SELECT c.relname, c.reltuples::bigint AS estimated_rows FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname";
+
+    static boolean enabled(JsonObject config) {
+        return config != null && config.getBoolean("enabled", false);
+    }
+
+    // DDL of the partitioned shadow table. Unique keys must contain the partition key, hence (id, project_id).
+    static List<String> createStatements(JsonObject config) {
+        String strategy = config.getString("strategy", "hash");
+        List<String> statements = new ArrayList<>();
+        if ("hash".equals(strategy)) {
+            int partitions = config.getInteger("partitions", 16);
+            statements.add("CREATE TABLE " + SHADOW + " (LIKE tasks INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY HASH (project_id)");
+            for (int i = 0; i < partitions; i++) {
+                statements.add("CREATE TABLE tasks_p" + i + " PARTITION OF " + SHADOW
+                    + " FOR VALUES WITH (MODULUS " + partitions + ", REMAINDER " + i + ")");
+            }
+        } else if ("list".equals(strategy)) {
+            // One partition per large tenant, everybody else (and tasks without a project) in the default partition
+            statements.add("CREATE TABLE " + SHADOW + " (LIKE tasks INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY LIST (project_id)");
+            for (Object projectId : config.getJsonArray("dedicated", new JsonArray())) {
+                int id = ((Number) projectId).intValue();
+                statements.add("CREATE TABLE tasks_project_" + id + " PARTITION OF " + SHADOW + " FOR VALUES IN (" + id + ")");
+            }
+            statements.add("CREATE TABLE tasks_default PARTITION OF " + SHADOW + " DEFAULT");
+        } else {
+            throw new IllegalArgumentException("partitioning.strategy must be hash or list, got " + strategy);
+        }
+        statements.add("ALTER TABLE " + SHADOW + " ADD CONSTRAINT tasks_partitioned_id_project_key UNIQUE (id, project_id)");
+        statements.add("CREATE INDEX tasks_partitioned_project_idx ON " + SHADOW + " (project_id, id)");
+        statements.add("CREATE INDEX tasks_partitioned_assigned_idx ON " + SHADOW + " (assigned_to, project_id)");
+        return statements;
+    }
+
+    // Must run in one transaction. The id sequence moves to the new table so dropping the old one keeps it.
+    static List<String> swapStatements(String idSequence) {
+        List<String> statements = new ArrayList<>();
+        statements.add("LOCK TABLE tasks IN ACCESS EXCLUSIVE MODE");
+        statements.add("DROP TRIGGER IF EXISTS tasks_partition_sync ON tasks");
+        statements.add("ALTER TABLE tasks RENAME TO " + OLD);
+        for (String index : TASKS_INDEXES) {
+            statements.add("ALTER INDEX IF EXISTS " + index + " RENAME TO " + index + "_unpartitioned");
+        }
+        statements.add("ALTER TABLE " + SHADOW + " RENAME TO tasks");
+        if (idSequence != null) {
+            statements.add("ALTER SEQUENCE " + idSequence + " OWNED BY tasks.id");
+        }
+        statements.add("DROP FUNCTION IF EXISTS tasks_partition_sync()");
+        // The delta-sync trigger and indexes stayed on the old table
+        statements.add(SchemaMigrations.TASKS_ASSIGNED_INDEX);
+        statements.addAll(SchemaMigrations.CHANGE_TRACKING);
+        statements.add("DROP TABLE IF EXISTS task_partitioning_state");
+        return statements;
+    }
+
+    // Startup path: an empty tasks table is replaced by the partitioned one right away. Tables with
+    // rows are left alone, because copying them belongs in the online backfill, not in server startup.
+    static Future<Void> migrate(PgPool client, JsonObject config) {
+        return client.query(INSPECT_SQL).execute().compose(rows -> {
+            Row row = rows.iterator().next();
+            if ("p".equals(row.getString("kind"))) {
+                System.out.println("✅ tasks is partitioned.");
+                return Future.succeededFuture();
+            }
+            if (row.getBoolean("has_rows") || row.getBoolean("has_shadow") || row.getLong("foreign_keys") > 0) {
+                System.out.println("⚠️ Partitioning is enabled but tasks already has rows, foreign keys or a migration in progress; "
+                    + "move it online with TaskPartitioning prepare / backfill / cutover.");
+                return Future.succeededFuture();
+            }
+
+            List<String> statements = new ArrayList<>(createStatements(config));
+            statements.addAll(swapStatements(row.getString("id_sequence")));
+            statements.add("DROP TABLE " + OLD);
+            return client.withTransaction(conn -> {
+                Future<Void> chain = Future.succeededFuture();
+                for (String statement : statements) {
+                    chain = chain.compose(v -> conn.query(statement).execute().mapEmpty());
+                }
+                return chain;
+            }).onSuccess(v -> System.out.println("✅ tasks switched to " + config.getString("strategy", "hash") + " partitioning by project_id."));
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: TaskPartitioning prepare|backfill|cutover|status|bench [--config conf.json] "
+                + "[--batch 5000] [--sleep 0] [--samples 50] [--iterations 20]");
+            System.exit(2);
+        }
+        String command = args[0];
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        JsonObject config = options.containsKey("config")
+            ? new JsonObject(Files.readString(Path.of(options.get("config"))))
+            : new JsonObject();
+
+        JdbcPool pool = JdbcPool.create(config.getJsonObject("db", new JsonObject()), 1);
+        try {
+            pool.withConnection(conn -> {
+                switch (command) {
+                    case "prepare":
+                        prepare(conn, config.getJsonObject("partitioning", new JsonObject()));
+                        break;
+                    case "backfill":
+                        backfill(conn, Integer.parseInt(options.getOrDefault("batch", "5000")), Long.parseLong(options.getOrDefault("sleep", "0")));
+                        break;
+                    case "cutover":
+                        cutover(conn);
+                        break;
+                    case "status":
+                        status(conn);
+                        break;
+                    case "bench":
+                        PartitionBench.run(conn, Integer.parseInt(options.getOrDefault("samples", "50")),
+                            Integer.parseInt(options.getOrDefault("iterations", "20")));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown command " + command);
+                }
+                return null;
+            });
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void prepare(Connection conn, JsonObject config) throws SQLException {
+        inTransaction(conn, st -> {
+            Inspection table = inspect(st);
+            if (table.partitioned) {
+                throw new SQLException("tasks is already partitioned.");
+            }
+            if (!table.hasShadow) {
+                for (String statement : createStatements(config)) {
+                    st.execute(statement);
+                }
+            }
+            st.execute(CREATE_STATE_SQL);
+            st.execute(SYNC_FUNCTION_SQL);
+            st.execute("DROP TRIGGER IF EXISTS tasks_partition_sync ON tasks");
+            st.execute(SYNC_TRIGGER_SQL);
+            st.execute(INIT_STATE_SQL);
+        });
+        System.out.println("✅ " + SHADOW + " created and kept in sync by trigger. Next: backfill.");
+    }
+
+    private static void backfill(Connection conn, int batchSize, long sleepMs) throws SQLException {
+        long target;
+        long through;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT target_id, backfilled_through FROM task_partitioning_state")) {
+            if (!rs.next()) {
+                throw new SQLException("No migration in progress, run prepare first.");
+            }
+            target = rs.getLong("target_id");
+            through = rs.getLong("backfilled_through");
+        }
+
+        long started = System.nanoTime();
+        long copied = 0;
+        while (through < target) {
+            long from = through;
+            long to = Math.min(through + batchSize, target);
+            int[] inserted = new int[1];
+            // Each batch commits with its progress, so an interrupted backfill resumes where it stopped
+            inTransaction(conn, st -> {
+                try (PreparedStatement ps = conn.prepareStatement(BACKFILL_SQL)) {
+                    ps.setLong(1, from);
+                    ps.setLong(2, to);
+                    inserted[0] = ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE task_partitioning_state SET backfilled_through = ?")) {
+                    ps.setLong(1, to);
+                    ps.executeUpdate();
+                }
+            });
+            through = to;
+            copied += inserted[0];
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("⏳ Backfilled ids up to %d of %d (%.1f%%), %d rows, %.0f rows/s%n",
+                through, target, target == 0 ? 100.0 : through * 100.0 / target, copied, copied / Math.max(seconds, 0.001));
+            if (sleepMs > 0) {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        try (Statement st = conn.createStatement()) {
+            st.execute("ANALYZE " + SHADOW);
+        }
+        System.out.println("✅ Backfill complete. Next: cutover.");
+    }
+
+    private static void cutover(Connection conn) throws SQLException {
+        inTransaction(conn, st -> {
+            Inspection table = inspect(st);
+            if (table.partitioned || !table.hasShadow) {
+                throw new SQLException("Nothing to cut over, run prepare and backfill first.");
+            }
+            if (table.foreignKeys > 0) {
+                throw new SQLException("Other tables have foreign keys to tasks; drop or redirect them before the cutover.");
+            }
+            try (ResultSet rs = st.executeQuery("SELECT target_id, backfilled_through FROM task_partitioning_state")) {
+                if (!rs.next() || rs.getLong("backfilled_through") < rs.getLong("target_id")) {
+                    throw new SQLException("Backfill is not complete yet.");
+                }
+            }
+            for (String statement : swapStatements(table.idSequence)) {
+                st.execute(statement);
+            }
+        });
+        System.out.println("✅ tasks is now partitioned. The old table is kept as " + OLD + "; drop it once you are satisfied.");
+    }
+
+    private static void status(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            Inspection table = inspect(st);
+            System.out.println("tasks partitioned: " + table.partitioned + ", shadow table: " + table.hasShadow);
+            if (table.hasShadow) {
+                try (ResultSet rs = st.executeQuery("SELECT target_id, backfilled_through FROM task_partitioning_state")) {
+                    if (rs.next()) {
+                        System.out.println("backfilled through id " + rs.getLong("backfilled_through") + " of " + rs.getLong("target_id"));
+                    }
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(PARTITIONS_SQL)) {
+            ps.setString(1, inspectPartitioned(conn) ? "tasks" : SHADOW);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    System.out.printf("  %-24s ~%d rows%n", rs.getString("relname"), rs.getLong("estimated_rows"));
+                }
+            }
+        }
+    }
+
+    static boolean inspectPartitioned(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            return inspect(st).partitioned;
+        }
+    }
+
+    private static final class Inspection {
+        boolean partitioned;
+        boolean hasShadow;
+        String idSequence;
+        long foreignKeys;
+    }
+
+    private static Inspection inspect(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery(INSPECT_SQL)) {
+            rs.next();
+            Inspection inspection = new Inspection();
+            inspection.partitioned = "p".equals(rs.getString("kind"));
+            inspection.hasShadow = rs.getBoolean("has_shadow");
+            inspection.idSequence = rs.getString("id_sequence");
+            inspection.foreignKeys = rs.getLong("foreign_keys");
+            return inspection;
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementWork {
+        void run(Statement st) throws SQLException;
+    }
+
+    private static void inTransaction(Connection conn, StatementWork work) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            work.run(st);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // Same queries, same sampled tasks, against both tables
+    private static final class PartitionBench {
+
+        @FunctionalInterface
+        private interface Binder {
+            void bind(Connection conn, PreparedStatement ps, int[] task) throws SQLException;
+        }
+
+        private static final class Query {
+            final String label;
+            final String sql;
+            final Binder binder;
+
+            Query(String label, String sql, Binder binder) {
+                this.label = label;
+                this.sql = sql;
+                this.binder = binder;
+            }
+        }
+
+        // Sampled task: {id, project_id, assigned_to}
+        private static final List<Query> QUERIES = Arrays.asList(
+            new Query("project tasks", "SELECT * FROM %s WHERE project_id = ?",
+                (conn, ps, task) -> ps.setInt(1, task[1])),
+            new Query("task in project", "SELECT * FROM %s WHERE id = ? AND project_id = ?",
+                (conn, ps, task) -> {
+                    ps.setInt(1, task[0]);
+                    ps.setInt(2, task[1]);
+                }),
+            new Query("user in project", "SELECT * FROM %s WHERE assigned_to = ? AND project_id = ANY(?)",
+                (conn, ps, task) -> {
+                    ps.setInt(1, task[2]);
+                    ps.setArray(2, conn.createArrayOf("integer", new Integer[] { task[1] }));
+                }),
+            new Query("task by id only", "SELECT * FROM %s WHERE id = ?",
+                (conn, ps, task) -> ps.setInt(1, task[0])));
+
+        static void run(Connection conn, int samples, int iterations) throws SQLException {
+            boolean partitioned = inspectPartitioned(conn);
+            String before = partitioned ? OLD : "tasks";
+            String after = partitioned ? "tasks" : SHADOW;
+
+            List<int[]> sample = new ArrayList<>();
+            for (String sql : new String[] {
+                    "SELECT id, project_id, assigned_to FROM " + before + " TABLESAMPLE SYSTEM (1) WHERE project_id IS NOT NULL LIMIT ?",
+                    "SELECT id, project_id, assigned_to FROM " + before + " WHERE project_id IS NOT NULL LIMIT ?" }) {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, samples);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            sample.add(new int[] { rs.getInt("id"), rs.getInt("project_id"), rs.getInt("assigned_to") });
+                        }
+                    }
+                }
+                if (!sample.isEmpty()) {
+                    break;
+                }
+            }
+            if (sample.isEmpty()) {
+                throw new SQLException("No tasks to sample from " + before + ".");
+            }
+
+            System.out.printf("%n%-18s %-22s %9s %9s %9s%n", "query", "table", "p50 ms", "p95 ms", "p99 ms");
+            for (Query query : QUERIES) {
+                // First round only warms caches and plans
+                for (int round = 0; round < 2; round++) {
+                    for (String table : new String[] { before, after }) {
+                        long[] latencies = measure(conn, query, table, sample, round == 0 ? 1 : iterations);
+                        if (round == 1) {
+                            Arrays.sort(latencies);
+                            System.out.printf("%-18s %-22s %9.3f %9.3f %9.3f%n", query.label, table,
+                                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99));
+                        }
+                    }
+                }
+            }
+        }
+
+        private static long[] measure(Connection conn, Query query, String table, List<int[]> sample, int iterations) throws SQLException {
+            long[] latencies = new long[sample.size() * iterations];
+            int n = 0;
+            try (PreparedStatement ps = conn.prepareStatement(String.format(query.sql, table))) {
+                for (int i = 0; i < iterations; i++) {
+                    for (int[] task : sample) {
+                        query.binder.bind(conn, ps, task);
+                        long started = System.nanoTime();
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                // Drain the rows, like a handler would
+                            }
+                        }
+                        latencies[n++] = System.nanoTime() - started;
+                    }
+                }
+            }
+            return latencies;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.List;
+
+// Task storage used by TaskHandler. ctx is the request the call is made for: the Postgres
+// engine routes reads by it (replicas, read-your-writes) and marks it after writes. It may be null.
+public interface TaskRepository {
+
+    // Returns the generated id
+    Future<Integer> create(RoutingContext ctx, Task task);
+
+    Future<List<Task>> findByProject(RoutingContext ctx, int projectId);
+
+    // Tasks of all the listed projects in one read, for batched loading
+    Future<List<Task>> findByProjects(RoutingContext ctx, Integer[] projectIds);
+
+    // An empty projectIds means every project
+    Future<List<Task>> findByAssignee(RoutingContext ctx, int userId, Integer[] projectIds);
+
+    // Delta reads for ?since=: changes after the cursor of an earlier read. since 0 returns every
+    // task and no removals. null when the cursor is older than the kept tombstones (full re-sync needed).
+    Future<TaskChanges> changesInProject(RoutingContext ctx, int projectId, long since);
+
+    Future<TaskChanges> changesForAssignee(RoutingContext ctx, int userId, Integer[] projectIds, long since);
+
+    // Read from the primary, since it is always followed by a write. null when missing.
+    Future<Task> findById(RoutingContext ctx, int taskId, Integer projectHint);
+
+    // Overwrites every field of the task identified by id and projectId (null for a task without a
+    // project). Returns the row as written, or null when no such task exists any more.
+    Future<Task> update(RoutingContext ctx, Task task);
+
+    Future<Boolean> delete(RoutingContext ctx, int taskId, Integer projectId);
+
+    // userId null unassigns. Returns the updated task, or null when missing.
+    Future<Task> assign(RoutingContext ctx, int taskId, Integer userId, Integer projectHint);
+
+    // Recomputes the project's status (and burndown bucket, where kept) from its tasks
+    Future<Void> refreshProjectStatus(int projectId);
+}
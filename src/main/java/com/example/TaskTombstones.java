@@ -0,0 +1,30 @@
+package com.example;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Tuple;
+
+// Drops delta-sync tombstones older than tombstoneRetentionDays, once an hour. Clients whose
+// cursor predates the pruned ones get 410 and start over with since=0.
+public class TaskTombstones {
+
+    private static final String PRUNE_SQL =
+        "WITH pruned AS (DELETE FROM task_tombstones WHERE removed_at < NOW() - make_interval(days => $1) RETURNING change_seq) " +
+        "UPDATE task_sync_state SET pruned_through = GREATEST(pruned_through, (SELECT MAX(change_seq) FROM pruned)) WHERE id = 1";
+
+    private final PgPool client;
+    private final int retentionDays;
+
+    public TaskTombstones(Vertx vertx, PgPool client, JsonObject config) {
+        this.client = client;
+        this.retentionDays = config.getInteger("tombstoneRetentionDays", 30);
+        vertx.setPeriodic(60 * 60 * 1000L, id -> prune());
+    }
+
+    public void prune() {
+        client.preparedQuery(PRUNE_SQL)
+            .execute(Tuple.of(retentionDays))
+            .onFailure(err -> System.out.println("❌ Failed to prune task tombstones: " + err.getMessage()));
+    }
+}
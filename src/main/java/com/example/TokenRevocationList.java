@@ -0,0 +1,160 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.pgclient.PgPool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked users and tokens kept in memory so the JWT check never hits the database.
+// Revocations are persisted, loaded at startup and replicated to every instance over the event bus.
+// Without a client (in-memory storage) they are only kept and replicated, not persisted.
+public class TokenRevocationList {
+
+    public static final String ADDRESS = "auth.revocations";
+    // Token claim with the epoch millisecond the token was issued
+    public static final String ISSUED_AT_MS = "iat_ms";
+
+    private static final String INSERT_REVOCATION_SQL = "INSERT INTO token_revocations (user_id, token_id, revoked_at, expires_at) VALUES ($1, $2, $3, $4)";
+
+    static final List<String> STATEMENTS = List.of(INSERT_REVOCATION_SQL);
+
+    private final Vertx vertx;
+    private final PgPool client;
+    private final long tokenTtlSeconds;
+
+    // user id -> epoch millisecond of the revocation; tokens issued at or before it are rejected.
+    // Milliseconds, since a login right after a revocation usually falls in the same second.
+    private final Map<Integer, Long> revokedUsers = new ConcurrentHashMap<>();
+    // user id -> epoch second after which the entry can be dropped
+    private final Map<Integer, Long> revokedUserExpiries = new ConcurrentHashMap<>();
+    // token id (jti) -> epoch second the token expires
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(Vertx vertx, PgPool client, long tokenTtlSeconds) {
+        this.vertx = vertx;
+        this.client = client;
+        this.tokenTtlSeconds = tokenTtlSeconds;
+
+        vertx.eventBus().<JsonObject>consumer(ADDRESS, message -> apply(message.body()));
+        vertx.setPeriodic(60_000, id -> prune());
+    }
+
+    public Future<Void> load() {
+        if (client == null) {
+            return Future.succeededFuture();
+        }
+        return client.query("SELECT user_id, token_id, revoked_at, expires_at FROM token_revocations WHERE expires_at > NOW()")
+            .execute()
+            .onSuccess(rows -> {
+                for (Row row : rows) {
+                    apply(new JsonObject()
+                        .put("user_id", row.getInteger("user_id"))
+                        .put("token_id", row.getString("token_id"))
+                        .put("revoked_at", row.getOffsetDateTime("revoked_at").toInstant().toEpochMilli())
+                        .put("expires_at", row.getOffsetDateTime("expires_at").toEpochSecond()));
+                }
+                System.out.println("✅ Loaded " + rows.size() + " token revocations.");
+            })
+            .onFailure(err -> System.out.println("❌ Failed to load token revocations: " + err.getMessage()))
+            .mapEmpty();
+    }
+
+    // Invalidates every token issued to the user so far (role change, deletion)
+    public Future<Void> revokeUser(int userId) {
+        long now = System.currentTimeMillis();
+        return publish(new JsonObject()
+            .put("user_id", userId)
+            .put("revoked_at", now)
+            .put("expires_at", now / 1000 + tokenTtlSeconds));
+    }
+
+    // Invalidates a single token (logout)
+    public Future<Void> revokeToken(String tokenId, long expiresAt) {
+        return publish(new JsonObject()
+            .put("token_id", tokenId)
+            .put("revoked_at", System.currentTimeMillis())
+            .put("expires_at", expiresAt));
+    }
+
+    public boolean isRevoked(JsonObject principal) {
+        String tokenId = principal.getString("jti");
+        if (tokenId != null && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+
+        Object id = principal.getValue("id");
+        if (id == null) {
+            return false;
+        }
+        Long revokedAt = revokedUsers.get(id instanceof Number ? ((Number) id).intValue() : Integer.parseInt(id.toString()));
+        // iat only has seconds, so logins put the exact time in ISSUED_AT_MS. Tokens issued before
+        // revocation tracking have neither and are treated as old.
+        long issuedAt = principal.getLong(ISSUED_AT_MS, principal.getLong("iat", 0L) * 1000);
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    // Route handler placed right after JWTAuthHandler
+    public void check(RoutingContext ctx) {
+        if (ctx.user() != null && isRevoked(ctx.user().principal())) {
+            ctx.response().setStatusCode(401).end("Token has been revoked.");
+            return;
+        }
+        ctx.next();
+    }
+
+    // Applied and broadcast before it is persisted, so a failed insert never leaves a revoked token
+    // valid on a running instance. The returned future fails if it could not be persisted, in which
+    // case it is lost on the next restart.
+    private Future<Void> publish(JsonObject revocation) {
+        apply(revocation);
+        vertx.eventBus().publish(ADDRESS, revocation);
+        if (client == null) {
+            return Future.succeededFuture();
+        }
+        return client.preparedQuery(INSERT_REVOCATION_SQL)
+            .execute(Tuple.of(
+                revocation.getInteger("user_id"),
+                revocation.getString("token_id"),
+                toTimestamp(revocation.getLong("revoked_at")),
+                toTimestamp(revocation.getLong("expires_at") * 1000)))
+            .onFailure(err -> System.out.println("❌ Failed to persist token revocation: " + err.getMessage()))
+            .mapEmpty();
+    }
+
+    private void apply(JsonObject revocation) {
+        long expiresAt = revocation.getLong("expires_at");
+        Integer userId = revocation.getInteger("user_id");
+        if (userId != null) {
+            revokedUsers.merge(userId, revocation.getLong("revoked_at"), Math::max);
+            revokedUserExpiries.merge(userId, expiresAt, Math::max);
+        }
+        String tokenId = revocation.getString("token_id");
+        if (tokenId != null) {
+            revokedTokens.put(tokenId, expiresAt);
+        }
+    }
+
+    private void prune() {
+        long now = Instant.now().getEpochSecond();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUserExpiries.forEach((userId, expiresAt) -> {
+            if (expiresAt <= now && revokedUserExpiries.remove(userId, expiresAt)) {
+                revokedUsers.remove(userId);
+            }
+        });
+    }
+
+    private static OffsetDateTime toTimestamp(long epochMilli) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+}
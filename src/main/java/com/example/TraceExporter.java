@@ -0,0 +1,103 @@
+package com.example;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ships finished spans in batches as OTLP/JSON ExportTraceServiceRequest documents: appended
+// one per line to exportFile, and/or POSTed to an OTLP/HTTP endpoint such as a local collector's
+// http://localhost:4318/v1/traces. Spans beyond maxQueuedSpans are dropped and counted.
+public class TraceExporter {
+
+    private final Vertx vertx;
+    private final String exportFile;
+    private final URI endpoint;
+    private final HttpClient http;
+    private final int maxQueuedSpans;
+    private final long timerId;
+    private final JsonObject resource;
+
+    private final ConcurrentLinkedQueue<Tracing.Span> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public TraceExporter(Vertx vertx, JsonObject config) {
+        this.vertx = vertx;
+        this.exportFile = config.getString("exportFile", config.containsKey("endpoint") ? null : "traces.jsonl");
+        this.endpoint = config.getString("endpoint") != null ? URI.create(config.getString("endpoint")) : null;
+        this.http = endpoint != null ? vertx.createHttpClient() : null;
+        this.maxQueuedSpans = config.getInteger("maxQueuedSpans", 20_000);
+        this.resource = new JsonObject().put("attributes", new JsonArray()
+            .add(new JsonObject().put("key", "service.name")
+                .put("value", new JsonObject().put("stringValue", config.getString("serviceName", "project-management")))));
+
+        timerId = vertx.setPeriodic(config.getLong("exportIntervalMs", 1000L), id -> flush());
+    }
+
+    // Safe to call from any thread
+    public void export(List<Tracing.Span> spans) {
+        if (queued.addAndGet(spans.size()) > maxQueuedSpans) {
+            queued.addAndGet(-spans.size());
+            long count = dropped.addAndGet(spans.size());
+            if (count == spans.size() || count % 10_000 < spans.size()) {
+                System.out.println("⚠️ Trace export queue full, " + count + " spans dropped so far.");
+            }
+            return;
+        }
+        queue.addAll(spans);
+    }
+
+    public void close() {
+        vertx.cancelTimer(timerId);
+        flush();
+        if (http != null) {
+            http.close();
+        }
+    }
+
+    private void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        JsonArray spans = new JsonArray();
+        Tracing.Span span;
+        while ((span = queue.poll()) != null) {
+            queued.decrementAndGet();
+            spans.add(span.toOtlp());
+        }
+
+        JsonObject request = new JsonObject().put("resourceSpans", new JsonArray().add(new JsonObject()
+            .put("resource", resource)
+            .put("scopeSpans", new JsonArray().add(new JsonObject()
+                .put("scope", new JsonObject().put("name", Tracing.class.getName()))
+                .put("spans", spans)))));
+        Buffer body = request.toBuffer();
+
+        if (exportFile != null) {
+            vertx.fileSystem().open(exportFile, new OpenOptions().setAppend(true).setCreate(true))
+                .compose(file -> file.write(body.copy().appendByte((byte) '\n')).eventually(v -> file.close()))
+                .onFailure(err -> System.out.println("❌ Failed to write traces to " + exportFile + ": " + err.getMessage()));
+        }
+        if (http != null) {
+            int port = endpoint.getPort() != -1 ? endpoint.getPort() : 4318;
+            http.request(HttpMethod.POST, port, endpoint.getHost(), endpoint.getRawPath())
+                .compose(req -> req.putHeader("Content-Type", "application/json").send(body))
+                .onSuccess(res -> {
+                    if (res.statusCode() >= 300) {
+                        System.out.println("❌ Trace collector answered " + res.statusCode());
+                    }
+                })
+                .onFailure(err -> System.out.println("❌ Failed to send traces to " + endpoint + ": " + err.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.example;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Per-request tracing. The router handler opens a root span and keeps it in the request's own
+// (duplicated) Vert.x context; pg callbacks run on that same context, so every query issued while
+// handling the request - including fire-and-forget work such as the project status recompute -
+// finds it there. A query span has pool.acquire, db.execute and rows.map children.
+// A trace is finished once the response has ended and its last span has ended, then handed to
+// TraceExporter when sampled: head sampling picks sampleRate of requests up front, tail sampling
+// also keeps every trace that failed or took at least slowMs.
+// query() also times every statement for SlowQueryLog, whether or not tracing is enabled.
+public final class Tracing {
+
+    static final int KIND_INTERNAL = 1;
+    static final int KIND_SERVER = 2;
+    static final int KIND_CLIENT = 3;
+
+    private static final String LOCAL_KEY = "tracing.span";
+
+    // Wall clock in nanoseconds, from one currentTimeMillis reading plus nanoTime deltas
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    // null while tracing is disabled; queries then skip every tracing step
+    private static volatile Tracing instance;
+
+    private final double sampleRate;
+    private final boolean tailSampling;
+    private final long slowNanos;
+    private final TraceExporter exporter;
+
+    private Tracing(JsonObject config, TraceExporter exporter) {
+        this.sampleRate = config.getDouble("sampleRate", 0.01);
+        this.tailSampling = config.getBoolean("tailSampling", true);
+        this.slowNanos = config.getLong("slowMs", 500L) * 1_000_000L;
+        this.exporter = exporter;
+    }
+
+    public static void configure(Vertx vertx, JsonObject config) {
+        if (config == null || !config.getBoolean("enabled", false)) {
+            instance = null;
+            return;
+        }
+        instance = new Tracing(config, new TraceExporter(vertx, config));
+        System.out.println("✅ Tracing enabled (head sample rate " + instance.sampleRate
+            + (instance.tailSampling ? ", tail sampling above " + instance.slowNanos / 1_000_000 + " ms and on errors" : "") + ").");
+    }
+
+    public static void close() {
+        Tracing tracing = instance;
+        instance = null;
+        if (tracing != null) {
+            tracing.exporter.close();
+        }
+    }
+
+    // First route handler. Continues an incoming W3C traceparent, otherwise starts a new trace.
+    public static void handler(RoutingContext ctx) {
+        Tracing tracing = instance;
+        if (tracing == null) {
+            ctx.next();
+            return;
+        }
+
+        String traceId = null;
+        String parentId = null;
+        Boolean sampled = null;
+        String traceparent = ctx.request().getHeader("traceparent");
+        if (traceparent != null) {
+            String[] parts = traceparent.trim().split("-");
+            if (parts.length == 4 && parts[1].length() == 32 && parts[2].length() == 16) {
+                traceId = parts[1];
+                parentId = parts[2];
+                sampled = parts[3].endsWith("1");
+            }
+        }
+        boolean headSampled = sampled != null ? sampled : ThreadLocalRandom.current().nextDouble() < tracing.sampleRate;
+        if (!headSampled && !tracing.tailSampling) {
+            // Not recorded at all, so queries find no span and skip tracing
+            ctx.next();
+            return;
+        }
+
+        Trace trace = new Trace(tracing, Vertx.currentContext(), traceId != null ? traceId : randomHex(16), headSampled);
+        Span root = trace.start(ctx.request().method() + " " + ctx.request().path(), KIND_SERVER, parentId);
+        root.attribute("http.method", ctx.request().method().name())
+            .attribute("http.target", ctx.request().uri());
+        Vertx.currentContext().putLocal(LOCAL_KEY, root);
+        ctx.response().putHeader("traceparent", "00-" + trace.traceId + "-" + root.spanId + "-" + (headSampled ? "01" : "00"));
+
+        ctx.addEndHandler(ar -> {
+            int status = ctx.response().getStatusCode();
+            // Name by route pattern once routing is done, so spans group by endpoint
+            if (ctx.currentRoute() != null && ctx.currentRoute().getPath() != null) {
+                root.name = ctx.request().method() + " " + ctx.currentRoute().getPath();
+            }
+            root.attribute("http.status_code", status);
+            root.end(status >= 500 || ar.failed() ? "HTTP " + status : null);
+        });
+        ctx.next();
+    }
+
+    // The span of the request being handled on the current context, or null
+    static Span current() {
+        Context context = Vertx.currentContext();
+        if (context == null) {
+            return null;
+        }
+        Object span = context.getLocal(LOCAL_KEY);
+        return span instanceof Span ? (Span) span : null;
+    }
+
+    static Future<RowSet<Row>> query(SqlClient client, String sql, Tuple args) {
+        return query(client, sql, args, Function.identity());
+    }
+
+    // Runs a prepared query and maps its rows, as a db.query span with pool.acquire, db.execute
+    // and rows.map children when the current request is traced
+    static <T> Future<T> query(SqlClient client, String sql, Tuple args, Function<RowSet<Row>, T> mapper) {
+        long started = System.nanoTime();
+        Span parent = current();
+        if (parent == null) {
+            return client.preparedQuery(sql).execute(args)
+                .onSuccess(result -> SlowQueryLog.record(client, sql, args, System.nanoTime() - started))
+                .map(mapper);
+        }
+
+        Span query = parent.child("db.query " + operation(sql), KIND_CLIENT)
+            .attribute("db.system", "postgresql")
+            .attribute("db.statement", sql);
+        Future<RowSet<Row>> rows;
+        if (client instanceof Pool) {
+            // Acquire the connection explicitly so the wait for it is its own span
+            Span acquire = query.child("pool.acquire", KIND_INTERNAL);
+            rows = ((Pool) client).getConnection().compose(conn -> {
+                acquire.end(null);
+                Span execute = query.child("db.execute", KIND_INTERNAL);
+                return conn.preparedQuery(sql).execute(args)
+                    .onComplete(ar -> execute.end(ar.failed() ? ar.cause().getMessage() : null))
+                    .eventually(v -> conn.close());
+            }, err -> {
+                acquire.end(err.getMessage());
+                return Future.failedFuture(err);
+            });
+        } else {
+            Span execute = query.child("db.execute", KIND_INTERNAL);
+            rows = client.preparedQuery(sql).execute(args)
+                .onComplete(ar -> execute.end(ar.failed() ? ar.cause().getMessage() : null));
+        }
+
+        return rows.onSuccess(result -> SlowQueryLog.record(client, sql, args, System.nanoTime() - started))
+            .map(result -> {
+                Span map = query.child("rows.map", KIND_INTERNAL).attribute("db.rows", result.size());
+                try {
+                    return mapper.apply(result);
+                } finally {
+                    map.end(null);
+                }
+            })
+            .onComplete(ar -> query.end(ar.failed() ? ar.cause().getMessage() : null));
+    }
+
+    // "SELECT", "UPDATE", ... for the span name; the full statement is an attribute
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        if (trimmed.startsWith("(")) {
+            trimmed = trimmed.substring(1);
+        }
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return trimmed.substring(0, end).toUpperCase();
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            hex.append(Character.forDigit(random.nextInt(16), 16)).append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return hex.toString();
+    }
+
+    private static long nowNanos() {
+        return EPOCH_OFFSET_NANOS + System.nanoTime();
+    }
+
+    // All spans of one request. Spans may end on any thread, so the list is guarded by the trace.
+    static final class Trace {
+        final Tracing tracing;
+        final Context context;
+        final String traceId;
+        final boolean headSampled;
+        final List<Span> spans = new ArrayList<>();
+        final AtomicInteger open = new AtomicInteger();
+        Span root;
+        volatile boolean rootEnded;
+        volatile boolean failed;
+        boolean finished;
+
+        Trace(Tracing tracing, Context context, String traceId, boolean headSampled) {
+            this.tracing = tracing;
+            this.context = context;
+            this.traceId = traceId;
+            this.headSampled = headSampled;
+        }
+
+        Span start(String name, int kind, String parentId) {
+            Span span = new Span(this, name, kind, parentId);
+            open.incrementAndGet();
+            synchronized (this) {
+                if (root == null) {
+                    root = span;
+                }
+                spans.add(span);
+            }
+            return span;
+        }
+
+        void ended(Span span) {
+            if (span.error != null) {
+                failed = true;
+            }
+            if (open.decrementAndGet() == 0 && rootEnded) {
+                // A callback chained on the span's future may still start the next query, so decide on the next tick
+                context.runOnContext(v -> {
+                    if (open.get() == 0) {
+                        finish();
+                    }
+                });
+            }
+        }
+
+        private void finish() {
+            List<Span> finishedSpans;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                finishedSpans = new ArrayList<>(spans);
+            }
+            boolean keep = headSampled
+                || (tracing.tailSampling && (failed || root.endNanos - root.startNanos >= tracing.slowNanos));
+            if (keep) {
+                tracing.exporter.export(finishedSpans);
+            }
+        }
+    }
+
+    static final class Span {
+        final Trace trace;
+        final String spanId = randomHex(8);
+        final String parentId;
+        final int kind;
+        final long startNanos = nowNanos();
+        final JsonArray attributes = new JsonArray();
+        volatile String name;
+        volatile long endNanos;
+        volatile String error;
+        private boolean ended;
+
+        Span(Trace trace, String name, int kind, String parentId) {
+            this.trace = trace;
+            this.name = name;
+            this.kind = kind;
+            this.parentId = parentId;
+        }
+
+        Span child(String childName, int childKind) {
+            return trace.start(childName, childKind, spanId);
+        }
+
+        Span attribute(String key, Object value) {
+            JsonObject typed = value instanceof Number
+                ? new JsonObject().put("intValue", String.valueOf(value))
+                : new JsonObject().put("stringValue", String.valueOf(value));
+            synchronized (attributes) {
+                attributes.add(new JsonObject().put("key", key).put("value", typed));
+            }
+            return this;
+        }
+
+        // error is null on success
+        void end(String error) {
+            synchronized (this) {
+                if (ended) {
+                    return;
+                }
+                ended = true;
+            }
+            this.error = error;
+            this.endNanos = nowNanos();
+            if (this == trace.root) {
+                trace.rootEnded = true;
+            }
+            trace.ended(this);
+        }
+
+        // OTLP/JSON span
+        JsonObject toOtlp() {
+            JsonObject span = new JsonObject()
+                .put("traceId", trace.traceId)
+                .put("spanId", spanId)
+                .put("name", name)
+                .put("kind", kind)
+                .put("startTimeUnixNano", String.valueOf(startNanos))
+                .put("endTimeUnixNano", String.valueOf(endNanos))
+                .put("attributes", attributes)
+                .put("status", error == null
+                    ? new JsonObject().put("code", 1)
+                    : new JsonObject().put("code", 2).put("message", error));
+            if (parentId != null) {
+                span.put("parentSpanId", parentId);
+            }
+            return span;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example;
+
+// One row of the users table. password holds the BCrypt hash and is only loaded for login.
+public record User(
+    Integer id,
+    String username,
+    String email,
+    String role,
+    String password
+) {
+}
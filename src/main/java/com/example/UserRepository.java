@@ -0,0 +1,39 @@
+package com.example;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.List;
+
+// User storage used by AuthenticationHandler. ctx as in TaskRepository.
+// Only findByUsername loads the password hash; every other lookup leaves it null.
+public interface UserRepository {
+
+    // user.password() is the BCrypt hash
+    Future<Void> create(RoutingContext ctx, User user);
+
+    // Read from the primary for login. null when missing.
+    Future<User> findByUsername(RoutingContext ctx, String username);
+
+    Future<List<User>> findAll(RoutingContext ctx);
+
+    // null when missing
+    Future<User> findById(RoutingContext ctx, int userId);
+
+    // The listed users that exist, in no particular order
+    Future<List<User>> findByIds(RoutingContext ctx, Integer[] userIds);
+
+    Future<List<User>> findByRole(RoutingContext ctx, String role);
+
+    // Team members after the given id with their open, overdue and average task progress:
+    // [{id, username, open_tasks, average_progress, overdue_tasks}]
+    Future<JsonArray> workload(RoutingContext ctx, int afterId, int limit);
+
+    Future<Void> updateRole(RoutingContext ctx, int userId, String role);
+
+    Future<Void> delete(RoutingContext ctx, int userId);
+
+    // false when the user does not exist
+    Future<Boolean> updateProfile(RoutingContext ctx, int userId, String username, String email);
+}
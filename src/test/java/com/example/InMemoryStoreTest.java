@@ -0,0 +1,170 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The memory engine completes every future before returning, so results are read directly
+class InMemoryStoreTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final TaskRepository tasks = store.tasks();
+
+    @Test
+    void createUpdateAndDelete() {
+        int projectId = project("Apollo");
+        int taskId = create(projectId, "Design", 7, 0);
+        Task created = tasks.findById(null, taskId, null).result();
+        assertEquals("Design", created.name());
+        assertNotNull(created.createdAt());
+
+        Task updated = tasks.update(null, new Task(taskId, projectId, "Design v2", "d", "In Progress", 7, null, 40, null)).result();
+        assertEquals("Design v2", updated.name());
+        // created_at is not updatable
+        assertEquals(created.createdAt(), updated.createdAt());
+        assertEquals(List.of(updated), tasks.findByProject(null, projectId).result());
+
+        // Wrong project, and unknown task, match nothing
+        assertNull(tasks.update(null, new Task(taskId, projectId + 1, "x", null, null, null, null, 0, null)).result());
+        assertNull(tasks.update(null, new Task(999, projectId, "x", null, null, null, null, 0, null)).result());
+        assertFalse(tasks.delete(null, taskId, projectId + 1).result());
+
+        assertTrue(tasks.delete(null, taskId, projectId).result());
+        assertFalse(tasks.delete(null, taskId, projectId).result());
+        assertNull(tasks.findById(null, taskId, null).result());
+        assertEquals(List.of(), tasks.findByProject(null, projectId).result());
+    }
+
+    @Test
+    void tasksWithoutAProject() {
+        int taskId = create(null, "Loose end", null, 10);
+        assertNotNull(tasks.update(null, new Task(taskId, null, "Loose end", null, null, null, null, 20, null)).result());
+        assertEquals(20, tasks.findById(null, taskId, null).result().progress());
+        assertTrue(tasks.delete(null, taskId, null).result());
+    }
+
+    @Test
+    void assignAndUnassign() {
+        int first = project("A");
+        int second = project("B");
+        int a = create(first, "a", null, 0);
+        int b = create(second, "b", null, 0);
+
+        assertEquals(7, tasks.assign(null, a, 7, null).result().assignedTo());
+        assertEquals(7, tasks.assign(null, b, 7, second).result().assignedTo());
+        // A project hint that does not match leaves the task alone
+        assertNull(tasks.assign(null, a, 8, second).result());
+        assertNull(tasks.assign(null, 999, 7, null).result());
+
+        assertEquals(List.of(a, b), ids(tasks.findByAssignee(null, 7, new Integer[0]).result()));
+        assertEquals(List.of(b), ids(tasks.findByAssignee(null, 7, new Integer[] { second }).result()));
+
+        assertNull(tasks.assign(null, a, null, null).result().assignedTo());
+        assertEquals(List.of(b), ids(tasks.findByAssignee(null, 7, new Integer[0]).result()));
+    }
+
+    @Test
+    void changesSinceACursor() {
+        int projectId = project("Delta");
+        int kept = create(projectId, "kept", 7, 0);
+        int edited = create(projectId, "edited", 7, 0);
+        int deleted = create(projectId, "deleted", 7, 0);
+
+        // since 0 is a full read: every task, no removals
+        TaskChanges full = tasks.changesInProject(null, projectId, 0).result();
+        assertEquals(List.of(kept, edited, deleted), ids(full.tasks()));
+        assertEquals(List.of(), full.removed());
+
+        tasks.update(null, new Task(edited, projectId, "edited", null, null, 7, null, 50, null));
+        tasks.delete(null, deleted, projectId);
+        TaskChanges delta = tasks.changesInProject(null, projectId, full.cursor()).result();
+        assertEquals(List.of(edited), ids(delta.tasks()));
+        assertEquals(List.of(new TaskChanges.Removal(deleted, projectId, "deleted")), delta.removed());
+
+        // Nothing happened since the last cursor
+        TaskChanges empty = tasks.changesInProject(null, projectId, delta.cursor()).result();
+        assertEquals(List.of(), empty.tasks());
+        assertEquals(List.of(), empty.removed());
+        assertEquals(delta.cursor(), empty.cursor());
+
+        // Unassigning shows up as a removal for the assignee; being assigned again cancels it
+        long before = empty.cursor();
+        tasks.assign(null, kept, null, null);
+        TaskChanges assignee = tasks.changesForAssignee(null, 7, new Integer[0], before).result();
+        assertEquals(List.of(new TaskChanges.Removal(kept, projectId, "unassigned")), assignee.removed());
+        tasks.assign(null, kept, 7, null);
+        assignee = tasks.changesForAssignee(null, 7, new Integer[0], before).result();
+        assertEquals(List.of(kept), ids(assignee.tasks()));
+        assertEquals(List.of(), assignee.removed());
+    }
+
+    @Test
+    void cursorsOlderThanThePrunedTombstonesNeedAFullResync() {
+        int projectId = project("Churn");
+        long cursor = tasks.changesInProject(null, projectId, 0).result().cursor();
+        // One more removal than the engine keeps
+        for (int i = 0; i <= 100_000; i++) {
+            tasks.delete(null, create(projectId, "t", null, 0), projectId);
+        }
+        assertNull(tasks.changesInProject(null, projectId, cursor).result());
+        assertNotNull(tasks.changesInProject(null, projectId, 0).result());
+    }
+
+    @Test
+    void dependenciesFollowTheirTasks() {
+        TaskDependencyRepository dependencies = store.dependencies();
+        int projectId = project("Graph");
+        int a = create(projectId, "a", null, 0);
+        int b = create(projectId, "b", null, 0);
+        int c = create(projectId, "c", null, 0);
+        int elsewhere = create(project("Other"), "x", null, 0);
+
+        assertTrue(dependencies.add(null, projectId, new TaskDependency(b, a)).result());
+        assertTrue(dependencies.add(null, projectId, new TaskDependency(c, b)).result());
+        // Duplicate, cycle, self-dependency and a task of another project are all rejected
+        assertFalse(dependencies.add(null, projectId, new TaskDependency(b, a)).result());
+        assertFalse(dependencies.add(null, projectId, new TaskDependency(a, c)).result());
+        assertFalse(dependencies.add(null, projectId, new TaskDependency(a, a)).result());
+        assertFalse(dependencies.add(null, projectId, new TaskDependency(a, elsewhere)).result());
+
+        // As the Postgres delete trigger does, deleting b drops both of its edges
+        tasks.delete(null, b, projectId);
+        assertEquals(List.of(), dependencies.findByProject(projectId).result());
+    }
+
+    @Test
+    void projectStatusFollowsTaskProgress() {
+        int projectId = project("Status");
+        int a = create(projectId, "a", null, 100);
+        create(projectId, "b", null, 0);
+        tasks.refreshProjectStatus(projectId);
+        assertEquals("In Progress", store.projects().findById(null, projectId).result().status());
+
+        tasks.update(null, new Task(a, projectId, "a", null, null, null, null, 0, null));
+        tasks.refreshProjectStatus(projectId);
+        assertEquals("Not Started", store.projects().findById(null, projectId).result().status());
+    }
+
+    private int project(String name) {
+        return store.projects().create(null, new Project(null, name, "", "New", null)).result();
+    }
+
+    private int create(Integer projectId, String name, Integer assignedTo, int progress) {
+        return tasks.create(null, new Task(null, projectId, name, null, "New", assignedTo, null, progress, null)).result();
+    }
+
+    private static List<Integer> ids(List<Task> found) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : found) {
+            ids.add(task.id());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntIntMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(IntIntMap.MISSING, map.get(1));
+        assertEquals(IntIntMap.MISSING, map.put(1, 10));
+        assertEquals(10, map.put(1, 11));
+        assertEquals(11, map.get(1));
+        assertTrue(map.containsKey(1));
+        assertEquals(1, map.size());
+
+        assertEquals(11, map.remove(1));
+        assertEquals(IntIntMap.MISSING, map.remove(1));
+        assertFalse(map.containsKey(1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void zeroNegativeAndExtremeKeysAndValues() {
+        IntIntMap map = new IntIntMap(4);
+        map.put(0, 0);
+        map.put(-1, 5);
+        map.put(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        map.put(Integer.MAX_VALUE, 1);
+        assertEquals(0, map.get(0));
+        assertEquals(5, map.get(-1));
+        assertEquals(Integer.MAX_VALUE, map.get(Integer.MIN_VALUE));
+        assertEquals(1, map.get(Integer.MAX_VALUE));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        IntIntMap map = new IntIntMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, -1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        IntIntMap map = new IntIntMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(IntIntMap.MISSING, map.get(i));
+        }
+        map.put(7, 70);
+        assertEquals(70, map.get(7));
+    }
+
+    @Test
+    void removalsKeepCollidingKeysReachable() {
+        // Multiples of a large power of two collide often, exercising the backward-shift deletion
+        IntIntMap map = new IntIntMap(8);
+        for (int i = 0; i < 64; i++) {
+            map.put(i << 16, i);
+        }
+        for (int i = 0; i < 64; i += 2) {
+            assertEquals(i, map.remove(i << 16));
+        }
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i % 2 == 0 ? IntIntMap.MISSING : i, map.get(i << 16));
+        }
+        assertEquals(32, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(1234);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // A small key range so puts, updates and removes hit the same keys
+            int key = random.nextInt(5_000) - 2_500;
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                Integer previous = expected.put(key, value);
+                assertEquals(previous != null ? previous : IntIntMap.MISSING, map.put(key, value));
+            } else if (operation < 9) {
+                Integer previous = expected.remove(key);
+                assertEquals(previous != null ? previous : IntIntMap.MISSING, map.remove(key));
+            } else {
+                Integer value = expected.get(key);
+                assertEquals(value != null ? value : IntIntMap.MISSING, map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -2_500; key < 2_500; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value != null ? value : IntIntMap.MISSING, map.get(key));
+        }
+    }
+}
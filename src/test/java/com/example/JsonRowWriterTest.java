@@ -0,0 +1,141 @@
+package com.example;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// JsonRowWriter has to produce exactly the bytes the JsonObject-based handlers did
+class JsonRowWriterTest {
+
+    private static final String[] STRINGS = {
+        null, "", "plain", "with \"quotes\"", "back\\slash", "line\nbreak\r\ttab", "\b\f",
+        "\u0000\u0001\u001f", "del \u007f", "café", "日本語", "emoji 🚀", "mixed é \" \u0002 end"
+    };
+
+    private static final Integer[] INTS = { null, 0, 1, 9, 10, 99, 100, -1, -10, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+    private static final LocalDateTime[] DATE_TIMES = {
+        null,
+        LocalDateTime.of(2024, 1, 5, 0, 0),
+        LocalDateTime.of(2024, 1, 5, 9, 7, 3),
+        LocalDateTime.of(2024, 12, 31, 23, 59, 0, 1),
+        LocalDateTime.of(2024, 6, 1, 12, 0, 0, 120_000_000),
+        LocalDateTime.of(2024, 6, 1, 12, 0, 0, 123_456_000),
+        LocalDateTime.of(2024, 6, 1, 12, 0, 0, 123_456_789),
+        LocalDateTime.of(999, 2, 3, 4, 5, 6),
+        LocalDateTime.of(12024, 2, 3, 4, 5, 6),
+        LocalDateTime.of(-5, 2, 3, 4, 5, 6)
+    };
+
+    private static final LocalDate[] DATES = {
+        null, LocalDate.of(2024, 2, 29), LocalDate.of(1, 1, 1), LocalDate.of(10000, 1, 1), LocalDate.of(-1, 12, 31)
+    };
+
+    @Test
+    void tasksMatchJsonObjectEncoding() {
+        List<Task> tasks = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            tasks.add(new Task(
+                pick(random, INTS), pick(random, INTS), pick(random, STRINGS), pick(random, STRINGS), pick(random, STRINGS),
+                pick(random, INTS), pick(random, DATE_TIMES), pick(random, INTS), pick(random, DATES)));
+        }
+
+        JsonArray expected = new JsonArray();
+        tasks.forEach(task -> expected.add(toJson(task)));
+        assertSameBytes(expected.encode(), JsonRowWriter.tasks(tasks));
+    }
+
+    @Test
+    void emptyListsMatchJsonObjectEncoding() {
+        assertSameBytes(new JsonArray().encode(), JsonRowWriter.tasks(List.of()));
+        assertSameBytes(new JsonObject().put("projects", new JsonArray()).encode(), JsonRowWriter.projects(List.of()));
+        assertSameBytes(new JsonObject().put("users", new JsonArray()).encode(), JsonRowWriter.users(List.of()));
+    }
+
+    @Test
+    void projectsMatchJsonObjectEncoding() {
+        List<Project> projects = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            projects.add(new Project(pick(random, INTS), pick(random, STRINGS), pick(random, STRINGS), pick(random, STRINGS), pick(random, DATE_TIMES)));
+        }
+
+        JsonArray expected = new JsonArray();
+        for (Project project : projects) {
+            expected.add(new JsonObject()
+                .put("id", project.id())
+                .put("name", project.name())
+                .put("description", project.description())
+                .put("status", project.status())
+                .put("created_at", project.createdAt() != null ? project.createdAt().toString() : null));
+        }
+        assertSameBytes(new JsonObject().put("projects", expected).encode(), JsonRowWriter.projects(projects));
+    }
+
+    @Test
+    void usersMatchJsonObjectEncoding() {
+        List<User> users = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            users.add(new User(pick(random, INTS), pick(random, STRINGS), pick(random, STRINGS), pick(random, STRINGS), "hash"));
+        }
+
+        JsonArray expected = new JsonArray();
+        for (User user : users) {
+            expected.add(new JsonObject()
+                .put("id", user.id())
+                .put("username", user.username())
+                .put("email", user.email())
+                .put("role", user.role()));
+        }
+        assertSameBytes(new JsonObject().put("users", expected).encode(), JsonRowWriter.users(users));
+    }
+
+    @Test
+    void taskChangesMatchJsonObjectEncoding() {
+        Task task = new Task(3, 1, "Write \"docs\"", null, "In Progress", null, LocalDateTime.of(2024, 3, 1, 8, 30, 15, 5_000_000), 40, LocalDate.of(2024, 4, 1));
+        TaskChanges.Removal removal = new TaskChanges.Removal(9, null, "deleted");
+        TaskChanges changes = new TaskChanges(List.of(task), List.of(removal), 1_700_000_000_123L);
+
+        JsonObject expected = new JsonObject()
+            .put("cursor", "1700000000123")
+            .put("tasks", new JsonArray().add(toJson(task)))
+            .put("deleted", new JsonArray().add(new JsonObject().put("id", 9).put("project_id", (Integer) null).put("reason", "deleted")));
+        assertSameBytes(expected.encode(), JsonRowWriter.taskChanges(changes));
+    }
+
+    private static void assertSameBytes(String expected, Buffer actual) {
+        // Compare strings first for a readable diff, then the raw bytes
+        assertEquals(expected, actual.toString());
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes());
+    }
+
+    private static JsonObject toJson(Task task) {
+        return new JsonObject()
+            .put("id", task.id())
+            .put("project_id", task.projectId())
+            .put("name", task.name())
+            .put("description", task.description())
+            .put("status", task.status())
+            .put("assigned_to", task.assignedTo())
+            .put("created_at", task.createdAt() != null ? task.createdAt().toString() : null)
+            .put("progress", task.progress())
+            .put("due_date", task.dueDate() != null ? task.dueDate().toString() : null);
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
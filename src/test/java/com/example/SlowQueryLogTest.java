@@ -0,0 +1,69 @@
+package com.example;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.sqlclient.Tuple;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SlowQueryLogTest {
+
+    @Test
+    void normalizeCollapsesWhitespaceAndLiterals() {
+        assertEquals("SELECT * FROM tasks WHERE id = ? AND name = ?",
+            SlowQueryLog.normalize("  SELECT *\n  FROM tasks\tWHERE id = 42   AND name = 'it''s done' "));
+        assertEquals("SELECT ? + ?", SlowQueryLog.normalize("SELECT 1.5 + 20"));
+    }
+
+    @Test
+    void normalizeKeepsPlaceholdersAndIdentifiers() {
+        // $n, digits inside identifiers and casts are not literals
+        assertEquals("SELECT t1.id FROM tasks_p3 t1 WHERE t1.project_id = $1 AND x = $12::int",
+            SlowQueryLog.normalize("SELECT t1.id FROM tasks_p3 t1 WHERE t1.project_id = $1 AND x = $12::int"));
+        // The same statement with different inlined values aggregates together
+        assertEquals(SlowQueryLog.normalize("SELECT * FROM tasks LIMIT 10"), SlowQueryLog.normalize("SELECT * FROM tasks  LIMIT 500"));
+    }
+
+    @Test
+    void redactsPasswordComparisons() {
+        JsonArray parameters = SlowQueryLog.parameters(
+            "SELECT id FROM users WHERE username = $1 AND PASSWORD = $2", Tuple.of("admin", "secret"));
+        assertEquals(new JsonArray().add("admin").add("***"), parameters);
+    }
+
+    @Test
+    void redactsPasswordColumnsOfInserts() {
+        JsonArray parameters = SlowQueryLog.parameters(
+            "INSERT INTO users (created_at, username, email, password, role) VALUES (NOW(), $1, $2, $3, $4)",
+            Tuple.of("alice", "alice@example.com", "$2a$10$hash", "team_member"));
+        assertEquals(new JsonArray().add("alice").add("alice@example.com").add("***").add("team_member"), parameters);
+
+        // Values listed out of $n order still map by column position
+        parameters = SlowQueryLog.parameters("INSERT INTO users (password, username) VALUES ($2, $1)", Tuple.of("bob", "hunter2"));
+        assertEquals(new JsonArray().add("bob").add("***"), parameters);
+    }
+
+    @Test
+    void leavesOtherParametersReadable() {
+        Tuple args = Tuple.of(7, null, (Object) new Integer[] { 1, 2, 3 }, "x".repeat(250));
+        JsonArray parameters = SlowQueryLog.parameters("SELECT * FROM tasks WHERE id = $1 AND assigned_to = $2 AND project_id = ANY($3) AND name = $4", args);
+        assertEquals("7", parameters.getString(0));
+        assertNull(parameters.getValue(1));
+        assertEquals("[1, 2, 3]", parameters.getString(2));
+        assertEquals("x".repeat(200) + "...", parameters.getString(3));
+    }
+
+    @Test
+    void onlyReadsAreExplainedWithAnalyze() {
+        assertEquals("EXPLAIN (ANALYZE, BUFFERS) ", SlowQueryLog.explainPrefix("SELECT * FROM tasks WHERE project_id = $1"));
+        assertEquals("EXPLAIN (ANALYZE, BUFFERS) ", SlowQueryLog.explainPrefix("(SELECT day FROM project_progress_daily) UNION ALL (SELECT day FROM x)"));
+        assertEquals("EXPLAIN (ANALYZE, BUFFERS) ", SlowQueryLog.explainPrefix("with recent AS (SELECT updated_at FROM tasks) SELECT * FROM recent"));
+
+        assertEquals("EXPLAIN ", SlowQueryLog.explainPrefix("INSERT INTO tasks (name) VALUES ($1)"));
+        assertEquals("EXPLAIN ", SlowQueryLog.explainPrefix("UPDATE tasks SET name = $1 WHERE id = $2"));
+        assertEquals("EXPLAIN ", SlowQueryLog.explainPrefix("DELETE FROM tasks WHERE id = $1"));
+        assertEquals("EXPLAIN ", SlowQueryLog.explainPrefix("WITH inserted AS (INSERT INTO tasks (name) VALUES ($1) RETURNING id) SELECT * FROM inserted"));
+        assertEquals("EXPLAIN ", SlowQueryLog.explainPrefix("SELECT id FROM projects WHERE id = $1 FOR UPDATE"));
+    }
+}
@@ -0,0 +1,220 @@
+package com.example;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskGraphTest {
+
+    @Test
+    void edgeAgainstTheOrderReordersAndExtendsThePath() {
+        // Loaded without edges, so 1..4 are ordered by id; every new edge below points backwards
+        TaskGraph graph = new TaskGraph(List.of(task(1, 90), task(2, 50), task(3, 0), task(4, 80)), List.of());
+        assertEquals(100, graph.length());
+
+        assertTrue(graph.addDependency(1, 4)); // 1 waits on 4
+        assertTrue(graph.addDependency(4, 3)); // 4 waits on 3
+        assertTrue(graph.addDependency(3, 2)); // 3 waits on 2
+        assertEquals(50 + 100 + 20 + 10, graph.length());
+        assertEquals(List.of(2, 3, 4, 1), ids(graph.criticalPath()));
+
+        // After the reorder, closing the chain back onto 2 is still caught
+        assertFalse(graph.addDependency(2, 1));
+        assertTrue(graph.closesCycle(2, 4));
+        assertFalse(graph.closesCycle(1, 2));
+    }
+
+    @Test
+    void cyclesAreRejectedWithoutChangingTheGraph() {
+        TaskGraph graph = new TaskGraph(List.of(task(1, 0), task(2, 0), task(3, 0)),
+            List.of(new TaskDependency(2, 1), new TaskDependency(3, 2)));
+        JsonArray path = graph.criticalPath();
+        int length = graph.length();
+
+        assertTrue(graph.closesCycle(1, 1));
+        assertFalse(graph.addDependency(1, 1));
+        assertTrue(graph.closesCycle(1, 3));
+        assertFalse(graph.addDependency(1, 3));
+        assertTrue(graph.closesCycle(1, 2));
+        assertFalse(graph.addDependency(1, 2));
+
+        assertEquals(2, graph.dependencyCount());
+        assertEquals(length, graph.length());
+        assertEquals(path, graph.criticalPath());
+
+        // An existing edge is neither a cycle nor counted twice
+        assertFalse(graph.closesCycle(3, 2));
+        assertTrue(graph.addDependency(3, 2));
+        assertEquals(2, graph.dependencyCount());
+    }
+
+    @Test
+    void unknownTasksAreRejected() {
+        TaskGraph graph = new TaskGraph(List.of(task(1, 0)), List.of());
+        assertThrows(IllegalArgumentException.class, () -> graph.addDependency(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> graph.closesCycle(2, 1));
+        assertFalse(graph.removeDependency(1, 2));
+    }
+
+    @Test
+    void storedCyclesAreBrokenOnLoad() {
+        TaskGraph graph = new TaskGraph(List.of(task(1, 0), task(2, 0), task(3, 0)),
+            List.of(new TaskDependency(2, 1), new TaskDependency(3, 2), new TaskDependency(1, 3)));
+        assertEquals(3, graph.taskCount());
+        assertTrue(graph.dependencyCount() < 3);
+        assertEquals(100 * (graph.dependencyCount() + 1), graph.length());
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRecompute() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Map<Integer, Integer> progress = new HashMap<>();
+            List<Task> tasks = new ArrayList<>();
+            int count = 5 + random.nextInt(40);
+            for (int id = 1; id <= count; id++) {
+                int value = random.nextInt(101);
+                progress.put(id, value);
+                tasks.add(task(id, value));
+            }
+            // Edges as blocker -> blocked
+            Set<List<Integer>> edges = new HashSet<>();
+            TaskGraph graph = new TaskGraph(tasks, List.of());
+            int nextId = count + 1;
+
+            for (int operation = 0; operation < 300; operation++) {
+                List<Integer> ids = new ArrayList<>(progress.keySet());
+                if (ids.size() < 2) {
+                    break;
+                }
+                int taskId = ids.get(random.nextInt(ids.size()));
+                int dependsOn = ids.get(random.nextInt(ids.size()));
+                int kind = random.nextInt(10);
+                if (kind < 5) {
+                    boolean cycle = taskId == dependsOn || reaches(edges, taskId, dependsOn);
+                    assertEquals(cycle, graph.closesCycle(taskId, dependsOn));
+                    assertEquals(!cycle, graph.addDependency(taskId, dependsOn));
+                    if (!cycle) {
+                        edges.add(List.of(dependsOn, taskId));
+                    }
+                } else if (kind < 7) {
+                    boolean existed = edges.remove(List.of(dependsOn, taskId));
+                    assertEquals(existed, graph.removeDependency(taskId, dependsOn));
+                } else if (kind < 9) {
+                    int value = random.nextInt(101);
+                    progress.put(taskId, value);
+                    graph.put(task(taskId, value));
+                } else if (random.nextBoolean()) {
+                    progress.remove(taskId);
+                    edges.removeIf(edge -> edge.contains(taskId));
+                    graph.remove(taskId);
+                } else {
+                    int value = random.nextInt(101);
+                    progress.put(nextId, value);
+                    graph.put(task(nextId++, value));
+                }
+                assertMatches(graph, progress, edges);
+            }
+
+            // A graph rebuilt from the same rows agrees with the incrementally maintained one
+            List<Task> rows = new ArrayList<>();
+            progress.forEach((id, value) -> rows.add(task(id, value)));
+            List<TaskDependency> dependencies = new ArrayList<>();
+            for (List<Integer> edge : edges) {
+                dependencies.add(new TaskDependency(edge.get(1), edge.get(0)));
+            }
+            TaskGraph rebuilt = new TaskGraph(rows, dependencies);
+            assertMatches(rebuilt, progress, edges);
+            assertEquals(rebuilt.length(), graph.length());
+        }
+    }
+
+    // Compares length, dependency count and the critical path against finish times computed from scratch
+    private static void assertMatches(TaskGraph graph, Map<Integer, Integer> progress, Set<List<Integer>> edges) {
+        Map<Integer, Integer> finishes = new HashMap<>();
+        int longest = 0;
+        for (int id : progress.keySet()) {
+            longest = Math.max(longest, finish(id, progress, edges, finishes));
+        }
+        assertEquals(longest, graph.length());
+        assertEquals(edges.size(), graph.dependencyCount());
+        assertEquals(progress.size(), graph.taskCount());
+
+        JsonArray path = graph.criticalPath();
+        int previousFinish = 0;
+        Integer previousId = null;
+        for (int i = 0; i < path.size(); i++) {
+            JsonObject step = path.getJsonObject(i);
+            int id = step.getInteger("id");
+            assertEquals(finishes.get(id), step.getInteger("earliest_finish"));
+            assertEquals(previousFinish, (int) step.getInteger("earliest_start"));
+            if (previousId != null) {
+                assertTrue(edges.contains(List.of(previousId, id)), "path step " + previousId + " -> " + id + " is not an edge");
+            }
+            previousFinish = step.getInteger("earliest_finish");
+            previousId = id;
+        }
+        assertEquals(longest, previousFinish);
+    }
+
+    private static int finish(int id, Map<Integer, Integer> progress, Set<List<Integer>> edges, Map<Integer, Integer> memo) {
+        Integer known = memo.get(id);
+        if (known != null) {
+            return known;
+        }
+        int start = 0;
+        for (List<Integer> edge : edges) {
+            if (edge.get(1) == id) {
+                start = Math.max(start, finish(edge.get(0), progress, edges, memo));
+            }
+        }
+        int result = start + 100 - progress.get(id);
+        memo.put(id, result);
+        return result;
+    }
+
+    // Whether "to" can be reached from "from" along blocker -> blocked edges
+    private static boolean reaches(Set<List<Integer>> edges, int from, int to) {
+        Deque<Integer> stack = new ArrayDeque<>(List.of(from));
+        Set<Integer> seen = new HashSet<>();
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == to) {
+                return true;
+            }
+            for (List<Integer> edge : edges) {
+                if (edge.get(0) == node && seen.add(edge.get(1))) {
+                    stack.push(edge.get(1));
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<Integer> ids(JsonArray path) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < path.size(); i++) {
+            ids.add(path.getJsonObject(i).getInteger("id"));
+        }
+        return ids;
+    }
+
+    private static Task task(int id, int progress) {
+        return new Task(id, 1, "Task " + id, null, "In Progress", null, null, progress, null);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskImporterTest {
+
+    @Test
+    void missingOrBlankColumnsMeanAllColumnsInOrder() {
+        assertEquals(TaskImporter.COLUMNS, TaskImporter.parseColumns(null));
+        assertEquals(TaskImporter.COLUMNS, TaskImporter.parseColumns(""));
+        assertEquals(TaskImporter.COLUMNS, TaskImporter.parseColumns("   "));
+    }
+
+    @Test
+    void keepsTheRequestedOrderAndTrimsNames() {
+        assertEquals(List.of("name", "project", "due_date"), TaskImporter.parseColumns("name, project ,due_date"));
+        assertEquals(List.of("assignee"), TaskImporter.parseColumns("assignee"));
+    }
+
+    @Test
+    void rejectsUnknownColumns() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TaskImporter.parseColumns("name,owner"));
+        assertTrue(e.getMessage().contains("'owner'"), e.getMessage());
+        // Only the known names are accepted, so nothing else can reach the COPY column list
+        assertThrows(IllegalArgumentException.class, () -> TaskImporter.parseColumns("name); DROP TABLE tasks; --"));
+        assertThrows(IllegalArgumentException.class, () -> TaskImporter.parseColumns("name,,project"));
+        assertThrows(IllegalArgumentException.class, () -> TaskImporter.parseColumns("Name"));
+    }
+
+    @Test
+    void rejectsDuplicateColumns() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TaskImporter.parseColumns("name,project, name"));
+        assertTrue(e.getMessage().contains("listed twice"), e.getMessage());
+    }
+}